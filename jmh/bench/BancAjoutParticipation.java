@@ -0,0 +1,57 @@
+package bench;
+
+import model.Entite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajout d'un millionième à une participation existante d'un graphe synthétique.
+ * <p>
+ * Le graphe est remis dans son état initial avant chaque itération : chaque cible, détenue à 40 %,
+ * garde une marge de 600 000 ajouts, de sorte que la mesure ne bascule jamais sur le refus d'un
+ * ajout qui dépasserait 100 %.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BancAjoutParticipation {
+    @Param({"1000", "100000", "1000000"})
+    public int aretes;
+
+    private JeuxDeMesure.Graphe graphe;
+    private int compteur;
+
+    @Setup(Level.Trial)
+    public void construire() {
+        graphe = new JeuxDeMesure.Graphe(aretes);
+    }
+
+    @Setup(Level.Iteration)
+    public void reinitialiser() {
+        graphe.reinitialiser();
+        compteur = 0;
+    }
+
+    @Benchmark
+    public int ajouter() {
+        int i = JeuxDeMesure.brasser(compteur++, aretes);
+        Entite cible = graphe.cibles[i % graphe.cibles.length];
+        graphe.service.ajouterParticipationEnMillioniemes(graphe.proprietaire(i), cible, 1);
+        return graphe.service.getMillioniemesDetenus(cible);
+    }
+}
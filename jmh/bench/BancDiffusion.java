@@ -0,0 +1,67 @@
+package bench;
+
+import core.SystemeEvenementiel;
+import model.PersonnePhysique;
+import model.TypeEvenement;
+import modules.ModuleSuiviPersonne;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffusion d'une publication à un nombre croissant de modules abonnés, chacun surveillant une personne.
+ * Le système est recréé à chaque itération, pour que l'historique des événements ne grossisse pas
+ * d'une itération à l'autre.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BancDiffusion {
+    @Param({"1", "10", "100", "1000"})
+    public int modules;
+
+    private JeuxDeMesure.Surveillance surveillance;
+    private SystemeEvenementiel systeme;
+    private int compteur;
+
+    @Setup(Level.Trial)
+    public void construire() {
+        surveillance = new JeuxDeMesure.Surveillance(modules);
+    }
+
+    @Setup(Level.Iteration)
+    public void abonner() {
+        systeme = new SystemeEvenementiel(surveillance.service);
+        systeme.setTraceConsole(false);
+        for (PersonnePhysique personne : surveillance.personnes) {
+            systeme.abonner(TypeEvenement.PUBLICATION,
+                    new ModuleSuiviPersonne(List.of(personne), surveillance.vigie, surveillance.service));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void fermer() {
+        systeme.fermerFlux();
+    }
+
+    @Benchmark
+    public void diffuserEvenement() {
+        systeme.diffuserEvenement(surveillance.publications.get(compteur++ % surveillance.publications.size()));
+    }
+}
@@ -0,0 +1,39 @@
+package bench;
+
+import core.DataImport;
+import core.ParticipationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importation complète des fichiers TSV d'un répertoire ({@code -p donnees=/tmp/donnees} pour un jeu
+ * produit par {@link GenerateurDonnees}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BancImportation {
+    @Param({"data"})
+    public String donnees;
+
+    @Benchmark
+    public ParticipationService importerTout() {
+        ParticipationService service = new ParticipationService();
+        new DataImport(Path.of(donnees)).importerTout(service);
+        return service;
+    }
+}
@@ -0,0 +1,63 @@
+package bench;
+
+import model.Entite;
+import model.Participation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche des propriétaires et transfert de parts sur un graphe de participations synthétique.
+ * <p>
+ * Le transfert rend chaque millionième au détenteur d'origine à l'appel suivant : le graphe reste
+ * dans son état initial d'une itération à l'autre (voir {@link BancAjoutParticipation} pour l'ajout).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BancParticipations {
+    @Param({"1000", "100000", "1000000"})
+    public int aretes;
+
+    private JeuxDeMesure.Graphe graphe;
+    private int compteur;
+
+    @Setup(Level.Trial)
+    public void construire() {
+        graphe = new JeuxDeMesure.Graphe(aretes);
+    }
+
+    @Benchmark
+    public List<Participation> getProprietaires() {
+        return graphe.service.getProprietaires(graphe.cibles[JeuxDeMesure.brasser(compteur++, graphe.cibles.length)]);
+    }
+
+    /**
+     * Transfère un millionième entre deux détenteurs d'une même cible, puis le rend à l'appel suivant.
+     */
+    @Benchmark
+    public boolean transferer() {
+        int k = compteur++;
+        int i = JeuxDeMesure.brasser(k >>> 1, aretes - graphe.cibles.length);
+        int j = i + graphe.cibles.length; // même cible, détenteur suivant
+        Entite cible = graphe.cibles[i % graphe.cibles.length];
+        return (k & 1) == 0
+                ? graphe.service.transfererMillioniemes(graphe.proprietaire(i), graphe.proprietaire(j), cible, 1)
+                : graphe.service.transfererMillioniemes(graphe.proprietaire(j), graphe.proprietaire(i), cible, 1);
+    }
+}
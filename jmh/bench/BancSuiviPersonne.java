@@ -0,0 +1,46 @@
+package bench;
+
+import modules.ModuleSuiviPersonne;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traitement direct d'une publication par un module surveillant un nombre croissant de personnes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BancSuiviPersonne {
+    @Param({"1", "10", "100", "1000"})
+    public int personnes;
+
+    private JeuxDeMesure.Surveillance surveillance;
+    private ModuleSuiviPersonne module;
+    private int compteur;
+
+    @Setup(Level.Trial)
+    public void construire() {
+        surveillance = new JeuxDeMesure.Surveillance(personnes);
+        module = new ModuleSuiviPersonne(surveillance.personnes, surveillance.vigie, surveillance.service);
+    }
+
+    @Benchmark
+    public void traiter() {
+        module.traiter(surveillance.publications.get(compteur++ % surveillance.publications.size()));
+    }
+}
@@ -0,0 +1,114 @@
+package bench;
+
+import core.NomsEntites;
+import core.ParticipationService;
+import core.Vigie;
+import model.Entite;
+import model.Media;
+import model.Participation;
+import model.PersonneMorale;
+import model.PersonnePhysique;
+import model.Publication;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jeux de données synthétiques des bancs JMH, construits en mémoire hors du temps mesuré.
+ * <p>
+ * Les opérations choisissent leurs entrées par un compteur brassé plutôt que par un générateur aléatoire,
+ * pour que le coût du tirage reste négligeable et que les séries soient reproductibles.
+ */
+final class JeuxDeMesure {
+    static final int PARTICIPATIONS_PAR_CIBLE = 10;
+    static final int PART_INITIALE = 40_000; // 4 % : chaque cible est détenue à 40 %
+    private static final int NOMBRE_MEDIAS = 16;
+    private static final int NOMBRE_PUBLICATIONS = 64;
+    private static final LocalDate DATE = LocalDate.of(2025, 1, 1);
+
+    private JeuxDeMesure() {
+    }
+
+    /**
+     * Répartit un compteur sur [0, borne) sans suivre l'ordre des index.
+     */
+    static int brasser(int compteur, int borne) {
+        return (int) (((compteur * 0x9E3779B9L) & 0xFFFFFFFFL) % borne);
+    }
+
+    /**
+     * Graphe de participations synthétique : chaque cible (organisation) est détenue par
+     * {@value #PARTICIPATIONS_PAR_CIBLE} personnes distinctes ; la participation i porte sur
+     * la cible {@code i % cibles} et son détenteur dépend du rang {@code i / cibles}.
+     */
+    static final class Graphe {
+        final ParticipationService service = new ParticipationService();
+        final int aretes;
+        final Entite[] cibles;
+        final Entite[] proprietaires;
+        private final int pas;
+
+        Graphe(int aretes) {
+            this.aretes = aretes;
+            int n = Math.max(1, aretes / PARTICIPATIONS_PAR_CIBLE);
+            cibles = new Entite[n];
+            proprietaires = new Entite[n];
+            for (int k = 0; k < n; k++) {
+                cibles[k] = new PersonneMorale("Organisation " + k);
+                proprietaires[k] = new PersonnePhysique("Personne " + k);
+            }
+            pas = Math.max(1, n / PARTICIPATIONS_PAR_CIBLE);
+            reinitialiser();
+        }
+
+        /**
+         * Replace toutes les participations à leur part initiale.
+         */
+        void reinitialiser() {
+            service.restaurerParticipations(List.of());
+            for (int i = 0; i < aretes; i++) {
+                service.ajouterParticipationEnMillioniemes(proprietaire(i), cibles[i % cibles.length], PART_INITIALE);
+            }
+        }
+
+        Entite proprietaire(int i) {
+            int n = cibles.length;
+            return proprietaires[(i % n + (i / n) * pas) % n];
+        }
+    }
+
+    /**
+     * Personnes surveillées, médias qu'elles détiennent et publications qui les citent.
+     */
+    static final class Surveillance {
+        final ParticipationService service = new ParticipationService();
+        final List<PersonnePhysique> personnes = new ArrayList<>();
+        final List<Publication> publications = new ArrayList<>();
+        final Vigie vigie = new Vigie();
+
+        Surveillance(int nombrePersonnes) {
+            vigie.setAffichageConsole(false);
+            Map<String, Entite> entites = new HashMap<>();
+            for (int k = 0; k < nombrePersonnes; k++) {
+                PersonnePhysique p = new PersonnePhysique("Personne " + k);
+                personnes.add(p);
+                entites.put(NomsEntites.normaliser(p.getNom()), p);
+            }
+            Media[] medias = new Media[NOMBRE_MEDIAS];
+            for (int k = 0; k < medias.length; k++) {
+                medias[k] = new Media("Média " + k, "Presse");
+                entites.put(NomsEntites.normaliser(medias[k].getNom()), medias[k]);
+                service.ajouterParticipationEnMillioniemes(personnes.get(k % nombrePersonnes), medias[k], Participation.CAPITAL_TOTAL / 2);
+            }
+            service.setEntites(entites);
+            for (int k = 0; k < NOMBRE_PUBLICATIONS; k++) {
+                PersonnePhysique citee = personnes.get((k * 31) % nombrePersonnes);
+                publications.add(new Publication(DATE, medias[k % medias.length],
+                        "Entretien exclusif avec " + citee.getNom() + " sur l'actualité de la semaine", "article", List.of()));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import bench.PiloteCharge;
+import core.DataImport;
+import core.ParticipationService;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Point d’entrée non interactif : soumet le système à une charge synthétique et affiche
+ * les latences entre l'émission des événements et les alertes de la Vigie.
+ *
+ * Usage : {@code java Charge [--donnees répertoire] [--duree s] [--chauffe s] [--debit évén./s]
+ * [--rachats proportion] [--zipf s] [--graine g]}
+ * Par défaut : répertoire data, 30 s de mesure après 10 s de chauffe, au plus vite, 10 % de rachats, Zipf 1.
+ */
+public class Charge {
+    public static void main(String[] args) {
+        Path donnees = Path.of("data");
+        double duree = 30;
+        double chauffe = 10;
+        double debit = 0;
+        double rachats = 0.1;
+        double zipf = 1;
+        long graine = 42;
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                System.err.println("Option incomplète : " + args[i]);
+                System.exit(2);
+            }
+            String valeur = args[i + 1];
+            try {
+                switch (args[i]) {
+                    case "--donnees" -> donnees = Path.of(valeur);
+                    case "--duree" -> duree = Double.parseDouble(valeur);
+                    case "--chauffe" -> chauffe = Double.parseDouble(valeur);
+                    case "--debit" -> debit = Double.parseDouble(valeur);
+                    case "--rachats" -> rachats = Double.parseDouble(valeur);
+                    case "--zipf" -> zipf = Double.parseDouble(valeur);
+                    case "--graine" -> graine = Long.parseLong(valeur);
+                    default -> System.err.println("Option inconnue ignorée : " + args[i]);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Valeur invalide pour " + args[i] + " : " + valeur);
+                System.exit(2);
+            }
+            i++;
+        }
+
+        ParticipationService participationService = new ParticipationService();
+        DataImport dataImport = new DataImport(donnees);
+        dataImport.importerTout(participationService);
+        System.out.println("Importation terminée : " + participationService.getEntites().size() + " entités, "
+                + participationService.getParticipations().size() + " participations, "
+                + dataImport.getErreurs().size() + " erreur(s).");
+
+        PiloteCharge pilote = new PiloteCharge(participationService);
+        pilote.setDuree(Duration.ofMillis((long) (duree * 1000)));
+        pilote.setChauffe(Duration.ofMillis((long) (chauffe * 1000)));
+        pilote.setDebit(debit);
+        pilote.setProportionRachats(rachats);
+        pilote.setExposantZipf(zipf);
+        pilote.setGraine(graine);
+        try {
+            pilote.executer().afficher(System.out);
+        } catch (IllegalStateException e) {
+            System.err.println("Charge impossible : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
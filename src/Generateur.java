@@ -0,0 +1,56 @@
+import bench.GenerateurDonnees;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Point d’entrée non interactif : écrit un jeu de données synthétique au format des fichiers data/*.tsv.
+ *
+ * Usage : {@code java Generateur <répertoire> [--personnes n] [--organisations n] [--medias n]
+ * [--niveaux n] [--zipf s] [--croisees f] [--graine g]} (graine 42 par défaut)
+ * Le répertoire produit se charge avec {@code new DataImport(répertoire)} ou {@code java -jar target/benchmarks.jar BancImportation -p donnees=répertoire}.
+ */
+public class Generateur {
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println("Usage : java Generateur <répertoire> [--personnes n] [--organisations n] [--medias n]"
+                    + " [--niveaux n] [--zipf s] [--croisees f] [--graine g]");
+            System.exit(2);
+        }
+        Path repertoire = Path.of(args[0]);
+        GenerateurDonnees generateur = new GenerateurDonnees();
+        for (int i = 1; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                System.err.println("Option incomplète : " + args[i]);
+                System.exit(2);
+            }
+            String valeur = args[i + 1];
+            try {
+                switch (args[i]) {
+                    case "--personnes" -> generateur.setNombrePersonnes(Integer.parseInt(valeur));
+                    case "--organisations" -> generateur.setNombreOrganisations(Integer.parseInt(valeur));
+                    case "--medias" -> generateur.setNombreMedias(Integer.parseInt(valeur));
+                    case "--niveaux" -> generateur.setNiveaux(Integer.parseInt(valeur));
+                    case "--zipf" -> generateur.setExposantZipf(Double.parseDouble(valeur));
+                    case "--croisees" -> generateur.setFractionCroisees(Double.parseDouble(valeur));
+                    case "--graine" -> generateur.setGraine(Long.parseLong(valeur));
+                    default -> System.err.println("Option inconnue ignorée : " + args[i]);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Valeur invalide pour " + args[i] + " : " + valeur);
+                System.exit(2);
+            }
+            i++;
+        }
+
+        try {
+            long debut = System.nanoTime();
+            int participations = generateur.generer(repertoire);
+            System.out.printf("Jeu de données écrit dans %s : %d participations en %d ms.%n",
+                    repertoire, participations, (System.nanoTime() - debut) / 1_000_000);
+        } catch (IOException e) {
+            System.err.println("Impossible d'écrire le jeu de données : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
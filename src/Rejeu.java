@@ -0,0 +1,106 @@
+import core.BilanMemoire;
+import core.DataImport;
+import core.ParticipationService;
+import core.RejeuEvenements;
+import core.SystemeEvenementiel;
+import core.Vigie;
+import model.Entite;
+import model.Media;
+import model.PersonnePhysique;
+import model.TypeEvenement;
+import modules.ModuleSuiviMedia;
+import modules.ModuleSuiviPersonne;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Point d’entrée non interactif : rejoue un fichier d'événements et affiche un rapport de performance.
+ *
+ * Usage : {@code java Rejeu <fichier> [--personne nom]... [--media nom]... [--empreinte]}
+ * Sans option, toutes les personnes physiques et tous les médias importés sont surveillés.
+ * Avec {@code --empreinte}, l'empreinte mémoire estimée du modèle est affichée après le rejeu.
+ */
+public class Rejeu {
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage : java Rejeu <fichier d'événements> [--personne nom]... [--media nom]... [--empreinte]");
+            System.exit(2);
+        }
+
+        ParticipationService participationService = new ParticipationService();
+        DataImport dataImport = new DataImport();
+        dataImport.importerTout(participationService);
+        System.out.println("Importation terminée : " + participationService.getEntites().size() + " entités, "
+                + participationService.getParticipations().size() + " participations, "
+                + dataImport.getErreurs().size() + " erreur(s).");
+
+        List<PersonnePhysique> personnes = new ArrayList<>();
+        List<Media> medias = new ArrayList<>();
+        boolean empreinte = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--empreinte")) {
+                empreinte = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.err.println("Option incomplète : " + args[i]);
+                System.exit(2);
+            }
+            Entite entite = participationService.getEntiteParNom(args[i + 1]);
+            switch (args[i]) {
+                case "--personne" -> {
+                    if (entite instanceof PersonnePhysique p) {
+                        personnes.add(p);
+                    } else {
+                        System.err.println("Personne introuvable : " + args[i + 1]);
+                    }
+                }
+                case "--media" -> {
+                    if (entite instanceof Media m) {
+                        medias.add(m);
+                    } else {
+                        System.err.println("Média introuvable : " + args[i + 1]);
+                    }
+                }
+                default -> System.err.println("Option inconnue ignorée : " + args[i]);
+            }
+            i++;
+        }
+        if (personnes.isEmpty() && medias.isEmpty()) {
+            for (Entite e : participationService.getEntites().values()) {
+                if (e instanceof PersonnePhysique p) {
+                    personnes.add(p);
+                } else if (e instanceof Media m) {
+                    medias.add(m);
+                }
+            }
+        }
+
+        Vigie vigie = new Vigie();
+        vigie.setAffichageConsole(false);
+        SystemeEvenementiel systeme = new SystemeEvenementiel(participationService);
+        systeme.setTraceConsole(false);
+        if (!personnes.isEmpty()) {
+            systeme.abonner(TypeEvenement.PUBLICATION, new ModuleSuiviPersonne(personnes, vigie, participationService));
+        }
+        if (!medias.isEmpty()) {
+            systeme.abonner(TypeEvenement.RACHAT, new ModuleSuiviMedia(medias, vigie));
+        }
+        System.out.println("Surveillance : " + personnes.size() + " personne(s), " + medias.size() + " média(s).");
+
+        try {
+            RejeuEvenements.Rapport rapport = new RejeuEvenements(participationService, systeme, vigie)
+                    .rejouer(Path.of(args[0]), System.err);
+            rapport.afficher(System.out);
+            if (empreinte) {
+                BilanMemoire.etablir(participationService, systeme, vigie).afficher(System.out);
+            }
+        } catch (IOException e) {
+            System.err.println("Impossible de lire le fichier d'événements : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
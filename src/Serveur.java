@@ -0,0 +1,164 @@
+import core.ArchiveAlertes;
+import core.DataImport;
+import core.JournalMutations;
+import core.MetriquesJmx;
+import core.Outbox;
+import core.ParticipationService;
+import core.SystemeEvenementiel;
+import core.Vigie;
+import model.Entite;
+import model.Media;
+import model.PersonnePhysique;
+import model.TypeEvenement;
+import modules.ModuleSuiviMedia;
+import modules.ModuleSuiviPersonne;
+import ui.ServeurHttp;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Point d’entrée du serveur HTTP d'ingestion.
+ * Toutes les personnes physiques et tous les médias importés sont surveillés.
+ * Les métriques d'exécution sont exposées par JMX (domaine « vigie »).
+ * Comme dans l'application console, les mutations sont journalisées et restaurées au démarrage,
+ * et les rachats passent par la boîte d'envoi persistante.
+ *
+ * Usage : {@code java Serveur [port] [requêtes simultanées max] [flux simultanés max]}
+ * (par défaut 8080, 256 et 64).
+ */
+public class Serveur {
+    private static final String CHEMIN_OUTBOX = "data/outbox.log";
+    private static final String CHEMIN_JOURNAL = "data/vigie.wal";
+    private static final String CHEMIN_INSTANTANE = "data/vigie.snapshot";
+    private static final int TAILLE_HISTORIQUE_MODULES = 1000; // serveur de longue durée : historiques bornés
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int maxRequetes = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int maxFlux = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        ParticipationService participationService = new ParticipationService();
+        DataImport dataImport = new DataImport();
+        dataImport.importerTout(participationService);
+        JournalMutations journal = ouvrirJournal(participationService);
+
+        List<PersonnePhysique> personnes = new ArrayList<>();
+        List<Media> medias = new ArrayList<>();
+        for (Entite e : participationService.getEntites().values()) {
+            if (e instanceof PersonnePhysique p) {
+                personnes.add(p);
+            } else if (e instanceof Media m) {
+                medias.add(m);
+            }
+        }
+
+        Vigie vigie = new Vigie();
+        vigie.setAffichageConsole(false);
+        SystemeEvenementiel systeme = new SystemeEvenementiel(participationService);
+        systeme.setTraceConsole(false);
+        systeme.abonner(TypeEvenement.PUBLICATION, new ModuleSuiviPersonne(personnes, vigie, participationService,
+                TAILLE_HISTORIQUE_MODULES));
+        systeme.abonner(TypeEvenement.RACHAT, new ModuleSuiviMedia(medias, vigie, TAILLE_HISTORIQUE_MODULES));
+        ouvrirOutbox(systeme);
+
+        MetriquesJmx metriques = new MetriquesJmx(systeme, vigie, participationService, dataImport);
+        try {
+            metriques.enregistrer();
+        } catch (JMException e) {
+            System.err.println("Métriques JMX indisponibles : " + e.getMessage());
+        }
+
+        try {
+            ArchiveAlertes archive = new ArchiveAlertes(Path.of("data/alertes"), participationService::getEntiteParNom);
+            vigie.setArchive(archive);
+            ServeurHttp serveur = new ServeurHttp(port, maxRequetes, maxFlux, participationService, systeme, vigie);
+            serveur.demarrer();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                serveur.arreter(2, () -> {
+                    fermerJournal(journal, participationService);
+                    fermerOutbox(systeme);
+                });
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    System.err.println("Erreur lors de la fermeture de l'archive des alertes : " + e.getMessage());
+                }
+            }));
+            System.out.println("Serveur d'ingestion à l'écoute sur le port " + serveur.getPort());
+        } catch (IOException e) {
+            System.err.println("Impossible de démarrer le serveur : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Ouvre le journal des mutations, restaure l'état de la session précédente
+     * puis active la journalisation des nouvelles mutations.
+     *
+     * @return le journal, ou null s'il est indisponible
+     */
+    private static JournalMutations ouvrirJournal(ParticipationService participationService) {
+        try {
+            JournalMutations journal = new JournalMutations(Path.of(CHEMIN_JOURNAL), Path.of(CHEMIN_INSTANTANE));
+            int rejouees = journal.restaurer(participationService);
+            if (rejouees > 0) {
+                System.out.println(rejouees + " mutation(s) rejouée(s) depuis le journal.");
+            }
+            participationService.setJournal(journal);
+            return journal;
+        } catch (IOException e) {
+            System.err.println("Journal indisponible, les mutations ne seront pas persistées : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Sauvegarde un instantané des participations (ce qui vide le journal) puis ferme le journal.
+     */
+    private static void fermerJournal(JournalMutations journal, ParticipationService participationService) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.sauvegarderInstantane(participationService);
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture du journal : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Détache et ferme la boîte d'envoi. Les entrées en attente seront rediffusées au prochain démarrage.
+     */
+    private static void fermerOutbox(SystemeEvenementiel systeme) {
+        Outbox outbox = systeme.getOutbox();
+        if (outbox == null) {
+            return;
+        }
+        systeme.setOutbox(null);
+        try {
+            outbox.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture de la boîte d'envoi : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ouvre la boîte d'envoi persistante et rediffuse les événements restés en attente.
+     */
+    private static void ouvrirOutbox(SystemeEvenementiel systeme) {
+        try {
+            systeme.setOutbox(new Outbox(Path.of(CHEMIN_OUTBOX)));
+            int rediffuses = systeme.reprendreOutbox();
+            if (rediffuses > 0) {
+                System.out.println(rediffuses + " événement(s) en attente rediffusé(s) depuis la boîte d'envoi.");
+            }
+        } catch (IOException e) {
+            System.err.println("Boîte d'envoi indisponible, les rachats ne seront pas persistés : " + e.getMessage());
+        }
+    }
+}
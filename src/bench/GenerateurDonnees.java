@@ -0,0 +1,325 @@
+package bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Générateur de jeux de données synthétiques au format des fichiers TSV lus par {@link core.DataImport}.
+ * <p>
+ * Le graphe produit reprend la forme des données réelles, à une échelle choisie :
+ * <ul>
+ *     <li>les organisations sont réparties en niveaux ; celles du niveau 0 (holdings de tête) sont détenues
+ *     par des personnes, celles des niveaux suivants par des organisations des niveaux supérieurs,
+ *     ce qui forme des chaînes de détention sur plusieurs niveaux ;</li>
+ *     <li>les détenteurs sont tirés selon une loi de Zipf : quelques personnes et holdings détiennent
+ *     une grande partie des organisations et des médias, la plupart n'en détiennent qu'un ou deux ;</li>
+ *     <li>une fraction des organisations se détiennent mutuellement (participations croisées) ;</li>
+ *     <li>les parts d'une même cible ne dépassent jamais 100 %.</li>
+ * </ul>
+ * Une même graine et les mêmes paramètres produisent toujours les mêmes fichiers.
+ */
+public final class GenerateurDonnees {
+    private static final String[] PRENOMS = {"Alain", "Anne", "Bernard", "Camille", "Charles", "Claire", "Daniel",
+            "Élise", "François", "Hélène", "Isabelle", "Jacques", "Jean", "Louise", "Marc", "Marie", "Michel",
+            "Nathalie", "Nicolas", "Patrick", "Pierre", "Sophie", "Thierry", "Vincent"};
+    private static final String[] NOMS = {"Arnaud", "Bertrand", "Blanc", "Bonnet", "Chevalier", "David", "Dubois",
+            "Durand", "Fontaine", "Garnier", "Girard", "Lambert", "Laurent", "Lefebvre", "Leroy", "Martin",
+            "Mercier", "Moreau", "Morel", "Petit", "Richard", "Robert", "Roux", "Simon"};
+    private static final String[] SYLLABES = {"al", "ba", "cor", "del", "fi", "gra", "lu", "ma", "nor", "pa",
+            "ri", "sol", "ta", "ver", "vi", "zen"};
+    private static final String[] FORMES_ORGANISATION = {"Groupe %s", "%s Holding", "%s Participations",
+            "Financière %s", "%s SA", "Compagnie %s"};
+    private static final String[] FORMES_MEDIA = {"Le %s", "%s Matin", "Radio %s", "%s TV", "%s Hebdo", "L'Écho de %s"};
+    private static final String[] TYPES_MEDIA = {"Presse (généraliste  politique  économique)", "Radio", "Site", "Télévision"};
+    private static final int[] POIDS_TYPES_MEDIA = {70, 11, 4, 15}; // répartition des données réelles, en %
+    private static final String[] ECHELLES = {"National", "International", ""};
+    private static final String[] PRIX = {"Payant", "Gratuit"};
+
+    private static final int CAPITAL = 10_000; // parts en centièmes de pourcent
+
+    private int nombrePersonnes = 10_000;
+    private int nombreOrganisations = 20_000;
+    private int nombreMedias = 5_000;
+    private int niveaux = 4;
+    private double exposantZipf = 1.1;
+    private double fractionCroisees = 0.02;
+    private long graine = 42;
+
+    /**
+     * @param graine graine du générateur pseudo-aléatoire
+     */
+    public void setGraine(long graine) {
+        this.graine = graine;
+    }
+
+    public void setNombrePersonnes(int nombrePersonnes) {
+        this.nombrePersonnes = Math.max(1, nombrePersonnes);
+    }
+
+    public void setNombreOrganisations(int nombreOrganisations) {
+        this.nombreOrganisations = Math.max(1, nombreOrganisations);
+    }
+
+    public void setNombreMedias(int nombreMedias) {
+        this.nombreMedias = Math.max(0, nombreMedias);
+    }
+
+    /**
+     * @param niveaux nombre de niveaux de la hiérarchie des organisations (longueur maximale des chaînes)
+     */
+    public void setNiveaux(int niveaux) {
+        this.niveaux = Math.max(1, niveaux);
+    }
+
+    /**
+     * @param exposantZipf exposant de la loi de Zipf des détenteurs ; plus il est élevé, plus la détention est concentrée
+     */
+    public void setExposantZipf(double exposantZipf) {
+        this.exposantZipf = exposantZipf;
+    }
+
+    /**
+     * @param fractionCroisees fraction des organisations engagées dans une participation croisée
+     */
+    public void setFractionCroisees(double fractionCroisees) {
+        this.fractionCroisees = fractionCroisees;
+    }
+
+    /**
+     * Écrit les sept fichiers TSV dans un répertoire, créé au besoin.
+     *
+     * @param repertoire répertoire de destination
+     * @return nombre de participations écrites
+     * @throws IOException si un fichier ne peut pas être écrit
+     */
+    public int generer(Path repertoire) throws IOException {
+        Files.createDirectories(repertoire);
+        Random aleatoire = new Random(graine);
+        Set<String> nomsPris = new HashSet<>();
+
+        String[] personnes = new String[nombrePersonnes];
+        for (int i = 0; i < personnes.length; i++) {
+            personnes[i] = unique(PRENOMS[aleatoire.nextInt(PRENOMS.length)] + " " + NOMS[aleatoire.nextInt(NOMS.length)], nomsPris);
+        }
+        String[] organisations = new String[nombreOrganisations];
+        for (int i = 0; i < organisations.length; i++) {
+            organisations[i] = unique(String.format(FORMES_ORGANISATION[aleatoire.nextInt(FORMES_ORGANISATION.length)],
+                    mot(aleatoire)), nomsPris);
+        }
+        String[] medias = new String[nombreMedias];
+        for (int i = 0; i < medias.length; i++) {
+            medias[i] = unique(String.format(FORMES_MEDIA[aleatoire.nextInt(FORMES_MEDIA.length)], mot(aleatoire)), nomsPris);
+        }
+
+        ecrireEntites(repertoire.resolve("personnes.tsv"),
+                "Nom\trangChallenges2024\tmilliardaireForbes2024\trangChallenges2023\tmilliardaireForbes2023"
+                        + "\trangChallenges2022\tmilliardaireForbes2022\trangChallenges2021\tmilliardaireForbes2021",
+                personnes, "\t\t\t\t\t\t\t\t");
+        ecrireEntites(repertoire.resolve("organisations.tsv"), "nom\tcommentaire", organisations, "\t");
+        try (BufferedWriter w = Files.newBufferedWriter(repertoire.resolve("medias.tsv"), StandardCharsets.UTF_8)) {
+            w.write("Nom\tType\tPeriodicite\tEchelle\tPrix\tDisparu\n");
+            for (String media : medias) {
+                w.write(media + "\t" + typeMedia(aleatoire) + "\t\t" + ECHELLES[aleatoire.nextInt(ECHELLES.length)]
+                        + "\t" + PRIX[aleatoire.nextInt(PRIX.length)] + "\t\n");
+            }
+        }
+
+        // Les organisations sont rangées par niveau : [debutNiveau[k], debutNiveau[k + 1]) forment le niveau k.
+        // Les premières de chaque plage sont les plus souvent tirées comme détentrices.
+        int[] debutNiveau = new int[niveaux + 1];
+        int teteNiveau0 = Math.max(1, nombreOrganisations / 10);
+        debutNiveau[1] = Math.min(teteNiveau0, nombreOrganisations);
+        for (int k = 2; k <= niveaux; k++) {
+            debutNiveau[k] = debutNiveau[1] + (int) ((long) (nombreOrganisations - debutNiveau[1]) * (k - 1) / Math.max(1, niveaux - 1));
+        }
+        debutNiveau[niveaux] = nombreOrganisations;
+
+        LoiZipf zipfPersonnes = new LoiZipf(nombrePersonnes, exposantZipf);
+        LoiZipf zipfOrganisations = new LoiZipf(nombreOrganisations, exposantZipf);
+        int[] partsLibresOrganisations = new int[nombreOrganisations];
+        Arrays.fill(partsLibresOrganisations, CAPITAL);
+        Set<Long> liens = new HashSet<>();
+        int total = 0;
+
+        try (Fichier personneOrganisation = new Fichier(repertoire.resolve("personne-organisation.tsv"), true);
+             Fichier organisationOrganisation = new Fichier(repertoire.resolve("organisation-organisation.tsv"), true);
+             Fichier personneMedia = new Fichier(repertoire.resolve("personne-media.tsv"), false);
+             Fichier organisationMedia = new Fichier(repertoire.resolve("organisation-media.tsv"), false)) {
+
+            // Organisations : les holdings de tête appartiennent à des personnes, les autres aux niveaux supérieurs
+            for (int o = 0; o < nombreOrganisations; o++) {
+                int limite = o < debutNiveau[1] ? 0 : debutNiveau[niveau(o, debutNiveau)];
+                int[] parts = repartir(aleatoire);
+                for (int part : parts) {
+                    boolean parPersonne = limite == 0 || aleatoire.nextInt(10) == 0;
+                    int detenteur = parPersonne ? zipfPersonnes.tirer(aleatoire)
+                            : zipfOrganisations.tirer(limite, aleatoire);
+                    long lien = parPersonne ? -1 - ((long) detenteur << 32 | o) : (long) detenteur << 32 | o;
+                    if (!liens.add(lien) || partsLibresOrganisations[o] < part) {
+                        continue;
+                    }
+                    partsLibresOrganisations[o] -= part;
+                    if (parPersonne) {
+                        personneOrganisation.ecrire(personnes[detenteur], part, organisations[o]);
+                    } else {
+                        organisationOrganisation.ecrire(organisations[detenteur], part, organisations[o]);
+                    }
+                    total++;
+                }
+            }
+
+            // Participations croisées : deux organisations d'un même niveau se détiennent mutuellement
+            int croisees = (int) (nombreOrganisations * fractionCroisees / 2);
+            for (int c = 0; c < croisees; c++) {
+                int a = aleatoire.nextInt(nombreOrganisations);
+                int k = niveau(a, debutNiveau);
+                int b = debutNiveau[k] + aleatoire.nextInt(debutNiveau[k + 1] - debutNiveau[k]);
+                int part = 100 + aleatoire.nextInt(900); // de 1 % à 10 %
+                if (a == b || partsLibresOrganisations[a] < part || partsLibresOrganisations[b] < part
+                        || !liens.add((long) a << 32 | b) || !liens.add((long) b << 32 | a)) {
+                    continue;
+                }
+                partsLibresOrganisations[a] -= part;
+                partsLibresOrganisations[b] -= part;
+                organisationOrganisation.ecrire(organisations[a], part, organisations[b]);
+                organisationOrganisation.ecrire(organisations[b], part, organisations[a]);
+                total += 2;
+            }
+
+            // Médias : détenus surtout par des organisations, de tout niveau, parfois directement par des personnes
+            for (String media : medias) {
+                int libres = CAPITAL;
+                Set<Integer> detenteurs = new HashSet<>();
+                for (int part : repartir(aleatoire)) {
+                    boolean parPersonne = aleatoire.nextInt(5) == 0;
+                    int detenteur = parPersonne ? zipfPersonnes.tirer(aleatoire)
+                            : zipfOrganisations.tirer(aleatoire);
+                    if (!detenteurs.add(parPersonne ? -1 - detenteur : detenteur) || libres < part) {
+                        continue;
+                    }
+                    libres -= part;
+                    if (parPersonne) {
+                        personneMedia.ecrire(personnes[detenteur], part, media);
+                    } else {
+                        organisationMedia.ecrire(organisations[detenteur], part, media);
+                    }
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Répartit tout ou partie du capital d'une cible entre un à cinq détenteurs :
+     * un détenteur unique dans la moitié des cas, comme dans les données réelles.
+     *
+     * @return parts en centièmes de pourcent, de somme au plus égale au capital
+     */
+    private static int[] repartir(Random aleatoire) {
+        int nombre = aleatoire.nextInt(2) == 0 ? 1 : 2 + aleatoire.nextInt(4);
+        int detenu = nombre == 1 && aleatoire.nextInt(3) > 0 ? CAPITAL : 2_000 + aleatoire.nextInt(CAPITAL - 1_999);
+        int[] parts = new int[nombre];
+        int reste = detenu;
+        for (int i = 0; i < nombre - 1; i++) {
+            parts[i] = 1 + aleatoire.nextInt(Math.max(1, reste / 2));
+            reste -= parts[i];
+        }
+        parts[nombre - 1] = reste;
+        return parts;
+    }
+
+    private static int niveau(int organisation, int[] debutNiveau) {
+        int k = 0;
+        while (organisation >= debutNiveau[k + 1]) {
+            k++;
+        }
+        return k;
+    }
+
+    private static String typeMedia(Random aleatoire) {
+        int t = aleatoire.nextInt(100);
+        for (int i = 0; i < POIDS_TYPES_MEDIA.length; i++) {
+            t -= POIDS_TYPES_MEDIA[i];
+            if (t < 0) {
+                return TYPES_MEDIA[i];
+            }
+        }
+        return TYPES_MEDIA[0];
+    }
+
+    private static String mot(Random aleatoire) {
+        StringBuilder sb = new StringBuilder();
+        int n = 2 + aleatoire.nextInt(2);
+        for (int i = 0; i < n; i++) {
+            sb.append(SYLLABES[aleatoire.nextInt(SYLLABES.length)]);
+        }
+        sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+        return sb.toString();
+    }
+
+    /**
+     * Rend un nom distinct de tous les noms déjà pris (sans tenir compte de la casse), en le numérotant au besoin.
+     */
+    private static String unique(String nom, Set<String> nomsPris) {
+        String candidat = nom;
+        for (int n = 2; !nomsPris.add(candidat.toLowerCase(Locale.ROOT)); n++) {
+            candidat = nom + " " + n;
+        }
+        return candidat;
+    }
+
+    private static void ecrireEntites(Path chemin, String entete, String[] noms, String champsVides) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(chemin, StandardCharsets.UTF_8)) {
+            w.write(entete);
+            w.write('\n');
+            for (String nom : noms) {
+                w.write(nom);
+                w.write(champsVides);
+                w.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Fichier de participations : id, origine, qualificatif, valeur, cible (et commentaire pour les organisations).
+     */
+    private static final class Fichier implements AutoCloseable {
+        private final BufferedWriter w;
+        private final boolean commentaire;
+        private int id;
+
+        Fichier(Path chemin, boolean commentaire) throws IOException {
+            this.w = Files.newBufferedWriter(chemin, StandardCharsets.UTF_8);
+            this.commentaire = commentaire;
+            w.write(commentaire ? "id\torigine\tqualificatif\tvaleur\tcible\tcommentaire\n" : "id\torigine\tqualificatif\tvaleur\tcible\n");
+        }
+
+        void ecrire(String origine, int centiemes, String cible) throws IOException {
+            w.write(Integer.toString(++id));
+            w.write('\t');
+            w.write(origine);
+            w.write("\tégal à\t");
+            w.write(Integer.toString(centiemes / 100));
+            w.write('.');
+            w.write((char) ('0' + centiemes / 10 % 10));
+            w.write((char) ('0' + centiemes % 10));
+            w.write("%\t");
+            w.write(cible);
+            w.write(commentaire ? "\t\n" : "\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            w.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tirage de rangs selon une loi de Zipf : le rang r (à partir de 0) a un poids 1 / (r + 1)^s.
+ * Les poids cumulés sont calculés une fois ; un tirage coûte une recherche dichotomique.
+ */
+final class LoiZipf {
+    private final double[] cumul;
+
+    /**
+     * @param n        nombre de rangs
+     * @param exposant exposant s ; 0 donne une loi uniforme, plus il est élevé, plus les premiers rangs dominent
+     */
+    LoiZipf(int n, double exposant) {
+        cumul = new double[Math.max(1, n)];
+        double somme = 0;
+        for (int i = 0; i < cumul.length; i++) {
+            somme += 1 / Math.pow(i + 1, exposant);
+            cumul[i] = somme;
+        }
+    }
+
+    /**
+     * @return un rang dans [0, n)
+     */
+    int tirer(Random aleatoire) {
+        return tirer(cumul.length, aleatoire);
+    }
+
+    /**
+     * @return un rang dans [0, limite), selon la loi restreinte aux premiers rangs
+     */
+    int tirer(int limite, Random aleatoire) {
+        double u = aleatoire.nextDouble() * cumul[limite - 1];
+        int i = Arrays.binarySearch(cumul, 0, limite, u);
+        return Math.min(i >= 0 ? i : -i - 1, limite - 1);
+    }
+}
@@ -0,0 +1,319 @@
+package bench;
+
+import core.FiltreAlertes;
+import core.HistogrammeLatences;
+import core.ParticipationService;
+import core.SystemeEvenementiel;
+import core.Vigie;
+import model.Alerte;
+import model.Entite;
+import model.Evenement;
+import model.Media;
+import model.Participation;
+import model.PersonneMorale;
+import model.PersonnePhysique;
+import model.Publication;
+import model.Rachat;
+import model.TypeEvenement;
+import modules.ModuleSuiviMedia;
+import modules.ModuleSuiviPersonne;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pilote de charge en boucle fermée : génère des publications et des rachats sur les entités du
+ * {@link ParticipationService}, les fait traiter par le {@link SystemeEvenementiel} et mesure le délai
+ * entre l'émission de chaque événement et la première alerte retenue par la {@link Vigie}.
+ * <p>
+ * Un seul événement est en cours à la fois. À débit imposé, les émissions sont cadencées sur un
+ * calendrier fixe et les latences sont comptées depuis l'instant prévu d'émission, et non depuis
+ * l'instant réel : un retard pris par le système se retrouve dans les centiles au lieu d'espacer
+ * silencieusement les émissions (omission coordonnée). Sans débit imposé, les événements s'enchaînent
+ * aussi vite que possible.
+ * <p>
+ * Les entités citées, les médias sources et les participations rachetées sont tirés selon une loi de Zipf :
+ * quelques entités concentrent la majorité des événements, comme dans l'actualité réelle.
+ */
+public final class PiloteCharge {
+    private static final String[] SUJETS = {"annonce un plan de restructuration", "rachète un concurrent",
+            "s'exprime sur la ligne éditoriale", "est cité dans une enquête", "nomme une nouvelle direction"};
+
+    private final ParticipationService participationService;
+    private final VigieChronometree vigie = new VigieChronometree();
+    private final SystemeEvenementiel systeme;
+    private final List<PersonnePhysique> personnes = new ArrayList<>();
+    private final List<Media> medias = new ArrayList<>();
+    private final List<Entite> acheteurs = new ArrayList<>();
+
+    private double debit;
+    private double proportionRachats = 0.1;
+    private double exposantZipf = 1.0;
+    private long graine = 42;
+    private Duration duree = Duration.ofSeconds(30);
+    private Duration chauffe = Duration.ofSeconds(10);
+
+    /**
+     * Résultat d'une mesure (phase de chauffe exclue).
+     *
+     * @param publications       nombre de publications diffusées
+     * @param rachats            nombre de rachats appliqués et diffusés
+     * @param rachatsRefuses     nombre de rachats refusés par le service de participations
+     * @param alertes            nombre d'alertes retenues par la Vigie
+     * @param alertesEcartees    nombre d'alertes écartées par le filtre de la Vigie
+     * @param dureeNanos         durée de la mesure
+     * @param debitCible         débit imposé, en événements par seconde (0 : au plus vite)
+     * @param latencesAlerte     délai entre l'émission et la première alerte retenue, pour les événements en ayant produit une
+     * @param latencesTraitement délai entre l'émission et la fin du traitement, pour tous les événements
+     */
+    public record Rapport(long publications, long rachats, long rachatsRefuses, long alertes, long alertesEcartees,
+                          long dureeNanos, double debitCible, HistogrammeLatences latencesAlerte,
+                          HistogrammeLatences latencesTraitement) {
+
+        /**
+         * @return nombre d'événements émis (rachats refusés compris)
+         */
+        public long evenements() {
+            return publications + rachats + rachatsRefuses;
+        }
+
+        /**
+         * @return débit soutenu, en événements par seconde
+         */
+        public double debit() {
+            return dureeNanos == 0 ? 0 : evenements() * 1e9 / dureeNanos;
+        }
+
+        /**
+         * Affiche le rapport.
+         *
+         * @param out flux de sortie
+         */
+        public void afficher(PrintStream out) {
+            out.println("=== Rapport de charge ===");
+            out.printf("Événements : %d (publications : %d, rachats : %d, rachats refusés : %d)%n",
+                    evenements(), publications, rachats, rachatsRefuses);
+            out.printf("Alertes retenues : %d (écartées par la Vigie : %d)%n", alertes, alertesEcartees);
+            out.printf("Durée : %.3f s, débit soutenu : %.0f événements/s (cible : %s)%n", dureeNanos / 1e9, debit(),
+                    debitCible > 0 ? String.format("%.0f", debitCible) : "au plus vite");
+            afficherLatences(out, "Émission → alerte", latencesAlerte);
+            afficherLatences(out, "Émission → fin de traitement", latencesTraitement);
+        }
+
+        private static void afficherLatences(PrintStream out, String libelle, HistogrammeLatences h) {
+            out.printf("%s (µs, %d mesures) : p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n", libelle, h.getNombre(),
+                    h.centile(50) / 1e3, h.centile(99) / 1e3, h.centile(99.9) / 1e3, h.getMax() / 1e3);
+        }
+    }
+
+    /**
+     * Prépare le pilote : toutes les personnes physiques et tous les médias du service sont surveillés,
+     * comme dans le rejeu et le serveur d'ingestion.
+     *
+     * @param participationService service déjà alimenté (importation ou jeu synthétique)
+     */
+    public PiloteCharge(ParticipationService participationService) {
+        this.participationService = participationService;
+        for (Entite e : participationService.getEntites().values()) {
+            if (e instanceof PersonnePhysique p) {
+                personnes.add(p);
+                acheteurs.add(p);
+            } else if (e instanceof Media m) {
+                medias.add(m);
+            } else if (e instanceof PersonneMorale) {
+                acheteurs.add(e);
+            }
+        }
+        vigie.setAffichageConsole(false);
+        systeme = new SystemeEvenementiel(participationService);
+        systeme.setTraceConsole(false);
+        if (!personnes.isEmpty()) {
+            systeme.abonner(TypeEvenement.PUBLICATION, new ModuleSuiviPersonne(personnes, vigie, participationService));
+        }
+        if (!medias.isEmpty()) {
+            systeme.abonner(TypeEvenement.RACHAT, new ModuleSuiviMedia(medias, vigie));
+        }
+    }
+
+    /**
+     * @param debit débit imposé, en événements par seconde, ou 0 pour enchaîner au plus vite
+     */
+    public void setDebit(double debit) {
+        this.debit = Math.max(0, debit);
+    }
+
+    /**
+     * @param proportionRachats part des rachats parmi les événements émis, entre 0 et 1
+     */
+    public void setProportionRachats(double proportionRachats) {
+        this.proportionRachats = Math.min(1, Math.max(0, proportionRachats));
+    }
+
+    /**
+     * @param exposantZipf concentration des événements sur quelques entités (0 : tirage uniforme)
+     */
+    public void setExposantZipf(double exposantZipf) {
+        this.exposantZipf = exposantZipf;
+    }
+
+    public void setGraine(long graine) {
+        this.graine = graine;
+    }
+
+    public void setDuree(Duration duree) {
+        this.duree = duree;
+    }
+
+    public void setChauffe(Duration chauffe) {
+        this.chauffe = chauffe;
+    }
+
+    /**
+     * Exécute la phase de chauffe, dont les mesures sont écartées, puis la phase de mesure.
+     *
+     * @return le rapport de la phase de mesure
+     * @throws IllegalStateException si le service ne contient pas de quoi générer des événements
+     */
+    public Rapport executer() {
+        Random aleatoire = new Random(graine);
+        // Mélangés pour que les entités les plus sollicitées ne soient pas les premières par ordre alphabétique
+        Collections.shuffle(personnes, aleatoire);
+        Collections.shuffle(medias, aleatoire);
+        Collections.shuffle(acheteurs, aleatoire);
+        List<Participation> participations = new ArrayList<>(participationService.getParticipations());
+        Collections.shuffle(participations, aleatoire);
+        if ((personnes.isEmpty() || medias.isEmpty()) && (participations.isEmpty() || acheteurs.size() < 2)) {
+            throw new IllegalStateException("Aucune entité pour générer des publications ou des rachats");
+        }
+
+        Tirage tirage = new Tirage(aleatoire, participations);
+        phase(tirage, chauffe.toNanos());
+        return phase(tirage, duree.toNanos());
+    }
+
+    private Rapport phase(Tirage tirage, long dureeNanos) {
+        HistogrammeLatences latencesAlerte = new HistogrammeLatences();
+        HistogrammeLatences latencesTraitement = new HistogrammeLatences();
+        long publications = 0;
+        long rachats = 0;
+        long refuses = 0;
+        long alertesAvant = vigie.alertes;
+        long ecarteesAvant = alertesEcartees();
+        long periode = debit > 0 ? (long) (1e9 / debit) : 0;
+
+        long debut = System.nanoTime();
+        long echeance = debut + dureeNanos;
+        long prevu = debut;
+        long fin = debut;
+        while (periode > 0 ? prevu < echeance : fin < echeance) {
+            Evenement evenement = tirage.prochain();
+            long maintenant = System.nanoTime();
+            if (periode > 0) {
+                while (maintenant < prevu) {
+                    LockSupport.parkNanos(prevu - maintenant);
+                    maintenant = System.nanoTime();
+                }
+            } else {
+                prevu = maintenant;
+            }
+
+            vigie.premiereAlerte = 0;
+            switch (evenement) {
+                case Rachat rachat -> {
+                    if (systeme.traiterRachat(rachat)) {
+                        rachats++;
+                    } else {
+                        refuses++;
+                    }
+                }
+                case Publication publication -> {
+                    systeme.diffuserEvenement(publication);
+                    publications++;
+                }
+            }
+            fin = System.nanoTime();
+            latencesTraitement.enregistrer(fin - prevu);
+            if (vigie.premiereAlerte != 0) {
+                latencesAlerte.enregistrer(vigie.premiereAlerte - prevu);
+            }
+            prevu += periode;
+        }
+        return new Rapport(publications, rachats, refuses, vigie.alertes - alertesAvant, alertesEcartees() - ecarteesAvant,
+                fin - debut, debit, latencesAlerte, latencesTraitement);
+    }
+
+    private long alertesEcartees() {
+        FiltreAlertes filtre = vigie.getFiltre();
+        return filtre == null ? 0 : filtre.getSupprimeesDoublon() + filtre.getSupprimeesDebit();
+    }
+
+    /**
+     * Génère les événements : entités tirées selon la loi de Zipf, contenus numérotés pour être tous distincts.
+     */
+    private final class Tirage {
+        private final Random aleatoire;
+        private final List<Participation> participations;
+        private final LoiZipf zipfPersonnes;
+        private final LoiZipf zipfMedias;
+        private final LoiZipf zipfAcheteurs;
+        private final LoiZipf zipfParticipations;
+        private final LocalDate date = LocalDate.now();
+        private long numero;
+
+        Tirage(Random aleatoire, List<Participation> participations) {
+            this.aleatoire = aleatoire;
+            this.participations = participations;
+            zipfPersonnes = new LoiZipf(personnes.size(), exposantZipf);
+            zipfMedias = new LoiZipf(medias.size(), exposantZipf);
+            zipfAcheteurs = new LoiZipf(acheteurs.size(), exposantZipf);
+            zipfParticipations = new LoiZipf(participations.size(), exposantZipf);
+        }
+
+        Evenement prochain() {
+            numero++;
+            boolean rachat = !participations.isEmpty() && acheteurs.size() > 1 && aleatoire.nextDouble() < proportionRachats;
+            if (rachat || personnes.isEmpty() || medias.isEmpty()) {
+                Participation p = participations.get(zipfParticipations.tirer(aleatoire));
+                Entite acheteur = acheteurs.get(zipfAcheteurs.tirer(aleatoire));
+                if (acheteur.equals(p.getProprietaire())) {
+                    acheteur = acheteurs.get((acheteurs.indexOf(acheteur) + 1) % acheteurs.size());
+                }
+                // Un dixième des parts du vendeur : la participation s'amenuise sans s'éteindre trop vite
+                double pourcentage = Participation.versPourcentage(Math.max(1, p.getMillioniemes() / 10));
+                return new Rachat(date, acheteur, p.getProprietaire(), p.getCible(),
+                        "Cession n°" + numero, pourcentage);
+            }
+            PersonnePhysique personne = personnes.get(zipfPersonnes.tirer(aleatoire));
+            Media source = medias.get(zipfMedias.tirer(aleatoire));
+            return new Publication(date, source, "Dépêche n°" + numero + " : " + personne.getNom() + " "
+                    + SUJETS[(int) (numero % SUJETS.length)], "article", List.of());
+        }
+    }
+
+    /**
+     * Vigie notant l'instant de la première alerte retenue pour l'événement en cours.
+     * Le pilote est monothread et les modules alertent la Vigie de façon synchrone.
+     */
+    private static final class VigieChronometree extends Vigie {
+        private long premiereAlerte;
+        private long alertes;
+
+        @Override
+        public boolean recevoirAlerte(Alerte alerte) {
+            boolean retenue = super.recevoirAlerte(alerte);
+            if (retenue) {
+                alertes++;
+                if (premiereAlerte == 0) {
+                    premiereAlerte = System.nanoTime();
+                }
+            }
+            return retenue;
+        }
+    }
+}
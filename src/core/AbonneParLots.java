@@ -0,0 +1,142 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Abonné à un {@link Flow.Publisher} qui regroupe les éléments reçus en lots.
+ * Il ne demande jamais plus d'éléments que la taille d'un lot : la demande en cours plus les
+ * éléments mis de côté restent égaux à cette taille, ce qui borne la mémoire utilisée.
+ * Un lot est transmis dès qu'il est plein, ou après le délai maximal s'il reste incomplet,
+ * ainsi qu'à la fin du flux.
+ *
+ * @param <T> type des éléments reçus
+ */
+public final class AbonneParLots<T> implements Flow.Subscriber<T> {
+    private final int tailleLot;
+    private final Consumer<List<T>> traitement;
+    private final ScheduledExecutorService minuterie;
+    private final long delaiMaxMillis;
+    private final Object verrouTransmission = new Object(); // les lots sont traités un par un, dans l'ordre
+    private List<T> lot;
+    private Flow.Subscription abonnement;
+    private volatile boolean termine;
+
+    /**
+     * @param tailleLot      nombre d'éléments par lot (et demande maximale en cours)
+     * @param delaiMaxMillis délai au-delà duquel un lot incomplet est transmis, ou 0 pour attendre qu'il soit plein
+     * @param traitement     traitement appliqué à chaque lot
+     */
+    public AbonneParLots(int tailleLot, long delaiMaxMillis, Consumer<List<T>> traitement) {
+        if (tailleLot <= 0) {
+            throw new IllegalArgumentException("Taille de lot invalide : " + tailleLot);
+        }
+        this.tailleLot = tailleLot;
+        this.traitement = traitement;
+        this.delaiMaxMillis = delaiMaxMillis;
+        this.lot = new ArrayList<>(tailleLot);
+        this.minuterie = delaiMaxMillis > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lots-flux");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            if (abonnement != null) {
+                subscription.cancel();
+                return;
+            }
+            abonnement = subscription;
+        }
+        if (minuterie != null) {
+            minuterie.scheduleAtFixedRate(this::transmettre, delaiMaxMillis, delaiMaxMillis, TimeUnit.MILLISECONDS);
+        }
+        subscription.request(tailleLot);
+    }
+
+    @Override
+    public void onNext(T element) {
+        boolean plein;
+        synchronized (this) {
+            lot.add(element);
+            plein = lot.size() >= tailleLot;
+        }
+        if (plein) {
+            transmettre();
+        }
+    }
+
+    @Override
+    public void onError(Throwable erreur) {
+        System.err.println("Flux interrompu : " + erreur.getMessage());
+        terminer();
+    }
+
+    @Override
+    public void onComplete() {
+        terminer();
+    }
+
+    /**
+     * Se désabonne du flux après avoir transmis le lot en cours.
+     */
+    public void annuler() {
+        Flow.Subscription s;
+        synchronized (this) {
+            s = abonnement;
+        }
+        if (s != null) {
+            s.cancel();
+        }
+        terminer();
+    }
+
+    /**
+     * @return true une fois le flux terminé ou l'abonnement annulé, le dernier lot transmis
+     */
+    public boolean estTermine() {
+        return termine;
+    }
+
+    private void terminer() {
+        if (minuterie != null) {
+            minuterie.shutdown();
+        }
+        transmettre();
+        termine = true;
+    }
+
+    /**
+     * Transmet le lot courant (s'il n'est pas vide) puis renouvelle la demande d'autant d'éléments.
+     */
+    private void transmettre() {
+        List<T> aTransmettre;
+        Flow.Subscription s;
+        synchronized (verrouTransmission) {
+            synchronized (this) {
+                if (lot.isEmpty()) {
+                    return;
+                }
+                aTransmettre = lot;
+                lot = new ArrayList<>(tailleLot);
+                s = abonnement;
+            }
+            try {
+                traitement.accept(aTransmettre);
+            } catch (RuntimeException e) {
+                System.err.println("Erreur lors du traitement d'un lot : " + e.getMessage());
+            }
+        }
+        if (s != null) {
+            s.request(aTransmettre.size());
+        }
+    }
+}
@@ -0,0 +1,642 @@
+package core;
+
+import model.Alerte;
+import model.Entite;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Archive persistante des alertes retenues par la Vigie, interrogeable par entité, module et jour.
+ * <p>
+ * Les alertes sont ajoutées à la fin d'un segment actif ; au-delà d'une taille fixée, le segment est
+ * scellé et un nouveau segment est ouvert. Chaque segment scellé est accompagné d'un index (fichier
+ * {@code .idx}) donnant, pour chaque entité, module et jour, la position des alertes correspondantes.
+ * Une recherche ignore les segments dont l'index ne contient pas les clés demandées et ne lit, dans
+ * les autres, que les enregistrements indiqués, à travers une projection en mémoire du fichier.
+ * <p>
+ * Un fil d'arrière-plan fusionne les petits segments scellés consécutifs et, si une durée de rétention
+ * est fixée, retire les alertes plus anciennes. Un segment porte dans son nom la plage des numéros de
+ * segments qu'il couvre : après un arrêt pendant un compactage, les segments déjà fusionnés sont écartés
+ * au démarrage. Un index absent, illisible ou d'un format antérieur est reconstruit en relisant son segment.
+ * Les entités sont indexées et recherchées par leur nom normalisé par {@link NomsEntites},
+ * comme dans {@link ParticipationService#getEntiteParNom}.
+ * <p>
+ * Format d'un enregistrement : {@code taille(int) crc32(int) horodatage(long) module entité clé message},
+ * chaque chaîne étant sa longueur en octets (int, -1 pour null) suivie de son encodage UTF-8.
+ */
+public final class ArchiveAlertes implements AutoCloseable {
+    private static final int MAGIC_INDEX = 0x56494432; // "VID2" : clés d'entité normalisées
+    private static final long TAILLE_SEGMENT_DEFAUT = 1 << 20;
+    private static final long TAILLE_SEGMENT_LIMITE = 256L << 20; // les positions sont des int
+    private static final int FACTEUR_COMPACTAGE = 4;
+    private static final long PERIODE_COMPACTAGE_MINUTES = 10;
+    private static final String PREFIXE_ENTITE = "e:";
+    private static final String PREFIXE_MODULE = "m:";
+    private static final String PREFIXE_JOUR = "j:";
+
+    private final Path repertoire;
+    private final Function<String, Entite> resolution;
+    private final long tailleSegmentMax;
+    private final Duration retention;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ScheduledExecutorService compacteur;
+    private final Object verrouCompactage = new Object();
+
+    private volatile List<Segment> scelles; // remplacée en bloc, lue sans verrou
+    private Segment actif;
+    private FileChannel canalActif;
+    private long prochainNumero;
+
+    /**
+     * Enregistrement décodé, avant résolution de l'entité.
+     */
+    private record Brut(long horodatage, String module, String entite, String cle, String message) {
+    }
+
+    /**
+     * Liste croissante de positions dans un segment.
+     */
+    private static final class Positions {
+        int[] valeurs = new int[4];
+        int taille;
+
+        void ajouter(int position) {
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            }
+            valeurs[taille++] = position;
+        }
+    }
+
+    /**
+     * Un fichier de segment et son index. L'index d'un segment scellé n'est plus modifié.
+     */
+    private static final class Segment {
+        final long debut;
+        final long fin;
+        final Path chemin;
+        final Map<String, Positions> index = new HashMap<>();
+        long taille;
+        int nombre;
+        long horodatageMin = Long.MAX_VALUE;
+        long horodatageMax = Long.MIN_VALUE;
+        private MappedByteBuffer carte;
+
+        Segment(Path repertoire, long debut, long fin) {
+            this.debut = debut;
+            this.fin = fin;
+            this.chemin = repertoire.resolve(String.format("alertes-%08d-%08d.seg", debut, fin));
+        }
+
+        Path cheminIndex() {
+            return chemin.resolveSibling(chemin.getFileName().toString().replace(".seg", ".idx"));
+        }
+
+        void indexer(int position, Brut brut, String jour) {
+            cle(PREFIXE_JOUR + jour).ajouter(position);
+            if (brut.module() != null) {
+                cle(PREFIXE_MODULE + brut.module()).ajouter(position);
+            }
+            if (brut.entite() != null) {
+                cle(PREFIXE_ENTITE + NomsEntites.normaliser(brut.entite())).ajouter(position);
+            }
+            nombre++;
+            horodatageMin = Math.min(horodatageMin, brut.horodatage());
+            horodatageMax = Math.max(horodatageMax, brut.horodatage());
+        }
+
+        private Positions cle(String cle) {
+            return index.computeIfAbsent(cle, c -> new Positions());
+        }
+
+        /**
+         * Projette le segment scellé en mémoire (une seule fois).
+         */
+        synchronized MappedByteBuffer carte() throws IOException {
+            if (carte == null) {
+                try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+                    carte = canal.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+                }
+            }
+            return carte;
+        }
+
+        void ecrireIndex() throws IOException {
+            Path temporaire = cheminIndex().resolveSibling(cheminIndex().getFileName() + ".tmp");
+            try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+                sortie.writeInt(MAGIC_INDEX);
+                sortie.writeLong(taille);
+                sortie.writeInt(nombre);
+                sortie.writeLong(horodatageMin);
+                sortie.writeLong(horodatageMax);
+                sortie.writeInt(index.size());
+                for (Map.Entry<String, Positions> entree : index.entrySet()) {
+                    sortie.writeUTF(entree.getKey());
+                    Positions p = entree.getValue();
+                    sortie.writeInt(p.taille);
+                    for (int i = 0; i < p.taille; i++) {
+                        sortie.writeInt(p.valeurs[i]);
+                    }
+                }
+            }
+            Files.move(temporaire, cheminIndex(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * @return true si l'index a pu être chargé et correspond au segment
+         */
+        boolean lireIndex() {
+            if (!Files.exists(cheminIndex())) {
+                return false;
+            }
+            try (DataInputStream entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(cheminIndex())))) {
+                if (entree.readInt() != MAGIC_INDEX) {
+                    return false;
+                }
+                taille = entree.readLong();
+                if (taille != Files.size(chemin)) {
+                    return false;
+                }
+                nombre = entree.readInt();
+                horodatageMin = entree.readLong();
+                horodatageMax = entree.readLong();
+                int cles = entree.readInt();
+                for (int k = 0; k < cles; k++) {
+                    String cle = entree.readUTF();
+                    Positions p = new Positions();
+                    p.taille = entree.readInt();
+                    p.valeurs = new int[Math.max(1, p.taille)];
+                    for (int i = 0; i < p.taille; i++) {
+                        p.valeurs[i] = entree.readInt();
+                    }
+                    index.put(cle, p);
+                }
+                return true;
+            } catch (IOException e) {
+                index.clear();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Ouvre l'archive avec des segments de 1 Mio et sans limite de rétention.
+     *
+     * @param repertoire répertoire des segments
+     * @param resolution retrouve une entité à partir de son nom (null si elle est inconnue)
+     * @throws IOException si le répertoire ne peut pas être lu
+     */
+    public ArchiveAlertes(Path repertoire, Function<String, Entite> resolution) throws IOException {
+        this(repertoire, resolution, TAILLE_SEGMENT_DEFAUT, null);
+    }
+
+    /**
+     * Ouvre (ou crée) l'archive contenue dans le répertoire donné et démarre le compactage périodique.
+     *
+     * @param repertoire       répertoire des segments
+     * @param resolution       retrouve une entité à partir de son nom (null si elle est inconnue)
+     * @param tailleSegmentMax taille au-delà de laquelle le segment actif est scellé, en octets
+     * @param retention        âge au-delà duquel les alertes sont retirées au compactage, ou null pour tout garder
+     * @throws IOException si le répertoire ne peut pas être lu ou le segment actif créé
+     */
+    public ArchiveAlertes(Path repertoire, Function<String, Entite> resolution, long tailleSegmentMax,
+                          Duration retention) throws IOException {
+        if (tailleSegmentMax <= 0 || tailleSegmentMax > TAILLE_SEGMENT_LIMITE) {
+            throw new IllegalArgumentException("Taille de segment invalide : " + tailleSegmentMax);
+        }
+        this.repertoire = repertoire;
+        this.resolution = resolution;
+        this.tailleSegmentMax = tailleSegmentMax;
+        this.retention = retention;
+        Files.createDirectories(repertoire);
+        this.scelles = List.copyOf(chargerSegments());
+        ouvrirActif();
+        this.compacteur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "archive-compactage");
+            t.setDaemon(true);
+            return t;
+        });
+        this.compacteur.scheduleWithFixedDelay(this::compacter, PERIODE_COMPACTAGE_MINUTES,
+                PERIODE_COMPACTAGE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Ajoute une alerte à la fin du segment actif.
+     *
+     * @param alerte alerte à archiver
+     */
+    public synchronized void archiver(Alerte alerte) {
+        if (canalActif == null) {
+            return; // archive fermée
+        }
+        Brut brut = new Brut(alerte.getHorodatage(), alerte.getModule(),
+                alerte.getEntite() != null ? alerte.getEntite().getNom() : null, alerte.getCle(), alerte.getMessage());
+        try {
+            ByteBuffer enregistrement = encoder(brut);
+            int position = (int) actif.taille;
+            while (enregistrement.hasRemaining()) {
+                canalActif.write(enregistrement);
+            }
+            actif.taille += enregistrement.limit();
+            actif.indexer(position, brut, jour(brut.horodatage()));
+            if (actif.taille >= tailleSegmentMax) {
+                sceller();
+                ouvrirActif();
+            }
+        } catch (IOException e) {
+            System.err.println("Impossible d'archiver l'alerte : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recherche les alertes archivées répondant à tous les critères renseignés, dans l'ordre d'archivage.
+     *
+     * @param nomEntite nom de l'entité concernée, ou null
+     * @param module    nom du module émetteur, ou null
+     * @param du        premier jour inclus, ou null
+     * @param au        dernier jour inclus, ou null
+     * @param limite    nombre maximal d'alertes retournées
+     * @return les alertes trouvées
+     */
+    public List<Alerte> rechercher(String nomEntite, String module, LocalDate du, LocalDate au, int limite) {
+        String cleEntite = nomEntite == null ? null : NomsEntites.normaliser(nomEntite);
+        long min = du == null ? Long.MIN_VALUE : du.atStartOfDay(zone).toInstant().toEpochMilli();
+        long max = au == null ? Long.MAX_VALUE : au.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() - 1;
+        List<Alerte> resultat = new ArrayList<>();
+        try {
+            for (Segment segment : scelles) {
+                if (resultat.size() >= limite) {
+                    return resultat;
+                }
+                if (concerne(segment, cleEntite, module, min, max)) {
+                    chercherDans(segment, segment.carte(), cleEntite, module, min, max, limite, resultat);
+                }
+            }
+            synchronized (this) {
+                if (canalActif != null && resultat.size() < limite && concerne(actif, cleEntite, module, min, max)) {
+                    ByteBuffer carte = canalActif.map(FileChannel.MapMode.READ_ONLY, 0, actif.taille);
+                    chercherDans(actif, carte, cleEntite, module, min, max, limite, resultat);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la lecture de l'archive des alertes : " + e.getMessage());
+        }
+        return resultat;
+    }
+
+    /**
+     * Fusionne les segments scellés consécutifs trop petits et retire les alertes au-delà de la rétention.
+     * Appelée périodiquement en arrière-plan ; les recherches restent possibles pendant le compactage.
+     */
+    public void compacter() {
+        synchronized (verrouCompactage) {
+            List<Segment> courants = scelles;
+            long limite = retention == null ? Long.MIN_VALUE : System.currentTimeMillis() - retention.toMillis();
+            long tailleCompactee = tailleSegmentMax * FACTEUR_COMPACTAGE;
+            int i = 0;
+            while (i < courants.size()) {
+                int j = i;
+                long cumul = 0;
+                while (j < courants.size() && cumul + courants.get(j).taille <= tailleCompactee) {
+                    cumul += courants.get(j).taille;
+                    j++;
+                }
+                j = Math.max(j, i + 1);
+                List<Segment> groupe = courants.subList(i, j);
+                boolean expire = groupe.stream().anyMatch(s -> s.horodatageMin < limite);
+                if (groupe.size() > 1 || expire) {
+                    try {
+                        fusionner(groupe, limite);
+                    } catch (IOException e) {
+                        System.err.println("Erreur lors du compactage de l'archive des alertes : " + e.getMessage());
+                        return;
+                    }
+                }
+                i = j;
+            }
+        }
+    }
+
+    /**
+     * @return nombre de segments, actif compris
+     */
+    public synchronized int getNombreSegments() {
+        return scelles.size() + (canalActif != null ? 1 : 0);
+    }
+
+    /**
+     * @return nombre d'alertes archivées
+     */
+    public synchronized long getNombreAlertes() {
+        long total = actif != null ? actif.nombre : 0;
+        for (Segment segment : scelles) {
+            total += segment.nombre;
+        }
+        return total;
+    }
+
+    /**
+     * Arrête le compactage, scelle le segment actif et ferme l'archive.
+     */
+    @Override
+    public void close() throws IOException {
+        compacteur.shutdown();
+        synchronized (verrouCompactage) {
+            synchronized (this) {
+                if (canalActif != null) {
+                    sceller();
+                    canalActif = null;
+                    actif = null;
+                }
+            }
+        }
+    }
+
+    private static boolean concerne(Segment segment, String cleEntite, String module, long min, long max) {
+        return segment.nombre > 0 && segment.horodatageMax >= min && segment.horodatageMin <= max
+                && (cleEntite == null || segment.index.containsKey(PREFIXE_ENTITE + cleEntite))
+                && (module == null || segment.index.containsKey(PREFIXE_MODULE + module));
+    }
+
+    /**
+     * Lit, dans un segment, les enregistrements désignés par la liste de positions la plus courte
+     * parmi les critères, et retient ceux qui les satisfont tous.
+     */
+    private void chercherDans(Segment segment, ByteBuffer carte, String cleEntite, String module,
+                              long min, long max, int limite, List<Alerte> resultat) {
+        Positions candidats = null;
+        if (cleEntite != null) {
+            candidats = segment.index.get(PREFIXE_ENTITE + cleEntite);
+        }
+        if (module != null) {
+            Positions p = segment.index.get(PREFIXE_MODULE + module);
+            if (candidats == null || p.taille < candidats.taille) {
+                candidats = p;
+            }
+        }
+        int[] positions;
+        int nombre;
+        if (candidats != null) {
+            positions = candidats.valeurs;
+            nombre = candidats.taille;
+        } else {
+            // Aucun critère nominatif : union des jours de la période présents dans le segment
+            LocalDate premier = LocalDate.parse(jour(Math.max(min, segment.horodatageMin)));
+            LocalDate dernier = LocalDate.parse(jour(Math.min(max, segment.horodatageMax)));
+            positions = new int[segment.nombre];
+            nombre = 0;
+            for (LocalDate j = premier; !j.isAfter(dernier); j = j.plusDays(1)) {
+                Positions p = segment.index.get(PREFIXE_JOUR + j);
+                if (p != null) {
+                    System.arraycopy(p.valeurs, 0, positions, nombre, p.taille);
+                    nombre += p.taille;
+                }
+            }
+            Arrays.sort(positions, 0, nombre);
+        }
+        for (int k = 0; k < nombre && resultat.size() < limite; k++) {
+            Brut brut = decoder(carte, positions[k]);
+            if (brut.horodatage() < min || brut.horodatage() > max
+                    || cleEntite != null && (brut.entite() == null || !cleEntite.equals(NomsEntites.normaliser(brut.entite())))
+                    || module != null && !module.equals(brut.module())) {
+                continue;
+            }
+            Entite entite = brut.entite() != null ? resolution.apply(brut.entite()) : null;
+            resultat.add(new Alerte(brut.module(), entite, brut.cle(), brut.message(), brut.horodatage()));
+        }
+    }
+
+    /**
+     * Recopie les alertes non expirées d'un groupe de segments consécutifs dans un seul segment,
+     * puis le substitue au groupe.
+     */
+    private void fusionner(List<Segment> groupe, long limite) throws IOException {
+        Segment fusion = new Segment(repertoire, groupe.get(0).debut, groupe.get(groupe.size() - 1).fin);
+        Path temporaire = fusion.chemin.resolveSibling(fusion.chemin.getFileName() + ".tmp");
+        try (FileChannel sortie = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Segment segment : groupe) {
+                MappedByteBuffer carte = segment.carte();
+                int position = 0;
+                while (position < segment.taille) {
+                    int longueur = 8 + carte.getInt(position);
+                    Brut brut = decoder(carte, position);
+                    if (brut.horodatage() >= limite) {
+                        ByteBuffer enregistrement = carte.slice(position, longueur);
+                        int destination = (int) fusion.taille;
+                        while (enregistrement.hasRemaining()) {
+                            sortie.write(enregistrement);
+                        }
+                        fusion.taille += longueur;
+                        fusion.indexer(destination, brut, jour(brut.horodatage()));
+                    }
+                    position += longueur;
+                }
+            }
+            sortie.force(true);
+        }
+        if (fusion.nombre > 0) {
+            Files.move(temporaire, fusion.chemin, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            fusion.ecrireIndex();
+        } else {
+            Files.delete(temporaire);
+        }
+
+        synchronized (this) {
+            List<Segment> nouveaux = new ArrayList<>(scelles);
+            int rang = nouveaux.indexOf(groupe.get(0));
+            nouveaux.subList(rang, rang + groupe.size()).clear();
+            if (fusion.nombre > 0) {
+                nouveaux.add(rang, fusion);
+            }
+            scelles = List.copyOf(nouveaux);
+        }
+        for (Segment segment : groupe) {
+            if (fusion.nombre == 0 || !segment.chemin.equals(fusion.chemin)) {
+                Files.deleteIfExists(segment.chemin);
+                Files.deleteIfExists(segment.cheminIndex());
+            }
+        }
+    }
+
+    /**
+     * Charge les segments présents dans le répertoire, dans l'ordre, en écartant ceux déjà couverts
+     * par un segment fusionné et en reconstruisant les index manquants.
+     */
+    private List<Segment> chargerSegments() throws IOException {
+        List<Segment> trouves = new ArrayList<>();
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire, "alertes-*")) {
+            for (Path fichier : fichiers) {
+                String nom = fichier.getFileName().toString();
+                if (nom.endsWith(".tmp")) {
+                    Files.delete(fichier); // compactage ou index interrompu
+                    continue;
+                }
+                if (!nom.endsWith(".seg")) {
+                    continue;
+                }
+                String[] numeros = nom.substring("alertes-".length(), nom.length() - ".seg".length()).split("-");
+                try {
+                    trouves.add(new Segment(repertoire, Long.parseLong(numeros[0]), Long.parseLong(numeros[1])));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    System.err.println("Segment d'archive ignoré : " + nom);
+                }
+            }
+        }
+        trouves.sort(Comparator.comparingLong((Segment s) -> s.debut).thenComparing(s -> -s.fin));
+
+        List<Segment> segments = new ArrayList<>();
+        long finCouverte = 0;
+        for (Segment segment : trouves) {
+            if (segment.fin <= finCouverte) {
+                Files.deleteIfExists(segment.chemin);
+                Files.deleteIfExists(segment.cheminIndex());
+                continue;
+            }
+            finCouverte = segment.fin;
+            if (!segment.lireIndex()) {
+                reconstruireIndex(segment);
+            }
+            if (segment.nombre == 0) {
+                Files.deleteIfExists(segment.chemin);
+                Files.deleteIfExists(segment.cheminIndex());
+            } else {
+                segments.add(segment);
+            }
+        }
+        prochainNumero = finCouverte + 1;
+        return segments;
+    }
+
+    /**
+     * Relit un segment pour reconstruire son index ; un enregistrement tronqué ou corrompu
+     * marque la fin du segment, qui est alors raccourci.
+     */
+    private void reconstruireIndex(Segment segment) throws IOException {
+        segment.index.clear();
+        ByteBuffer contenu = ByteBuffer.wrap(Files.readAllBytes(segment.chemin));
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (contenu.limit() - position >= 8) {
+            int taille = contenu.getInt(position);
+            if (taille < 8 || taille > contenu.limit() - position - 8) {
+                break; // enregistrement tronqué
+            }
+            crc.reset();
+            crc.update(contenu.array(), position + 8, taille);
+            if ((int) crc.getValue() != contenu.getInt(position + 4)) {
+                break; // enregistrement corrompu
+            }
+            Brut brut = decoder(contenu, position);
+            segment.indexer(position, brut, jour(brut.horodatage()));
+            position += 8 + taille;
+        }
+        segment.taille = position;
+        if (position < contenu.limit()) {
+            try (FileChannel canal = FileChannel.open(segment.chemin, StandardOpenOption.WRITE)) {
+                canal.truncate(position);
+            }
+        }
+        if (segment.nombre > 0) {
+            segment.ecrireIndex();
+        }
+    }
+
+    private void ouvrirActif() throws IOException {
+        long numero = prochainNumero++;
+        actif = new Segment(repertoire, numero, numero);
+        canalActif = FileChannel.open(actif.chemin, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Termine le segment actif : il est synchronisé sur disque, indexé et rejoint les segments scellés.
+     * Un segment actif vide est simplement supprimé.
+     */
+    private void sceller() throws IOException {
+        canalActif.force(true);
+        canalActif.close();
+        if (actif.nombre == 0) {
+            Files.deleteIfExists(actif.chemin);
+            return;
+        }
+        actif.ecrireIndex();
+        List<Segment> nouveaux = new ArrayList<>(scelles);
+        nouveaux.add(actif);
+        scelles = List.copyOf(nouveaux);
+    }
+
+    private String jour(long horodatage) {
+        return Instant.ofEpochMilli(horodatage).atZone(zone).toLocalDate().toString();
+    }
+
+    private static ByteBuffer encoder(Brut brut) {
+        byte[][] champs = {octets(brut.module()), octets(brut.entite()), octets(brut.cle()), octets(brut.message())};
+        int taille = 8;
+        for (byte[] champ : champs) {
+            taille += 4 + (champ != null ? champ.length : 0);
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(8 + taille);
+        tampon.putInt(taille).putInt(0).putLong(brut.horodatage());
+        for (byte[] champ : champs) {
+            if (champ == null) {
+                tampon.putInt(-1);
+            } else {
+                tampon.putInt(champ.length).put(champ);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(tampon.array(), 8, taille);
+        tampon.putInt(4, (int) crc.getValue());
+        return tampon.flip();
+    }
+
+    private static Brut decoder(ByteBuffer tampon, int position) {
+        long horodatage = tampon.getLong(position + 8);
+        int p = position + 16;
+        String[] champs = new String[4];
+        for (int i = 0; i < champs.length; i++) {
+            int longueur = tampon.getInt(p);
+            p += 4;
+            if (longueur >= 0) {
+                byte[] octets = new byte[longueur];
+                tampon.get(p, octets);
+                champs[i] = new String(octets, StandardCharsets.UTF_8);
+                p += longueur;
+            }
+        }
+        return new Brut(horodatage, champs[0], champs[1], champs[2], champs[3]);
+    }
+
+    private static byte[] octets(String texte) {
+        return texte != null ? texte.getBytes(StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,220 @@
+package core;
+
+import model.Alerte;
+import model.Entite;
+import model.Participation;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bilan de l'empreinte mémoire du modèle, établi par {@link EmpreinteMemoire} pour dimensionner le tas
+ * et vérifier les gains des optimisations mémoire.
+ * <p>
+ * Les objets sont attribués dans l'ordre suivant, chacun n'étant compté qu'une fois :
+ * <ol>
+ *     <li>entités, par sous-type (nom et membres compris) ;</li>
+ *     <li>participations ;</li>
+ *     <li>alertes historisées par la Vigie ;</li>
+ *     <li>événements de l'historique colonnaire (coût amorti par événement, textes hors tas exclus) ;</li>
+ *     <li>modules spécialisés abonnés, par implémentation (historiques et statistiques propres) ;</li>
+ *     <li>structures de {@link ParticipationService}, {@link SystemeEvenementiel} et {@link Vigie},
+ *     champ par champ, pour ce qui n'est pas déjà attribué aux objets ci-dessus (tables, index, tampons).</li>
+ * </ol>
+ * Le coût d'un événement reconstruit à la demande (record {@code Publication} ou {@code Rachat}) est
+ * estimé à part, sur les derniers événements de l'historique, et n'entre pas dans le total.
+ */
+public final class BilanMemoire {
+    private static final int ECHANTILLON_EVENEMENTS = 1000;
+
+    /**
+     * Empreinte d'une famille d'objets.
+     *
+     * @param nom    famille d'objets
+     * @param nombre nombre d'objets
+     * @param octets octets attribués à ces objets
+     */
+    public record Ligne(String nom, long nombre, long octets) {
+        /**
+         * @return nombre moyen d'octets par objet
+         */
+        public double moyenne() {
+            return nombre == 0 ? 0 : (double) octets / nombre;
+        }
+    }
+
+    private final String modele;
+    private final List<Ligne> objets;
+    private final Map<String, Long> structures;
+    private final Ligne evenementReconstruit;
+    private final long octetsHorsTas;
+    private final int objetsComptes;
+    private final long objetsEstimes;
+
+    private BilanMemoire(String modele, List<Ligne> objets, Map<String, Long> structures, Ligne evenementReconstruit,
+                         long octetsHorsTas, int objetsComptes, long objetsEstimes) {
+        this.modele = modele;
+        this.objets = objets;
+        this.structures = structures;
+        this.evenementReconstruit = evenementReconstruit;
+        this.octetsHorsTas = octetsHorsTas;
+        this.objetsComptes = objetsComptes;
+        this.objetsEstimes = objetsEstimes;
+    }
+
+    /**
+     * Établit le bilan. Le système doit être au repos : ni diffusion ni transfert pendant la mesure.
+     *
+     * @param participationService service des participations
+     * @param systeme              système de diffusion des événements
+     * @param vigie                vigie recevant les alertes
+     * @return le bilan
+     */
+    public static BilanMemoire etablir(ParticipationService participationService, SystemeEvenementiel systeme,
+                                       Vigie vigie) {
+        EmpreinteMemoire empreinte = new EmpreinteMemoire();
+        List<Entite> entites = new ArrayList<>(participationService.getEntites().values());
+        empreinte.exclure(participationService);
+        empreinte.exclure(systeme);
+        empreinte.exclure(vigie);
+        empreinte.exclureTous(entites);
+
+        List<Ligne> objets = new ArrayList<>();
+        Map<String, long[]> parType = new TreeMap<>();
+        for (Entite entite : entites) {
+            long[] cumul = parType.computeIfAbsent(entite.getClass().getSimpleName(), k -> new long[2]);
+            cumul[0]++;
+            cumul[1] += empreinte.mesurer(entite);
+        }
+        parType.forEach((type, cumul) -> objets.add(new Ligne(type, cumul[0], cumul[1])));
+
+        long octets = 0;
+        Collection<Participation> participations = participationService.getParticipations();
+        for (Participation participation : participations) {
+            octets += empreinte.mesurer(participation);
+        }
+        objets.add(new Ligne("Participation", participations.size(), octets));
+
+        octets = 0;
+        List<Alerte> alertes = vigie.getAlertes();
+        synchronized (alertes) {
+            for (Alerte alerte : alertes) {
+                octets += empreinte.mesurer(alerte);
+            }
+            objets.add(new Ligne("Alerte", alertes.size(), octets));
+        }
+
+        HistoriqueColonnaire historique = systeme.getHistoriqueColonnaire();
+        int nombreEvenements = historique.taille();
+        objets.add(new Ligne("Evenement (historique)", nombreEvenements, empreinte.mesurer(historique)));
+
+        Map<String, Long> structures = new LinkedHashMap<>();
+        Map<ModuleSpecialise, Boolean> modules = new IdentityHashMap<>();
+        systeme.getAbonnements().values().forEach(abonnes -> abonnes.forEach(module -> modules.put(module, true)));
+        for (ModuleSpecialise module : modules.keySet()) {
+            structures.merge(module.getClass().getSimpleName(), empreinte.mesurer(module), Long::sum);
+        }
+        for (Object composant : List.of(participationService, systeme, vigie)) {
+            String prefixe = composant.getClass().getSimpleName() + ".";
+            empreinte.mesurerChamps(composant).forEach((champ, n) -> structures.put(prefixe + champ, n));
+        }
+
+        // Événements reconstruits : estimateur séparé, entités et stockage des textes exclus
+        EmpreinteMemoire echantillon = new EmpreinteMemoire();
+        echantillon.exclureTous(entites);
+        echantillon.exclure(historique.getStockage());
+        int debut = Math.max(0, nombreEvenements - ECHANTILLON_EVENEMENTS);
+        octets = 0;
+        for (int i = debut; i < nombreEvenements; i++) {
+            octets += echantillon.mesurer(historique.get(i));
+        }
+        Ligne evenementReconstruit = new Ligne("Evenement (reconstruit)", nombreEvenements - debut, octets);
+
+        return new BilanMemoire(empreinte.getModele(), Collections.unmodifiableList(objets),
+                Collections.unmodifiableMap(structures), evenementReconstruit,
+                historique.getStockage().getOctetsHorsTas(), empreinte.getObjetsComptes(), empreinte.getObjetsEstimes());
+    }
+
+    /**
+     * @return empreinte par famille d'objets
+     */
+    public List<Ligne> getObjets() {
+        return objets;
+    }
+
+    /**
+     * @return octets attribués à chaque structure : modules, puis composants et champs
+     */
+    public Map<String, Long> getStructures() {
+        return structures;
+    }
+
+    /**
+     * @return coût d'un événement reconstruit depuis l'historique, sur un échantillon (hors total)
+     */
+    public Ligne getEvenementReconstruit() {
+        return evenementReconstruit;
+    }
+
+    /**
+     * @return octets hors tas des textes de l'historique
+     */
+    public long getOctetsHorsTas() {
+        return octetsHorsTas;
+    }
+
+    /**
+     * @return total estimé sur le tas, en octets
+     */
+    public long getTotal() {
+        long total = 0;
+        for (Ligne ligne : objets) {
+            total += ligne.octets();
+        }
+        for (long octets : structures.values()) {
+            total += octets;
+        }
+        return total;
+    }
+
+    /**
+     * Affiche le bilan.
+     *
+     * @param out flux de sortie
+     */
+    public void afficher(PrintStream out) {
+        out.println("=== Empreinte mémoire estimée ===");
+        out.println("Modèle : " + modele);
+        out.printf("%-45s %10s %12s %10s%n", "Objets", "nombre", "total", "moyenne");
+        for (Ligne ligne : objets) {
+            out.printf("  %-43s %10d %12s %8.1f o%n", ligne.nom(), ligne.nombre(), formater(ligne.octets()), ligne.moyenne());
+        }
+        out.println("Structures");
+        structures.forEach((nom, octets) -> out.printf("  %-43s %10s %12s%n", nom, "", formater(octets)));
+        out.printf("Total sur le tas : %s (%d objets, dont %d du JDK à structure estimée)%n",
+                formater(getTotal()), objetsComptes, objetsEstimes);
+        out.printf("Hors tas (textes de l'historique) : %s%n", formater(octetsHorsTas));
+        out.printf("Événement reconstruit à la demande : %.1f o en moyenne sur %d (hors total)%n",
+                evenementReconstruit.moyenne(), evenementReconstruit.nombre());
+        out.printf("Tas occupé selon la JVM : %s%n",
+                formater(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed()));
+    }
+
+    private static String formater(long octets) {
+        if (octets < 1024) {
+            return octets + " o";
+        }
+        if (octets < 1024 * 1024) {
+            return String.format("%.1f Kio", octets / 1024.0);
+        }
+        return String.format("%.1f Mio", octets / (1024.0 * 1024));
+    }
+}
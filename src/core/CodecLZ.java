@@ -0,0 +1,182 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Compresseur LZ77 simple et rapide, sans dépendance, pour les textes stockés en mémoire.
+ * Le format suit celui des blocs LZ4 : une suite de séquences composées d'un octet de contrôle
+ * (longueur des littéraux sur 4 bits, longueur de la correspondance moins 4 sur 4 bits),
+ * des extensions de longueur (octets 255 cumulés), des littéraux puis d'un décalage sur 2 octets.
+ * La dernière séquence ne contient que des littéraux.
+ */
+public final class CodecLZ {
+    private static final int CORRESPONDANCE_MIN = 4;
+    private static final int DECALAGE_MAX = 0xFFFF;
+    private static final int BITS_HACHAGE = 12;
+    private static final int FIN_LITTERAUX = 5; // les derniers octets sont toujours des littéraux
+
+    private static final ThreadLocal<int[]> TABLES = ThreadLocal.withInitial(() -> new int[1 << BITS_HACHAGE]);
+
+    private CodecLZ() {
+    }
+
+    /**
+     * Taille maximale du résultat de {@link #compresser} pour une entrée de {@code longueur} octets.
+     */
+    public static int tailleMaximale(int longueur) {
+        return longueur + longueur / 255 + 16;
+    }
+
+    /**
+     * Compresse une portion de tableau.
+     *
+     * @param src     données à compresser
+     * @param debut   position du premier octet
+     * @param longueur nombre d'octets à compresser
+     * @param dst     tableau de destination, d'au moins {@link #tailleMaximale(int)} octets après {@code dstDebut}
+     * @param dstDebut position d'écriture dans {@code dst}
+     * @return nombre d'octets écrits
+     */
+    public static int compresser(byte[] src, int debut, int longueur, byte[] dst, int dstDebut) {
+        int[] table = TABLES.get();
+        Arrays.fill(table, -1);
+        int fin = debut + longueur;
+        int limiteRecherche = fin - FIN_LITTERAUX - CORRESPONDANCE_MIN;
+        int ip = debut;
+        int ancre = debut;
+        int op = dstDebut;
+
+        while (ip <= limiteRecherche) {
+            int h = hacher(lire32(src, ip));
+            int candidat = table[h];
+            table[h] = ip - debut;
+            if (candidat < 0 || ip - (debut + candidat) > DECALAGE_MAX
+                    || lire32(src, debut + candidat) != lire32(src, ip)) {
+                ip++;
+                continue;
+            }
+            int ref = debut + candidat;
+            int longueurCorrespondance = CORRESPONDANCE_MIN;
+            int limite = fin - FIN_LITTERAUX;
+            while (ip + longueurCorrespondance < limite && src[ref + longueurCorrespondance] == src[ip + longueurCorrespondance]) {
+                longueurCorrespondance++;
+            }
+            op = ecrireSequence(src, ancre, ip - ancre, ip - ref, longueurCorrespondance, dst, op);
+            ip += longueurCorrespondance;
+            ancre = ip;
+        }
+        return ecrireSequence(src, ancre, fin - ancre, 0, 0, dst, op) - dstDebut;
+    }
+
+    /**
+     * Compresse un tableau complet.
+     *
+     * @param src données à compresser
+     * @return données compressées
+     */
+    public static byte[] compresser(byte[] src) {
+        byte[] dst = new byte[tailleMaximale(src.length)];
+        int n = compresser(src, 0, src.length, dst, 0);
+        return Arrays.copyOf(dst, n);
+    }
+
+    /**
+     * Décompresse des données produites par {@link #compresser}.
+     *
+     * @param src           données compressées
+     * @param debut         position du premier octet compressé
+     * @param longueur      nombre d'octets compressés
+     * @param dst           tableau de destination
+     * @param dstDebut      position d'écriture dans {@code dst}
+     * @param tailleOrigine taille des données décompressées
+     * @throws IllegalArgumentException si les données sont corrompues
+     */
+    public static void decompresser(byte[] src, int debut, int longueur, byte[] dst, int dstDebut, int tailleOrigine) {
+        int ip = debut;
+        int fin = debut + longueur;
+        int op = dstDebut;
+        int opFin = dstDebut + tailleOrigine;
+        try {
+            while (ip < fin) {
+                int controle = src[ip++] & 0xFF;
+                int litteraux = controle >>> 4;
+                if (litteraux == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        litteraux += b;
+                    } while (b == 255);
+                }
+                System.arraycopy(src, ip, dst, op, litteraux);
+                ip += litteraux;
+                op += litteraux;
+                if (ip >= fin) {
+                    break; // dernière séquence : littéraux seulement
+                }
+                int decalage = (src[ip] & 0xFF) | (src[ip + 1] & 0xFF) << 8;
+                ip += 2;
+                int correspondance = (controle & 0x0F);
+                if (correspondance == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        correspondance += b;
+                    } while (b == 255);
+                }
+                correspondance += CORRESPONDANCE_MIN;
+                int ref = op - decalage;
+                if (decalage == 0 || ref < dstDebut || op + correspondance > opFin) {
+                    throw new IllegalArgumentException("Données compressées corrompues");
+                }
+                // Copie octet par octet : la correspondance peut chevaucher la zone écrite
+                for (int i = 0; i < correspondance; i++) {
+                    dst[op++] = dst[ref++];
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Données compressées corrompues", e);
+        }
+        if (op != opFin) {
+            throw new IllegalArgumentException("Taille décompressée inattendue : " + (op - dstDebut) + " au lieu de " + tailleOrigine);
+        }
+    }
+
+    private static int ecrireSequence(byte[] src, int litDebut, int litteraux, int decalage, int correspondance,
+                                      byte[] dst, int op) {
+        int controleIndex = op++;
+        int controle = Math.min(litteraux, 15) << 4;
+        if (litteraux >= 15) {
+            op = ecrireLongueur(litteraux - 15, dst, op);
+        }
+        System.arraycopy(src, litDebut, dst, op, litteraux);
+        op += litteraux;
+        if (correspondance > 0) {
+            dst[op++] = (byte) decalage;
+            dst[op++] = (byte) (decalage >>> 8);
+            int reste = correspondance - CORRESPONDANCE_MIN;
+            controle |= Math.min(reste, 15);
+            if (reste >= 15) {
+                op = ecrireLongueur(reste - 15, dst, op);
+            }
+        }
+        dst[controleIndex] = (byte) controle;
+        return op;
+    }
+
+    private static int ecrireLongueur(int n, byte[] dst, int op) {
+        while (n >= 255) {
+            dst[op++] = (byte) 255;
+            n -= 255;
+        }
+        dst[op++] = (byte) n;
+        return op;
+    }
+
+    private static int lire32(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    private static int hacher(int valeur) {
+        return (valeur * -1640531535) >>> (32 - BITS_HACHAGE);
+    }
+}
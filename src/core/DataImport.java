@@ -5,26 +5,52 @@ import model.*;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Classe utilitaire permettant de charger les entités et participations
  * à partir des fichiers .tsv fournis.
+ * <p>
+ * Les noms sont internés dans une {@link TableNoms} le temps de l'importation : chaque nom d'entité
+ * n'est normalisé et copié qu'une fois, et les lignes de participations sont analysées par position
+ * de tabulations, sans découpage ni chaîne intermédiaire pour les noms et les pourcentages.
  */
 public class DataImport {
 
     private final Map<String, Entite> entitesParNom = new HashMap<>();
-    private final Map<String, Media> mediasParNom = new HashMap<>();
     private final List<String> erreurs = new ArrayList<>(); // Liste des erreurs d'importation
 
-    // Centralisation des chemins des fichiers
-    private static final String CHEMIN_PERSONNES = "data/personnes.tsv";
-    private static final String CHEMIN_ORGANISATIONS = "data/organisations.tsv";
-    private static final String CHEMIN_MEDIAS = "data/medias.tsv";
-    private static final String CHEMIN_PERSONNE_MEDIA = "data/personne-media.tsv";
-    private static final String CHEMIN_ORGANISATION_MEDIA = "data/organisation-media.tsv";
-    private static final String CHEMIN_PERSONNE_ORGANISATION = "data/personne-organisation.tsv";
-    private static final String CHEMIN_ORGANISATION_ORGANISATION = "data/organisation-organisation.tsv";
+    // Centralisation des noms des fichiers
+    private static final String REPERTOIRE_DEFAUT = "data";
+    private static final String FICHIER_PERSONNES = "personnes.tsv";
+    private static final String FICHIER_ORGANISATIONS = "organisations.tsv";
+    private static final String FICHIER_MEDIAS = "medias.tsv";
+    private static final String FICHIER_PERSONNE_MEDIA = "personne-media.tsv";
+    private static final String FICHIER_ORGANISATION_MEDIA = "organisation-media.tsv";
+    private static final String FICHIER_PERSONNE_ORGANISATION = "personne-organisation.tsv";
+    private static final String FICHIER_ORGANISATION_ORGANISATION = "organisation-organisation.tsv";
+
+    private final Path repertoire;
+    private long dureeImportationNanos; // Durée de la dernière importation
+    private int lignesLues; // Lignes de données lues lors de la dernière importation (en-têtes exclus)
+
+    /**
+     * Importe les fichiers du répertoire data.
+     */
+    public DataImport() {
+        this(Path.of(REPERTOIRE_DEFAUT));
+    }
+
+    /**
+     * Importe les fichiers d'un autre répertoire, par exemple un jeu de données synthétique.
+     *
+     * @param repertoire répertoire contenant les sept fichiers .tsv
+     */
+    public DataImport(Path repertoire) {
+        this.repertoire = repertoire;
+    }
 
     /**
      * Charge toutes les entités et participations à partir des fichiers .tsv.
@@ -32,19 +58,25 @@ public class DataImport {
      * @param participationService service pour enregistrer les participations
      */
     public void importerTout(ParticipationService participationService) {
+        long debut = System.nanoTime();
+        lignesLues = 0;
+        TableNoms<Entite> entites = new TableNoms<>();
+        TableNoms<Media> medias = new TableNoms<>();
         try {
-            chargerPersonnes(CHEMIN_PERSONNES);
-            chargerOrganisations(CHEMIN_ORGANISATIONS);
-            chargerMedias(CHEMIN_MEDIAS);
-            chargerParticipation(CHEMIN_PERSONNE_MEDIA, participationService);
-            chargerParticipation(CHEMIN_ORGANISATION_MEDIA, participationService);
-            chargerParticipation(CHEMIN_PERSONNE_ORGANISATION, participationService);
-            chargerParticipation(CHEMIN_ORGANISATION_ORGANISATION, participationService);
+            charger(FICHIER_PERSONNES, chemin -> chargerPersonnes(chemin, entites));
+            charger(FICHIER_ORGANISATIONS, chemin -> chargerOrganisations(chemin, entites));
+            charger(FICHIER_MEDIAS, chemin -> chargerMedias(chemin, entites, medias));
+            charger(FICHIER_PERSONNE_MEDIA, chemin -> chargerParticipation(chemin, entites, participationService));
+            charger(FICHIER_ORGANISATION_MEDIA, chemin -> chargerParticipation(chemin, entites, participationService));
+            charger(FICHIER_PERSONNE_ORGANISATION, chemin -> chargerParticipation(chemin, entites, participationService));
+            charger(FICHIER_ORGANISATION_ORGANISATION, chemin -> chargerParticipation(chemin, entites, participationService));
 
+            entites.pourChaque(entitesParNom::put);
             participationService.setEntites(entitesParNom);
         } catch (Exception e) {
             erreurs.add("Erreur générale lors de l'importation : " + e.getMessage());
         }
+        dureeImportationNanos = System.nanoTime() - debut;
     }
 
     /**
@@ -56,22 +88,59 @@ public class DataImport {
         return erreurs;
     }
 
+    /**
+     * @return durée de la dernière importation, en millisecondes
+     */
+    public long getDureeImportationMillis() {
+        return dureeImportationNanos / 1_000_000;
+    }
+
+    /**
+     * @return nombre de lignes de données lues lors de la dernière importation, tous fichiers confondus
+     */
+    public int getLignesLues() {
+        return lignesLues;
+    }
+
+    /**
+     * Charge un fichier du répertoire et trace la phase (lignes lues, erreurs) dans les enregistrements JFR.
+     *
+     * @param fichier    nom du fichier dans le répertoire
+     * @param chargement lecture du fichier, à partir de son chemin
+     */
+    private void charger(String fichier, Consumer<String> chargement) {
+        EvenementsJfr.ImportationFichier trace = new EvenementsJfr.ImportationFichier();
+        int lignesAvant = lignesLues;
+        int erreursAvant = erreurs.size();
+        trace.begin();
+        chargement.accept(repertoire.resolve(fichier).toString());
+        trace.end();
+        if (trace.shouldCommit()) {
+            trace.fichier = fichier;
+            trace.lignes = lignesLues - lignesAvant;
+            trace.erreurs = erreurs.size() - erreursAvant;
+            trace.commit();
+        }
+    }
+
     /**
      * Charge les personnes physiques à partir d'un fichier TSV.
      * Chaque ligne correspond à une personne physique.
      *
-     * @param chemin chemin relatif du fichier TSV à lire
+     * @param chemin  chemin du fichier TSV à lire
+     * @param entites table des entités connues
      */
-    private void chargerPersonnes(String chemin) {
+    private void chargerPersonnes(String chemin, TableNoms<Entite> entites) {
         try (BufferedReader br = new BufferedReader(new FileReader(chemin))) {
             String ligne;
             br.readLine(); // ignorer l'en-tête
             while ((ligne = br.readLine()) != null) {
-                String[] parties = ligne.split("\t");
-                if (parties.length > 0) {
-                    String nom = parties[0].trim();
-                    if (nom != null && !nom.isBlank() && !entitesParNom.containsKey(nom.toLowerCase())) {
-                        entitesParNom.put(nom.toLowerCase(), new PersonnePhysique(nom));
+                lignesLues++;
+                int fin = finDeChamp(ligne, 0);
+                if (entites.get(ligne, 0, fin) == null) {
+                    String nom = ligne.substring(0, fin).trim();
+                    if (!nom.isBlank()) {
+                        entites.ajouter(nom, new PersonnePhysique(nom));
                     }
                 }
             }
@@ -84,18 +153,20 @@ public class DataImport {
      * Charge les organisations (personnes morales) à partir d'un fichier TSV.
      * Chaque ligne correspond à une organisation.
      *
-     * @param chemin chemin relatif du fichier TSV à lire
+     * @param chemin  chemin du fichier TSV à lire
+     * @param entites table des entités connues
      */
-    private void chargerOrganisations(String chemin) {
+    private void chargerOrganisations(String chemin, TableNoms<Entite> entites) {
         try (BufferedReader br = new BufferedReader(new FileReader(chemin))) {
             String ligne;
             br.readLine(); // ignorer l'en-tête
             while ((ligne = br.readLine()) != null) {
-                String[] parties = ligne.split("\t");
-                if (parties.length > 0) {
-                    String nom = parties[0].trim();
-                    if (nom != null && !nom.isBlank() && !entitesParNom.containsKey(nom.toLowerCase())) {
-                        entitesParNom.put(nom.toLowerCase(), new PersonneMorale(nom));
+                lignesLues++;
+                int fin = finDeChamp(ligne, 0);
+                if (entites.get(ligne, 0, fin) == null) {
+                    String nom = ligne.substring(0, fin).trim();
+                    if (!nom.isBlank()) {
+                        entites.ajouter(nom, new PersonneMorale(nom));
                     }
                 }
             }
@@ -108,21 +179,25 @@ public class DataImport {
      * Charge les médias à partir d'un fichier TSV.
      * Chaque ligne correspond à un média, avec un nom et un type.
      *
-     * @param chemin chemin relatif du fichier TSV à lire
+     * @param chemin  chemin du fichier TSV à lire
+     * @param entites table des entités connues (un média remplace une entité de même nom)
+     * @param medias  table des médias déjà chargés
      */
-    private void chargerMedias(String chemin) {
+    private void chargerMedias(String chemin, TableNoms<Entite> entites, TableNoms<Media> medias) {
         try (BufferedReader br = new BufferedReader(new FileReader(chemin))) {
             String ligne;
             br.readLine(); // ignorer l'en-tête
             while ((ligne = br.readLine()) != null) {
-                String[] parties = ligne.split("\t");
-                if (parties.length > 0) {
-                    String nom = parties[0].trim();
-                    String type = (parties.length > 1) ? parties[1].trim() : "inconnu";
-                    if (nom != null && !nom.isBlank() && !mediasParNom.containsKey(nom.toLowerCase())) {
+                lignesLues++;
+                int fin = finDeChamp(ligne, 0);
+                if (medias.get(ligne, 0, fin) == null) {
+                    String nom = ligne.substring(0, fin).trim();
+                    String type = fin < ligne.length() && !champsVides(ligne, fin + 1)
+                            ? ligne.substring(fin + 1, finDeChamp(ligne, fin + 1)).trim() : "inconnu";
+                    if (!nom.isBlank()) {
                         Media m = new Media(nom, type);
-                        mediasParNom.put(nom.toLowerCase(), m);
-                        entitesParNom.put(nom.toLowerCase(), m);
+                        medias.ajouter(nom, m);
+                        entites.mettre(nom, m);
                     }
                 }
             }
@@ -136,54 +211,59 @@ public class DataImport {
      * Seules les lignes contenant un lien "égal à" ou similaire sont traitées.
      * Gère les erreurs de format, les entités manquantes et les pourcentages invalides.
      *
-     * @param chemin chemin relatif du fichier TSV à lire
-     * @param ps     service de gestion des participations
+     * @param chemin  chemin du fichier TSV à lire
+     * @param entites table des entités connues
+     * @param ps      service de gestion des participations
      */
-    private void chargerParticipation(String chemin, ParticipationService ps) {
+    private void chargerParticipation(String chemin, TableNoms<Entite> entites, ParticipationService ps) {
+        int[] fins = new int[4];
         try (BufferedReader br = new BufferedReader(new FileReader(chemin))) {
             String ligne;
             br.readLine(); // ignorer l'en-tête
             while ((ligne = br.readLine()) != null) {
-                String[] parties = ligne.split("\t");
+                lignesLues++;
+                // Fins des quatre premiers champs ; le cinquième court jusqu'à la tabulation suivante
+                int debut = 0;
+                for (int k = 0; k < fins.length; k++) {
+                    fins[k] = finDeChamp(ligne, debut);
+                    debut = Math.min(fins[k] + 1, ligne.length());
+                }
 
                 // Vérification du format attendu
-                if (parties.length >= 5 && parties[2].toLowerCase().contains("égal")) {
-                    String sourceNom = parties[1].trim();
-                    String cibleNom = parties[4].trim();
-                    String pourcentageStr = parties[3]
-                            .replaceAll("[^\\d,.]", "")
-                            .replace(",", ".")
-                            .trim();
-
-                    try {
-                        double pourcentage = Double.parseDouble(pourcentageStr);
-
-                        // Vérification que le pourcentage est valide
-                        if (pourcentage < 0 || pourcentage > 100) {
-                            erreurs.add("Pourcentage invalide (" + pourcentage + ") pour la ligne : " + ligne);
-                            continue;
-                        }
-
-                        // Récupérer les entités source et cible
-                        Entite source = entitesParNom.get(sourceNom.toLowerCase());
-                        Entite cible = entitesParNom.get(cibleNom.toLowerCase());
-
-                        if (source == null) {
-                            erreurs.add("Source inconnue : " + sourceNom + " (ligne ignorée : " + ligne + ")");
-                            continue;
-                        }
-
-                        if (cible == null) {
-                            erreurs.add("Cible inconnue : " + cibleNom + " (ligne ignorée : " + ligne + ")");
-                            continue;
-                        }
-
-                        // Ajouter la participation via ParticipationService
-                        ps.ajouterParticipation(source, cible, pourcentage);
-
-                    } catch (NumberFormatException ex) {
-                        erreurs.add("Erreur de format numérique : " + pourcentageStr + " (ligne ignorée : " + ligne + ")");
+                if (fins[3] < ligne.length() && !champsVides(ligne, fins[3] + 1)
+                        && contientEgal(ligne, fins[1] + 1, fins[2])) {
+                    long millioniemes = lireMillioniemes(ligne, fins[2] + 1, fins[3]);
+                    if (millioniemes < 0) {
+                        erreurs.add("Erreur de format numérique : " + ligne.substring(fins[2] + 1, fins[3]).trim()
+                                + " (ligne ignorée : " + ligne + ")");
+                        continue;
+                    }
+
+                    // Vérification que le pourcentage est valide
+                    if (millioniemes > Participation.CAPITAL_TOTAL) {
+                        erreurs.add("Pourcentage invalide (" + (double) millioniemes / Participation.MILLIONIEMES_PAR_POURCENT
+                                + ") pour la ligne : " + ligne);
+                        continue;
+                    }
+
+                    // Récupérer les entités source et cible
+                    Entite source = entites.get(ligne, fins[0] + 1, fins[1]);
+                    Entite cible = entites.get(ligne, fins[3] + 1, finDeChamp(ligne, fins[3] + 1));
+
+                    if (source == null) {
+                        erreurs.add("Source inconnue : " + ligne.substring(fins[0] + 1, fins[1]).trim()
+                                + " (ligne ignorée : " + ligne + ")");
+                        continue;
                     }
+
+                    if (cible == null) {
+                        erreurs.add("Cible inconnue : " + ligne.substring(fins[3] + 1, finDeChamp(ligne, fins[3] + 1)).trim()
+                                + " (ligne ignorée : " + ligne + ")");
+                        continue;
+                    }
+
+                    // Ajouter la participation via ParticipationService
+                    ps.ajouterParticipationEnMillioniemes(source, cible, (int) millioniemes);
                 } else {
                     erreurs.add("Ligne non conforme ignorée : " + ligne);
                 }
@@ -193,4 +273,79 @@ public class DataImport {
             erreurs.add("Erreur de lecture du fichier : " + chemin + " - " + e.getMessage());
         }
     }
+
+    /**
+     * Retourne la fin du champ commençant à la position donnée : la tabulation suivante, ou la fin de ligne.
+     */
+    private static int finDeChamp(String ligne, int debut) {
+        int tabulation = ligne.indexOf('\t', debut);
+        return tabulation < 0 ? ligne.length() : tabulation;
+    }
+
+    /**
+     * Indique si la fin de ligne, à partir de la position donnée, ne contient que des champs vides.
+     */
+    private static boolean champsVides(String ligne, int debut) {
+        for (int k = debut; k < ligne.length(); k++) {
+            if (ligne.charAt(k) != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indique si la zone contient « égal », sans tenir compte de la casse.
+     */
+    private static boolean contientEgal(String ligne, int debut, int fin) {
+        for (int k = debut; k + 4 <= fin; k++) {
+            if (ligne.regionMatches(true, k, "égal", 0, 4)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lit un pourcentage en ne retenant que les chiffres et le séparateur décimal (point ou virgule),
+     * directement en millionièmes du capital, arrondis au plus proche.
+     *
+     * @return le pourcentage en millionièmes, ou -1 si la zone ne contient pas un nombre
+     */
+    private static long lireMillioniemes(String ligne, int debut, int fin) {
+        long entier = 0;
+        long fraction = 0;
+        int decimales = 0;
+        int arrondi = 0;
+        boolean separateur = false;
+        boolean chiffre = false;
+        for (int k = debut; k < fin; k++) {
+            char c = ligne.charAt(k);
+            if (c >= '0' && c <= '9') {
+                chiffre = true;
+                int d = c - '0';
+                if (!separateur) {
+                    entier = Math.min(entier * 10 + d, 1_000_000_000_000L); // au-delà, le pourcentage est de toute façon invalide
+                } else if (decimales < 4) {
+                    fraction = fraction * 10 + d;
+                    decimales++;
+                } else if (decimales == 4) {
+                    arrondi = d >= 5 ? 1 : 0;
+                    decimales++;
+                }
+            } else if (c == '.' || c == ',') {
+                if (separateur) {
+                    return -1;
+                }
+                separateur = true;
+            }
+        }
+        if (!chiffre) {
+            return -1;
+        }
+        for (int k = Math.min(decimales, 4); k < 4; k++) {
+            fraction *= 10;
+        }
+        return entier * Participation.MILLIONIEMES_PAR_POURCENT + fraction + arrondi;
+    }
 }
@@ -0,0 +1,146 @@
+package core;
+
+import model.Alerte;
+import model.AlerteAgregee;
+import model.Entite;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Regroupe les alertes par entité (média ou personne) sur une fenêtre de temps fixe.
+ * À chaque fin de fenêtre, un planificateur transmet une seule alerte par entité :
+ * l'alerte d'origine si elle était seule, sinon une {@link AlerteAgregee}.
+ */
+public final class DigestAlertes implements AutoCloseable {
+    private final int echantillonsMax;
+    private final Consumer<Alerte> sortie;
+    private final Map<String, Accumulateur> enCours = new LinkedHashMap<>();
+    private final ScheduledExecutorService planificateur;
+    private boolean ferme;
+
+    /**
+     * Alertes accumulées pour une entité pendant la fenêtre courante.
+     */
+    private static final class Accumulateur {
+        final Alerte premiere;
+        final List<String> echantillons = new ArrayList<>();
+        String module;
+        int nombre;
+        long dernierHorodatage;
+
+        Accumulateur(Alerte premiere) {
+            this.premiere = premiere;
+            this.module = premiere.getModule();
+        }
+    }
+
+    /**
+     * Crée le regroupement et démarre son planificateur.
+     *
+     * @param fenetreMillis   durée d'une fenêtre de regroupement, en millisecondes
+     * @param echantillonsMax nombre maximal de messages d'exemple conservés par entité
+     * @param sortie          destinataire des alertes regroupées
+     */
+    public DigestAlertes(long fenetreMillis, int echantillonsMax, Consumer<Alerte> sortie) {
+        this.echantillonsMax = echantillonsMax;
+        this.sortie = sortie;
+        this.planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "digest-alertes");
+            t.setDaemon(true);
+            return t;
+        });
+        this.planificateur.scheduleAtFixedRate(this::vider, fenetreMillis, fenetreMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ajoute une alerte à la fenêtre courante.
+     *
+     * @param alerte alerte à regrouper
+     * @return false si le regroupement est fermé : l'alerte n'est pas prise en charge
+     */
+    public synchronized boolean ajouter(Alerte alerte) {
+        if (ferme) {
+            return false;
+        }
+        Entite entite = alerte.getEntite();
+        String cle = entite != null ? entite.getNom() : String.valueOf(alerte.getModule());
+        Accumulateur acc = enCours.computeIfAbsent(cle, k -> new Accumulateur(alerte));
+        acc.nombre++;
+        acc.dernierHorodatage = Math.max(acc.dernierHorodatage, alerte.getHorodatage());
+        if (!Objects.equals(acc.module, alerte.getModule())) {
+            acc.module = null; // plusieurs modules concernés
+        }
+        if (acc.echantillons.size() < echantillonsMax) {
+            acc.echantillons.add(alerte.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Transmet immédiatement les alertes de la fenêtre courante et ouvre une nouvelle fenêtre.
+     */
+    public void vider() {
+        List<Map.Entry<String, Accumulateur>> lot;
+        synchronized (this) {
+            if (enCours.isEmpty()) {
+                return;
+            }
+            lot = new ArrayList<>(enCours.entrySet());
+            enCours.clear();
+        }
+        for (Map.Entry<String, Accumulateur> entree : lot) {
+            try {
+                sortie.accept(agreger(entree.getKey(), entree.getValue()));
+            } catch (RuntimeException e) {
+                System.err.println("Erreur lors de la transmission d'un digest : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return nombre d'entités ayant des alertes en attente de regroupement
+     */
+    public synchronized int getNombreEnAttente() {
+        return enCours.size();
+    }
+
+    private static Alerte agreger(String cle, Accumulateur acc) {
+        if (acc.nombre == 1) {
+            return acc.premiere;
+        }
+        long premier = acc.premiere.getHorodatage();
+        String message = String.format("[Digest] %s : %d alertes entre %s et %s. Exemples : %s",
+                cle, acc.nombre, heure(premier), heure(acc.dernierHorodatage), String.join(" | ", acc.echantillons));
+        return new AlerteAgregee(acc.module, acc.premiere.getEntite(), "digest|" + cle + "|" + premier, message,
+                acc.nombre, premier, acc.dernierHorodatage, List.copyOf(acc.echantillons));
+    }
+
+    private static LocalTime heure(long horodatage) {
+        return LocalTime.ofInstant(Instant.ofEpochMilli(horodatage), ZoneId.systemDefault()).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Arrête le planificateur après avoir transmis les alertes en attente.
+     * Les alertes ajoutées ensuite sont refusées.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            ferme = true;
+        }
+        planificateur.shutdown();
+        vider();
+    }
+}
@@ -0,0 +1,470 @@
+package core;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Estime l'empreinte mémoire sur le tas de graphes d'objets, par parcours réflexif.
+ * <p>
+ * La taille superficielle d'une instance est calculée à partir de ses champs d'instance
+ * (superclasses comprises) selon le modèle de disposition de la JVM courante : en-tête, taille des
+ * références compressées ou non, alignement. Le résultat est mis en cache par classe.
+ * <p>
+ * Les mesures successives partagent l'ensemble des objets déjà comptés : un objet atteignable depuis
+ * plusieurs racines n'est compté que pour la première, de sorte que la somme des mesures ne compte
+ * jamais deux fois le même objet. Un objet {@linkplain #exclure(Object) exclu} n'est compté que
+ * lorsqu'il est lui-même mesuré comme racine. Le parcours n'alloue qu'une pile et une table d'identité,
+ * réutilisées d'une mesure à l'autre.
+ * <p>
+ * Les champs des classes du JDK ne sont lisibles que si leur paquetage est ouvert
+ * ({@code --add-opens java.base/java.util=ALL-UNNAMED}, etc.). Sinon, les chaînes, collections et
+ * tables associatives sont parcourues par leur interface publique et leur structure interne est
+ * estimée (tableau de hachage, nœuds) ; les autres objets du JDK ne comptent que pour leur taille
+ * superficielle et sont dénombrés par {@link #getObjetsEstimes()}.
+ * <p>
+ * Les classes, chargeurs de classes, modules, threads et constantes d'énumération ne sont jamais
+ * comptés. Les structures parcourues ne doivent pas être modifiées pendant une mesure.
+ */
+public final class EmpreinteMemoire {
+    private static final int CAPACITE_INITIALE = 1 << 12;
+
+    private final boolean referencesCompressees;
+    private final int tailleReference;
+    private final int tailleEnTete;
+    private final int tailleEnTeteTableau;
+    private final int alignement;
+
+    private final ClassValue<Disposition> dispositions = new ClassValue<>() {
+        @Override
+        protected Disposition computeValue(Class<?> classe) {
+            return disposer(classe);
+        }
+    };
+
+    // Table d'identité à adressage ouvert des objets comptés, puis des objets exclus
+    private Object[] comptes = new Object[CAPACITE_INITIALE];
+    private int nombreComptes;
+    private Object[] exclus = new Object[16];
+    private int nombreExclus;
+
+    // Pile du parcours
+    private Object[] pile = new Object[256];
+    private int sommet;
+
+    private long objetsEstimes;
+
+    private final BiConsumer<Object, Object> suivrePaire = (cle, valeur) -> {
+        suivre(cle);
+        suivre(valeur);
+    };
+
+    /**
+     * Disposition d'une classe : taille superficielle de ses instances et champs de référence à suivre.
+     *
+     * @param taille     taille superficielle d'une instance, en octets
+     * @param references champs de référence lisibles, ou null si les champs ne sont pas accessibles
+     */
+    private record Disposition(long taille, Field[] references) {
+    }
+
+    /**
+     * Crée un estimateur selon le modèle de disposition de la JVM courante.
+     */
+    public EmpreinteMemoire() {
+        boolean oopsCompresses = true;
+        boolean classesCompressees = true;
+        int aligne = 8;
+        try {
+            HotSpotDiagnosticMXBean diagnostic = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            oopsCompresses = Boolean.parseBoolean(diagnostic.getVMOption("UseCompressedOops").getValue());
+            classesCompressees = Boolean.parseBoolean(diagnostic.getVMOption("UseCompressedClassPointers").getValue());
+            aligne = Integer.parseInt(diagnostic.getVMOption("ObjectAlignmentInBytes").getValue());
+        } catch (RuntimeException e) {
+            System.err.println("Disposition de la JVM inconnue, références compressées supposées : " + e.getMessage());
+        }
+        this.referencesCompressees = oopsCompresses;
+        this.tailleReference = oopsCompresses ? 4 : 8;
+        this.tailleEnTete = classesCompressees ? 12 : 16;
+        this.tailleEnTeteTableau = tailleEnTete + 4;
+        this.alignement = aligne;
+    }
+
+    /**
+     * Exclut un objet des parcours : il n'est compté que lorsqu'il est mesuré comme racine.
+     * Sert à attribuer les objets partagés (entités, services) à leur propre mesure plutôt qu'à la
+     * première structure qui les référence.
+     *
+     * @param objet objet à exclure
+     */
+    public void exclure(Object objet) {
+        if (objet == null || contient(exclus, objet)) {
+            return;
+        }
+        if (2 * (nombreExclus + 1) > exclus.length) {
+            exclus = rehacher(exclus);
+        }
+        inserer(exclus, objet);
+        nombreExclus++;
+    }
+
+    /**
+     * Exclut tous les objets d'une collection.
+     *
+     * @param objets objets à exclure
+     */
+    public void exclureTous(Collection<?> objets) {
+        for (Object objet : objets) {
+            exclure(objet);
+        }
+    }
+
+    /**
+     * Mesure les objets atteignables depuis une racine qui n'ont pas encore été comptés.
+     *
+     * @param racine racine du parcours, ou null
+     * @return nombre d'octets des objets nouvellement comptés
+     */
+    public long mesurer(Object racine) {
+        if (racine == null || contient(comptes, racine) || nonComptable(racine.getClass())) {
+            return 0;
+        }
+        long octets = 0;
+        marquer(racine);
+        empiler(racine);
+        while (sommet > 0) {
+            Object objet = pile[--sommet];
+            pile[sommet] = null;
+            octets += parcourir(objet);
+        }
+        return octets;
+    }
+
+    /**
+     * Mesure séparément chaque champ de référence d'un objet, dans l'ordre de déclaration,
+     * l'objet lui-même étant compté avec le premier champ. Les champs qui désignent un objet exclu
+     * ne comptent pas cet objet.
+     *
+     * @param objet objet dont les champs sont mesurés (classe lisible par réflexion)
+     * @return octets nouvellement comptés, par nom de champ
+     */
+    public Map<String, Long> mesurerChamps(Object objet) {
+        Map<String, Long> resultat = new LinkedHashMap<>();
+        long superficielle = contient(comptes, objet) ? 0 : tailleSuperficielle(objet);
+        marquer(objet);
+        for (Field champ : objet.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(champ.getModifiers()) || champ.getType().isPrimitive() || !champ.trySetAccessible()) {
+                continue;
+            }
+            long octets = superficielle;
+            superficielle = 0;
+            Object valeur = lire(champ, objet);
+            if (valeur != null && !contient(exclus, valeur)) {
+                octets += mesurer(valeur);
+            }
+            resultat.put(champ.getName(), octets);
+        }
+        return resultat;
+    }
+
+    /**
+     * Calcule la taille superficielle d'un objet : en-tête et champs, ou en-tête et éléments d'un tableau,
+     * alignés.
+     *
+     * @param objet objet mesuré
+     * @return taille en octets
+     */
+    public long tailleSuperficielle(Object objet) {
+        Class<?> classe = objet.getClass();
+        if (classe.isArray()) {
+            return tailleTableau(classe.getComponentType(), Array.getLength(objet));
+        }
+        return dispositions.get(classe).taille();
+    }
+
+    /**
+     * Oublie les objets comptés et exclus, pour une nouvelle série de mesures.
+     */
+    public void reinitialiser() {
+        Arrays.fill(comptes, null);
+        nombreComptes = 0;
+        Arrays.fill(exclus, null);
+        nombreExclus = 0;
+        objetsEstimes = 0;
+    }
+
+    /**
+     * @return nombre d'objets comptés depuis la dernière réinitialisation
+     */
+    public int getObjetsComptes() {
+        return nombreComptes;
+    }
+
+    /**
+     * @return nombre d'objets du JDK dont les champs n'ont pu être lus et dont la structure a été estimée
+     */
+    public long getObjetsEstimes() {
+        return objetsEstimes;
+    }
+
+    /**
+     * @return description du modèle de disposition utilisé
+     */
+    public String getModele() {
+        return "en-tête " + tailleEnTete + " o, références " + tailleReference + " o"
+                + (referencesCompressees ? " (compressées)" : "") + ", alignement " + alignement + " o";
+    }
+
+    private long parcourir(Object objet) {
+        Class<?> classe = objet.getClass();
+        if (classe.isArray()) {
+            int longueur = Array.getLength(objet);
+            if (objet instanceof Object[] elements) {
+                for (Object element : elements) {
+                    suivre(element);
+                }
+            }
+            return tailleTableau(classe.getComponentType(), longueur);
+        }
+        Disposition disposition = dispositions.get(classe);
+        if (disposition.references() != null) {
+            for (Field champ : disposition.references()) {
+                suivre(lire(champ, objet));
+            }
+            return disposition.taille();
+        }
+        // Champs illisibles (classe du JDK) : parcours par l'interface publique et structure estimée
+        objetsEstimes++;
+        return disposition.taille() + parcourirOpaque(objet);
+    }
+
+    private long parcourirOpaque(Object objet) {
+        switch (objet) {
+            case String s -> {
+                return tailleTableau(byte.class, latin1(s) ? s.length() : 2 * s.length());
+            }
+            case AtomicReference<?> reference -> {
+                suivre(reference.get());
+                return 0;
+            }
+            case Map<?, ?> map -> {
+                map.forEach(suivrePaire);
+                return structureMap(map);
+            }
+            case Collection<?> collection -> {
+                for (Object element : collection) {
+                    suivre(element);
+                }
+                return structureCollection(collection);
+            }
+            default -> {
+                return 0;
+            }
+        }
+    }
+
+    private long structureMap(Map<?, ?> map) {
+        int taille = map.size();
+        if (map instanceof HashMap<?, ?> || map instanceof ConcurrentHashMap<?, ?>) {
+            return tableHachage(taille) + (long) taille * noeud(map instanceof LinkedHashMap<?, ?>
+                    ? "java.util.LinkedHashMap$Entry" : map instanceof HashMap<?, ?>
+                    ? "java.util.HashMap$Node" : "java.util.concurrent.ConcurrentHashMap$Node");
+        }
+        if (map instanceof TreeMap<?, ?>) {
+            return (long) taille * noeud("java.util.TreeMap$Entry");
+        }
+        return tailleTableau(Object.class, 2 * taille);
+    }
+
+    private long structureCollection(Collection<?> collection) {
+        int taille = collection.size();
+        if (collection instanceof HashSet<?>) {
+            return noeud("java.util.HashMap") + tableHachage(taille) + (long) taille * noeud(
+                    collection instanceof LinkedHashSet<?> ? "java.util.LinkedHashMap$Entry" : "java.util.HashMap$Node");
+        }
+        if (collection instanceof TreeSet<?>) {
+            return noeud("java.util.TreeMap") + (long) taille * noeud("java.util.TreeMap$Entry");
+        }
+        if (collection instanceof LinkedList<?>) {
+            return (long) taille * noeud("java.util.LinkedList$Node");
+        }
+        if (collection instanceof List<?> || collection instanceof ArrayDeque<?>) {
+            return tailleTableau(Object.class, taille); // capacité inconnue : borne inférieure
+        }
+        return 0;
+    }
+
+    private long tableHachage(int taille) {
+        int capacite = 1;
+        while (capacite * 3L < taille * 4L) {
+            capacite <<= 1;
+        }
+        return taille == 0 ? 0 : tailleTableau(Object.class, Math.max(16, capacite));
+    }
+
+    private long noeud(String nomClasse) {
+        try {
+            return dispositions.get(Class.forName(nomClasse)).taille();
+        } catch (ClassNotFoundException e) {
+            return aligner(tailleEnTete + 4L + 3L * tailleReference);
+        }
+    }
+
+    private static boolean latin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void suivre(Object objet) {
+        if (objet == null || contient(comptes, objet) || contient(exclus, objet)
+                || nonComptable(objet.getClass())) {
+            return;
+        }
+        marquer(objet);
+        empiler(objet);
+    }
+
+    private static boolean nonComptable(Class<?> classe) {
+        return classe == Class.class || Enum.class.isAssignableFrom(classe)
+                || ClassLoader.class.isAssignableFrom(classe) || Thread.class.isAssignableFrom(classe)
+                || classe == Module.class;
+    }
+
+    private void empiler(Object objet) {
+        if (sommet == pile.length) {
+            pile = Arrays.copyOf(pile, 2 * pile.length);
+        }
+        pile[sommet++] = objet;
+    }
+
+    private void marquer(Object objet) {
+        if (2 * (nombreComptes + 1) > comptes.length) {
+            comptes = rehacher(comptes);
+        }
+        if (inserer(comptes, objet)) {
+            nombreComptes++;
+        }
+    }
+
+    private static boolean contient(Object[] table, Object objet) {
+        int masque = table.length - 1;
+        for (int i = System.identityHashCode(objet) & masque; table[i] != null; i = (i + 1) & masque) {
+            if (table[i] == objet) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean inserer(Object[] table, Object objet) {
+        int masque = table.length - 1;
+        int i = System.identityHashCode(objet) & masque;
+        while (table[i] != null) {
+            if (table[i] == objet) {
+                return false;
+            }
+            i = (i + 1) & masque;
+        }
+        table[i] = objet;
+        return true;
+    }
+
+    private static Object[] rehacher(Object[] table) {
+        Object[] nouvelle = new Object[2 * table.length];
+        for (Object objet : table) {
+            if (objet != null) {
+                inserer(nouvelle, objet);
+            }
+        }
+        return nouvelle;
+    }
+
+    private static Object lire(Field champ, Object objet) {
+        try {
+            return champ.get(objet);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private Disposition disposer(Class<?> classe) {
+        long champs = 0;
+        long champsPetits = 0;
+        boolean champsLongs = false;
+        boolean lisible = true;
+        List<Field> references = new ArrayList<>();
+        for (Class<?> c = classe; c != null; c = c.getSuperclass()) {
+            for (Field champ : c.getDeclaredFields()) {
+                if (Modifier.isStatic(champ.getModifiers())) {
+                    continue;
+                }
+                int taille = tailleChamp(champ.getType());
+                champs += taille;
+                if (taille == 8) {
+                    champsLongs = true;
+                } else {
+                    champsPetits += taille;
+                }
+                if (!champ.getType().isPrimitive()) {
+                    if (lisible && champ.trySetAccessible()) {
+                        references.add(champ);
+                    } else {
+                        lisible = false;
+                    }
+                }
+            }
+        }
+        // Un champ de 8 octets doit être aligné : un en-tête de 12 octets laisse un trou de 4 octets
+        // que seuls des champs plus petits peuvent combler.
+        long trou = champsLongs && tailleEnTete % 8 != 0 && champsPetits < 8 - tailleEnTete % 8 ? 8 - tailleEnTete % 8 : 0;
+        return new Disposition(aligner(tailleEnTete + champs + trou),
+                lisible ? references.toArray(new Field[0]) : null);
+    }
+
+    private int tailleChamp(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return tailleReference;
+        }
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private long tailleTableau(Class<?> typeElement, int longueur) {
+        return aligner(tailleEnTeteTableau + (long) longueur * tailleChamp(typeElement));
+    }
+
+    private long aligner(long taille) {
+        return (taille + alignement - 1) / alignement * alignement;
+    }
+}
@@ -0,0 +1,101 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Événements Java Flight Recorder émis aux points clés du moteur.
+ * <p>
+ * Chaque événement est chronométré ({@code begin}/{@code end}) puis validé seulement si
+ * {@code shouldCommit()} le retient : l'événement doit être activé dans l'enregistrement et sa durée
+ * dépasser le seuil configuré. Les champs ne sont renseignés qu'après ce test, de sorte qu'un événement
+ * désactivé ne coûte ni chaîne ni allocation durable. Les seuils par défaut sont portés par les
+ * annotations et se règlent dans un fichier de configuration JFR (voir {@code vigie.jfc}).
+ */
+final class EvenementsJfr {
+    private static final String CATEGORIE = "Vigie";
+
+    private EvenementsJfr() {
+    }
+
+    @Name("vigie.ImportationFichier")
+    @Label("Importation d'un fichier")
+    @Description("Lecture d'un fichier TSV par DataImport")
+    @Category({CATEGORIE, "Importation"})
+    @Threshold("0 ms")
+    static final class ImportationFichier extends Event {
+        @Label("Fichier")
+        String fichier;
+
+        @Label("Lignes lues")
+        int lignes;
+
+        @Label("Erreurs")
+        int erreurs;
+    }
+
+    @Name("vigie.Diffusion")
+    @Label("Diffusion d'un événement")
+    @Description("Appel à SystemeEvenementiel.diffuserEvenement, traitements des modules compris")
+    @Category({CATEGORIE, "Diffusion"})
+    @Threshold("100 us")
+    @StackTrace(false)
+    static final class Diffusion extends Event {
+        @Label("Type")
+        String type;
+
+        @Label("Modules notifiés")
+        int modules;
+
+        @Label("Entités mentionnées")
+        int mentions;
+    }
+
+    @Name("vigie.Transfert")
+    @Label("Transfert de parts")
+    @Description("Transfert de parts entre deux entités, accepté ou refusé")
+    @Category({CATEGORIE, "Participations"})
+    @Threshold("0 ms")
+    @StackTrace(false)
+    static final class Transfert extends Event {
+        @Label("Vendeur")
+        String vendeur;
+
+        @Label("Acheteur")
+        String acheteur;
+
+        @Label("Cible")
+        String cible;
+
+        @Label("Pourcentage")
+        double pourcentage;
+
+        @Label("Réussi")
+        boolean reussi;
+
+        @Label("Motif du refus")
+        String refus;
+    }
+
+    @Name("vigie.Alerte")
+    @Label("Réception d'une alerte")
+    @Description("Appel à Vigie.recevoirAlerte : filtrage, puis historisation, archivage et publication")
+    @Category({CATEGORIE, "Alertes"})
+    @Threshold("50 us")
+    @StackTrace(false)
+    static final class Alerte extends Event {
+        @Label("Module")
+        String module;
+
+        @Label("Entité")
+        String entite;
+
+        @Label("Retenue")
+        boolean retenue;
+    }
+}
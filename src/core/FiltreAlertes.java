@@ -0,0 +1,195 @@
+package core;
+
+import model.Alerte;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Filtre appliqué par la Vigie aux alertes reçues, pour borner le volume transmis.
+ * <ul>
+ *   <li>Déduplication : une alerte dont la clé a déjà été vue pendant la fenêtre glissante est écartée.
+ *   Les empreintes 64 bits des clés sont rangées dans des tranches de temps successives
+ *   (tables à adressage ouvert de {@code long}) ; la tranche la plus ancienne est vidée lorsque
+ *   la fenêtre avance, sans parcourir les autres.</li>
+ *   <li>Limitation de débit : chaque entité dispose d'un seau de jetons ; une alerte reçue
+ *   alors que le seau est vide est écartée.</li>
+ * </ul>
+ * Les alertes écartées sont comptées, globalement et par entité.
+ */
+public class FiltreAlertes {
+    private static final int TRANCHES = 8;
+    private static final int CAPACITE_INITIALE = 64;
+
+    private final long dureeTranche;
+    private final int capaciteSeau;
+    private final double jetonsParMilli;
+    private final LongSupplier horloge;
+
+    private final long[][] tranches = new long[TRANCHES][];
+    private final int[] occupation = new int[TRANCHES];
+    private final long[] debutTranche = new long[TRANCHES];
+
+    private final Map<String, SeauJetons> seaux = new HashMap<>();
+    private final Map<String, long[]> supprimeesParEntite = new HashMap<>();
+    private long supprimeesDoublon;
+    private long supprimeesDebit;
+
+    /**
+     * Seau de jetons d'une entité.
+     */
+    private static final class SeauJetons {
+        double jetons;
+        long dernierRemplissage;
+    }
+
+    /**
+     * @param fenetreMillis       durée de la fenêtre de déduplication, en millisecondes
+     * @param alertesParMinute    débit d'alertes autorisé par entité, en régime établi
+     * @param rafaleMax           nombre d'alertes qu'une entité peut émettre d'un coup
+     * @param horloge             source du temps courant, en millisecondes
+     */
+    public FiltreAlertes(long fenetreMillis, double alertesParMinute, int rafaleMax, LongSupplier horloge) {
+        this.dureeTranche = Math.max(1, fenetreMillis / TRANCHES);
+        this.capaciteSeau = rafaleMax;
+        this.jetonsParMilli = alertesParMinute / 60_000.0;
+        this.horloge = horloge;
+        for (int i = 0; i < TRANCHES; i++) {
+            tranches[i] = new long[CAPACITE_INITIALE];
+            debutTranche[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Filtre par défaut : fenêtre de 10 minutes, 30 alertes par minute et par entité, rafales de 30.
+     */
+    public FiltreAlertes() {
+        this(10 * 60_000L, 30, 30, System::currentTimeMillis);
+    }
+
+    /**
+     * Décide si une alerte doit être transmise.
+     *
+     * @param alerte alerte reçue
+     * @return true si l'alerte est acceptée, false si elle est écartée
+     */
+    public synchronized boolean accepter(Alerte alerte) {
+        long maintenant = horloge.getAsLong();
+        long empreinte = empreinte(alerte.getCle() != null ? alerte.getCle() : alerte.getMessage());
+
+        // Déduplication sur la fenêtre glissante
+        long numeroTranche = Math.floorDiv(maintenant, dureeTranche);
+        int courante = Math.floorMod(numeroTranche, TRANCHES);
+        if (debutTranche[courante] != numeroTranche) {
+            Arrays.fill(tranches[courante], 0L);
+            occupation[courante] = 0;
+            debutTranche[courante] = numeroTranche;
+        }
+        for (int i = 0; i < TRANCHES; i++) {
+            if (numeroTranche - debutTranche[i] < TRANCHES && contient(i, empreinte)) {
+                supprimeesDoublon++;
+                compterSuppression(alerte, 0);
+                return false;
+            }
+        }
+
+        // Limitation de débit par entité
+        String entite = alerte.getEntite() != null ? alerte.getEntite().getNom() : alerte.getModule();
+        SeauJetons seau = seaux.computeIfAbsent(entite, k -> {
+            SeauJetons s = new SeauJetons();
+            s.jetons = capaciteSeau;
+            s.dernierRemplissage = maintenant;
+            return s;
+        });
+        seau.jetons = Math.min(capaciteSeau, seau.jetons + (maintenant - seau.dernierRemplissage) * jetonsParMilli);
+        seau.dernierRemplissage = maintenant;
+        if (seau.jetons < 1) {
+            supprimeesDebit++;
+            compterSuppression(alerte, 1);
+            return false;
+        }
+        seau.jetons -= 1;
+
+        ajouter(courante, empreinte);
+        return true;
+    }
+
+    public synchronized long getSupprimeesDoublon() {
+        return supprimeesDoublon;
+    }
+
+    public synchronized long getSupprimeesDebit() {
+        return supprimeesDebit;
+    }
+
+    /**
+     * Retourne, pour chaque entité, le nombre d'alertes écartées comme doublons puis par limitation de débit.
+     *
+     * @return map nom d'entité → {doublons, débit}
+     */
+    public synchronized Map<String, long[]> getSupprimeesParEntite() {
+        Map<String, long[]> copie = new HashMap<>();
+        supprimeesParEntite.forEach((k, v) -> copie.put(k, v.clone()));
+        return copie;
+    }
+
+    private void compterSuppression(Alerte alerte, int motif) {
+        String entite = alerte.getEntite() != null ? alerte.getEntite().getNom() : alerte.getModule();
+        supprimeesParEntite.computeIfAbsent(entite, k -> new long[2])[motif]++;
+    }
+
+    private boolean contient(int tranche, long empreinte) {
+        long[] table = tranches[tranche];
+        int masque = table.length - 1;
+        for (int i = (int) mixer(empreinte) & masque; table[i] != 0; i = (i + 1) & masque) {
+            if (table[i] == empreinte) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ajouter(int tranche, long empreinte) {
+        if ((occupation[tranche] + 1) * 2 > tranches[tranche].length) {
+            long[] ancienne = tranches[tranche];
+            tranches[tranche] = new long[ancienne.length * 2];
+            occupation[tranche] = 0;
+            for (long e : ancienne) {
+                if (e != 0) {
+                    ajouter(tranche, e);
+                }
+            }
+        }
+        long[] table = tranches[tranche];
+        int masque = table.length - 1;
+        int i = (int) mixer(empreinte) & masque;
+        while (table[i] != 0) {
+            if (table[i] == empreinte) {
+                return;
+            }
+            i = (i + 1) & masque;
+        }
+        table[i] = empreinte;
+        occupation[tranche]++;
+    }
+
+    /**
+     * Empreinte FNV-1a 64 bits d'une clé (0 est réservé aux cases vides).
+     */
+    private static long empreinte(String cle) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < cle.length(); i++) {
+            h ^= cle.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h == 0 ? 1 : h;
+    }
+
+    private static long mixer(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,84 @@
+package core;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Flux réactif ({@link Flow.Publisher}) alimenté par le cœur du système.
+ * Chaque abonné dispose d'un tampon borné et reçoit les éléments selon la demande qu'il exprime
+ * ({@link Flow.Subscription#request(long)}). Le cœur ne se bloque jamais sur un abonné lent :
+ * un élément qui ne trouve pas de place dans le tampon d'un abonné est perdu pour cet abonné et compté.
+ * Tant que personne n'est abonné, la publication ne coûte qu'un test.
+ *
+ * @param <T> type des éléments diffusés
+ */
+public final class FluxDiffusion<T> implements AutoCloseable {
+    /**
+     * Taille par défaut du tampon de chaque abonné.
+     */
+    public static final int TAILLE_TAMPON_DEFAUT = 1024;
+
+    private final SubmissionPublisher<T> diffuseur;
+    private final LongAdder perdus = new LongAdder();
+
+    /**
+     * Crée un flux dont les abonnés sont servis par le pool commun.
+     *
+     * @param tailleTampon nombre maximal d'éléments en attente pour chaque abonné
+     */
+    public FluxDiffusion(int tailleTampon) {
+        this.diffuseur = new SubmissionPublisher<>(ForkJoinPool.commonPool(), tailleTampon);
+    }
+
+    /**
+     * Transmet un élément à tous les abonnés, sans attendre.
+     *
+     * @param element élément à diffuser
+     */
+    public void publier(T element) {
+        if (diffuseur.hasSubscribers()) {
+            diffuseur.offer(element, (abonne, perdu) -> {
+                perdus.increment();
+                return false;
+            });
+        }
+    }
+
+    /**
+     * @return le flux, à donner aux consommateurs (exporteurs, analyses, serveur HTTP…)
+     */
+    public Flow.Publisher<T> getPublisher() {
+        return diffuseur::subscribe;
+    }
+
+    /**
+     * @return nombre d'éléments perdus faute de place dans le tampon d'un abonné
+     */
+    public long getPerdus() {
+        return perdus.sum();
+    }
+
+    /**
+     * @return nombre maximal d'éléments en attente chez un abonné
+     */
+    public int getRetardMax() {
+        return diffuseur.estimateMaximumLag();
+    }
+
+    /**
+     * @return nombre d'abonnés actuels
+     */
+    public int getNombreAbonnes() {
+        return diffuseur.getNumberOfSubscribers();
+    }
+
+    /**
+     * Termine le flux : les abonnés reçoivent {@code onComplete} après les éléments en attente.
+     */
+    @Override
+    public void close() {
+        diffuseur.close();
+    }
+}
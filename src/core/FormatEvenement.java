@@ -0,0 +1,257 @@
+package core;
+
+import model.Entite;
+import model.Evenement;
+import model.Media;
+import model.Participation;
+import model.Publication;
+import model.Rachat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sérialise les événements sous forme de lignes TSV et les relit.
+ * Les entités sont désignées par leur nom et retrouvées via le {@link ParticipationService}.
+ *
+ * Format d'une publication : {@code publication  date  source  typePublication  contenu  mention...}
+ * Format d'un rachat : {@code rachat  date  acheteur  vendeur  cible  pourcentage  description}, suivi, si le
+ * rachat porte la répartition des parts après transfert, de {@code etat  propriétaire  millionièmes...}
+ *
+ * Les événements peuvent aussi être lus depuis un objet JSON portant les mêmes champs, par exemple
+ * {@code {"type":"rachat","date":"2024-03-01","acheteur":"…","vendeur":"…","cible":"…","pourcentage":10}}.
+ */
+public final class FormatEvenement {
+
+    private static final String ETAT = "etat";
+
+    private FormatEvenement() {
+    }
+
+    /**
+     * Convertit un événement en une ligne TSV (sans retour à la ligne final).
+     *
+     * @param evenement l'événement à sérialiser
+     * @return la ligne correspondante
+     */
+    public static String versLigne(Evenement evenement) {
+        StringBuilder sb = new StringBuilder();
+        switch (evenement) {
+            case Rachat r -> {
+                sb.append("rachat\t").append(r.date())
+                        .append('\t').append(echapper(nom(r.acheteur())))
+                        .append('\t').append(echapper(nom(r.vendeur())))
+                        .append('\t').append(echapper(nom(r.cible())))
+                        .append('\t').append(r.pourcentage())
+                        .append('\t').append(echapper(r.description()));
+                if (r.etatProprietaires() != null) {
+                    sb.append('\t').append(ETAT);
+                    for (Participation part : r.etatProprietaires()) {
+                        sb.append('\t').append(echapper(nom(part.getProprietaire())))
+                                .append('\t').append(part.getMillioniemes());
+                    }
+                }
+            }
+            case Publication p -> {
+                sb.append("publication\t").append(p.date())
+                        .append('\t').append(echapper(nom(p.source())))
+                        .append('\t').append(echapper(p.typePublication()))
+                        .append('\t').append(echapper(p.contenu()));
+                for (Entite mention : p.mentions()) {
+                    sb.append('\t').append(echapper(mention.getNom()));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reconstruit un événement à partir d'une ligne TSV.
+     *
+     * @param ligne                la ligne à analyser
+     * @param participationService service permettant de retrouver les entités par nom
+     * @return l'événement reconstruit
+     * @throws IllegalArgumentException si la ligne est mal formée ou si une entité est inconnue
+     */
+    public static Evenement depuisLigne(String ligne, ParticipationService participationService) {
+        String[] parties = ligne.split("\t", -1);
+        if (parties.length < 2) {
+            throw new IllegalArgumentException("Ligne d'événement incomplète : " + ligne);
+        }
+        LocalDate date = LocalDate.parse(parties[1].trim());
+
+        if (parties[0].equalsIgnoreCase("rachat")) {
+            if (parties.length < 7) {
+                throw new IllegalArgumentException("Rachat incomplet : " + ligne);
+            }
+            Entite acheteur = entite(parties[2], participationService);
+            Entite vendeur = entite(parties[3], participationService);
+            Entite cible = entite(parties[4], participationService);
+            double pourcentage = Double.parseDouble(parties[5].trim().replace(",", "."));
+            Rachat rachat = new Rachat(date, acheteur, vendeur, cible, desechapper(parties[6]), pourcentage);
+            if (parties.length > 7 && parties[7].equals(ETAT)) {
+                if ((parties.length - 8) % 2 != 0) {
+                    throw new IllegalArgumentException("Répartition des parts incomplète : " + ligne);
+                }
+                List<Participation> etat = new ArrayList<>();
+                for (int i = 8; i < parties.length; i += 2) {
+                    etat.add(Participation.enMillioniemes(entite(parties[i], participationService), cible,
+                            Integer.parseInt(parties[i + 1].trim())));
+                }
+                rachat = rachat.avecEtatProprietaires(etat);
+            }
+            return rachat;
+        }
+
+        if (parties[0].equalsIgnoreCase("publication")) {
+            if (parties.length < 5) {
+                throw new IllegalArgumentException("Publication incomplète : " + ligne);
+            }
+            if (!(entite(parties[2], participationService) instanceof Media source)) {
+                throw new IllegalArgumentException("La source n'est pas un média : " + parties[2]);
+            }
+            List<Entite> mentions = new ArrayList<>();
+            for (int i = 5; i < parties.length; i++) {
+                if (!parties[i].isBlank()) {
+                    mentions.add(entite(parties[i], participationService));
+                }
+            }
+            return new Publication(date, source, desechapper(parties[4]), desechapper(parties[3]), mentions);
+        }
+
+        throw new IllegalArgumentException("Type d'événement inconnu : " + parties[0]);
+    }
+
+    /**
+     * Reconstruit un événement à partir d'une ligne TSV ou d'un objet JSON
+     * (une ligne commençant par une accolade est lue comme du JSON).
+     *
+     * @param ligne                la ligne à analyser
+     * @param participationService service permettant de retrouver les entités par nom
+     * @return l'événement reconstruit
+     * @throws IllegalArgumentException si la ligne est mal formée ou si une entité est inconnue
+     */
+    public static Evenement depuisTexte(String ligne, ParticipationService participationService) {
+        String t = ligne.strip();
+        if (t.startsWith("{")) {
+            return depuisJson(JsonPlat.lireObjet(t), participationService);
+        }
+        return depuisLigne(ligne, participationService);
+    }
+
+    /**
+     * Reconstruit un événement à partir des champs d'un objet JSON.
+     * La date est facultative (date du jour par défaut), de même que les mentions d'une publication.
+     *
+     * @param champs               champs de l'objet JSON
+     * @param participationService service permettant de retrouver les entités par nom
+     * @return l'événement reconstruit
+     * @throws IllegalArgumentException si un champ obligatoire manque ou si une entité est inconnue
+     */
+    public static Evenement depuisJson(Map<String, Object> champs, ParticipationService participationService) {
+        String type = texte(champs, "type", true);
+        String dateTexte = texte(champs, "date", false);
+        LocalDate date = dateTexte == null ? LocalDate.now() : LocalDate.parse(dateTexte);
+
+        if (type.equalsIgnoreCase("rachat")) {
+            Entite acheteur = entite(texte(champs, "acheteur", true), participationService);
+            Entite vendeur = entite(texte(champs, "vendeur", true), participationService);
+            Entite cible = entite(texte(champs, "cible", true), participationService);
+            if (!(champs.get("pourcentage") instanceof Number pourcentage)) {
+                throw new IllegalArgumentException("Champ numérique 'pourcentage' manquant");
+            }
+            String description = texte(champs, "description", false);
+            return new Rachat(date, acheteur, vendeur, cible, description == null ? "" : description,
+                    pourcentage.doubleValue());
+        }
+
+        if (type.equalsIgnoreCase("publication")) {
+            String nomSource = texte(champs, "source", true);
+            if (!(entite(nomSource, participationService) instanceof Media source)) {
+                throw new IllegalArgumentException("La source n'est pas un média : " + nomSource);
+            }
+            List<Entite> mentions = new ArrayList<>();
+            if (champs.get("mentions") instanceof List<?> noms) {
+                for (Object nom : noms) {
+                    mentions.add(entite(String.valueOf(nom), participationService));
+                }
+            }
+            String typePublication = texte(champs, "typePublication", false);
+            return new Publication(date, source, texte(champs, "contenu", true),
+                    typePublication == null ? "article" : typePublication, mentions);
+        }
+
+        throw new IllegalArgumentException("Type d'événement inconnu : " + type);
+    }
+
+    private static String texte(Map<String, Object> champs, String nom, boolean obligatoire) {
+        Object valeur = champs.get(nom);
+        if (valeur == null) {
+            if (obligatoire) {
+                throw new IllegalArgumentException("Champ '" + nom + "' manquant");
+            }
+            return null;
+        }
+        return valeur.toString();
+    }
+
+    private static Entite entite(String nom, ParticipationService participationService) {
+        Entite entite = participationService.getEntiteParNom(desechapper(nom));
+        if (entite == null) {
+            throw new IllegalArgumentException("Entité inconnue : " + nom);
+        }
+        return entite;
+    }
+
+    private static String nom(Entite e) {
+        return e == null ? "" : e.getNom();
+    }
+
+    /**
+     * Échappe les caractères réservés du format (tabulation, retour à la ligne, barre oblique inverse).
+     */
+    static String echapper(String s) {
+        if (s == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Opération inverse de {@link #echapper(String)}.
+     */
+    static String desechapper(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char suivant = s.charAt(++i);
+                switch (suivant) {
+                    case 't' -> sb.append('\t');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    default -> sb.append(suivant);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
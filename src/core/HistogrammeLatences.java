@@ -0,0 +1,124 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Histogramme de latences à précision relative constante (principe des histogrammes HDR).
+ * Les valeurs sont réparties par puissance de deux, chaque puissance étant divisée en
+ * {@value #SOUS_CLASSES} sous-classes linéaires : l'erreur relative reste inférieure à 1 %
+ * quelle que soit l'amplitude, pour une empreinte mémoire fixe et un enregistrement en O(1).
+ */
+public class HistogrammeLatences {
+    private static final int BITS_SOUS_CLASSES = 7;
+    private static final int SOUS_CLASSES = 1 << BITS_SOUS_CLASSES;
+    private static final int MAGNITUDES = 64 - BITS_SOUS_CLASSES;
+
+    private final long[] compteurs = new long[MAGNITUDES * SOUS_CLASSES];
+    private long nombre;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Enregistre une valeur (typiquement une durée en nanosecondes).
+     *
+     * @param valeur valeur positive ou nulle
+     */
+    public void enregistrer(long valeur) {
+        if (valeur < 0) {
+            valeur = 0;
+        }
+        compteurs[indice(valeur)]++;
+        nombre++;
+        total += valeur;
+        if (valeur < min) {
+            min = valeur;
+        }
+        if (valeur > max) {
+            max = valeur;
+        }
+    }
+
+    /**
+     * Ajoute à cet histogramme les valeurs d'un autre histogramme.
+     *
+     * @param autre histogramme à fusionner
+     */
+    public void fusionner(HistogrammeLatences autre) {
+        for (int i = 0; i < compteurs.length; i++) {
+            compteurs[i] += autre.compteurs[i];
+        }
+        nombre += autre.nombre;
+        total += autre.total;
+        min = Math.min(min, autre.min);
+        max = Math.max(max, autre.max);
+    }
+
+    /**
+     * Remet l'histogramme à zéro (par exemple à la fin d'une phase de chauffe).
+     */
+    public void reinitialiser() {
+        Arrays.fill(compteurs, 0);
+        nombre = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Retourne la valeur en dessous de laquelle se trouve le centile demandé des valeurs.
+     *
+     * @param centile centile entre 0 et 100 (ex : 99.9)
+     * @return borne supérieure de la classe contenant ce centile, ou 0 si l'histogramme est vide
+     */
+    public long centile(double centile) {
+        if (nombre == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(centile / 100.0 * nombre));
+        long cumul = 0;
+        for (int i = 0; i < compteurs.length; i++) {
+            cumul += compteurs[i];
+            if (cumul >= rang) {
+                return Math.min(borneSuperieure(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getNombre() {
+        return nombre;
+    }
+
+    public long getMin() {
+        return nombre == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMoyenne() {
+        return nombre == 0 ? 0 : (double) total / nombre;
+    }
+
+    private static int indice(long valeur) {
+        int decalage = 64 - Long.numberOfLeadingZeros(valeur) - (BITS_SOUS_CLASSES + 1);
+        if (decalage < 0) {
+            return (int) valeur; // petites valeurs : une classe par valeur
+        }
+        // Le bit de poids fort est implicite : il reste BITS_SOUS_CLASSES bits de précision
+        int sousClasse = (int) (valeur >>> decalage) - SOUS_CLASSES;
+        return (decalage + 1) * SOUS_CLASSES + sousClasse;
+    }
+
+    private static long borneSuperieure(int indice) {
+        int groupe = indice / SOUS_CLASSES;
+        long sousClasse = indice % SOUS_CLASSES;
+        if (groupe == 0) {
+            return indice;
+        }
+        int decalage = groupe - 1;
+        return ((SOUS_CLASSES + sousClasse) << decalage) + (1L << decalage) - 1;
+    }
+}
@@ -0,0 +1,329 @@
+package core;
+
+import model.Contenu;
+import model.Entite;
+import model.Evenement;
+import model.Media;
+import model.Participation;
+import model.Publication;
+import model.Rachat;
+import model.TypeEvenement;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Historique des événements stocké par colonnes de types primitifs plutôt que par objets.
+ * <ul>
+ *   <li>date : jour epoch ({@code int[]}), nature : {@code byte[]} ;</li>
+ *   <li>entités (source ou acheteur, vendeur, cible) : identifiants {@code int[]} attribués par l'historique ;</li>
+ *   <li>pourcentage : {@code double[]} ;</li>
+ *   <li>textes (contenu ou description) : poignées ({@code long[]}) vers un {@link StockageContenus}
+ *   hors tas, compressé par blocs ;</li>
+ *   <li>mentions et répartition des parts après rachat : plages dans des arènes d'identifiants
+ *   et de parts ({@code int[]}, en millionièmes du capital).</li>
+ * </ul>
+ * Les événements sont reconstruits à la demande, les publications portant un {@link Contenu} qui
+ * n'est décompressé qu'à la lecture ; les analyses (comptages par média et par mois)
+ * parcourent directement les colonnes.
+ */
+public class HistoriqueColonnaire {
+    private static final byte PUBLICATION = 0;
+    private static final byte RACHAT = 1;
+    private static final int CAPACITE_INITIALE = 256;
+
+    // Colonnes, une case par événement
+    private int taille;
+    private int[] jours = new int[CAPACITE_INITIALE];
+    private byte[] natures = new byte[CAPACITE_INITIALE];
+    private int[] sources = new int[CAPACITE_INITIALE];   // source d'une publication, acheteur d'un rachat
+    private int[] vendeurs = new int[CAPACITE_INITIALE];
+    private int[] cibles = new int[CAPACITE_INITIALE];
+    private double[] pourcentages = new double[CAPACITE_INITIALE];
+    private short[] typesPublication = new short[CAPACITE_INITIALE];
+    private long[] textes = new long[CAPACITE_INITIALE]; // poignée hors tas, -1 si le texte est null
+    private int[] listeDebut = new int[CAPACITE_INITIALE]; // mentions ou état des propriétaires
+    private int[] listeTaille = new int[CAPACITE_INITIALE]; // -1 si l'état des propriétaires est absent
+
+    // Arènes partagées
+    private final StockageContenus stockage = new StockageContenus();
+    private int[] listeEntites = new int[CAPACITE_INITIALE];
+    private int[] listeParts = new int[CAPACITE_INITIALE]; // millionièmes du capital
+    private int listesTaille;
+
+    // Dictionnaires
+    private final Map<Entite, Integer> idsEntites = new HashMap<>();
+    private final List<Entite> entites = new ArrayList<>();
+    private final Map<String, Short> idsTypesPublication = new HashMap<>();
+    private final List<String> typesPublicationConnus = new ArrayList<>();
+
+    /**
+     * Ajoute un événement à la fin de l'historique.
+     * Le texte d'une publication est copié dans le stockage hors tas : la publication rendue le désigne
+     * par sa poignée, de sorte que les consommateurs qui la conservent ne retiennent pas le texte sur le tas.
+     *
+     * @param evenement événement diffusé
+     * @return l'événement tel qu'enregistré : publication dont le contenu est relu depuis l'historique,
+     * ou rachat inchangé
+     */
+    public synchronized Evenement ajouter(Evenement evenement) {
+        if (taille == jours.length) {
+            agrandir();
+        }
+        int i = taille;
+        jours[i] = (int) evenement.date().toEpochDay();
+        Evenement enregistre = evenement;
+        switch (evenement) {
+            case Publication p -> {
+                natures[i] = PUBLICATION;
+                sources[i] = idEntite(p.source());
+                vendeurs[i] = -1;
+                cibles[i] = -1;
+                typesPublication[i] = idTypePublication(p.typePublication());
+                textes[i] = poignee(p.corps());
+                listeDebut[i] = listesTaille;
+                listeTaille[i] = p.mentions().size();
+                for (Entite mention : p.mentions()) {
+                    ajouterALaListe(idEntite(mention), 0);
+                }
+                if (textes[i] >= 0 && !p.corps().isHorsTas()) {
+                    enregistre = new Publication(p.date(), p.source(), Contenu.horsTas(stockage, textes[i]),
+                            p.typePublication(), p.mentions());
+                }
+            }
+            case Rachat r -> {
+                natures[i] = RACHAT;
+                sources[i] = idEntite(r.acheteur());
+                vendeurs[i] = idEntite(r.vendeur());
+                cibles[i] = idEntite(r.cible());
+                pourcentages[i] = r.pourcentage();
+                typesPublication[i] = -1;
+                textes[i] = r.description() == null ? -1 : stockage.ajouter(r.description());
+                listeDebut[i] = listesTaille;
+                if (r.etatProprietaires() == null) {
+                    listeTaille[i] = -1;
+                } else {
+                    listeTaille[i] = r.etatProprietaires().size();
+                    for (Participation p : r.etatProprietaires()) {
+                        ajouterALaListe(idEntite(p.getProprietaire()), p.getMillioniemes());
+                    }
+                }
+            }
+        }
+        taille++;
+        return enregistre;
+    }
+
+    /**
+     * @return nombre d'événements enregistrés
+     */
+    public synchronized int taille() {
+        return taille;
+    }
+
+    /**
+     * Reconstruit l'événement enregistré à une position donnée.
+     *
+     * @param index position dans l'historique
+     * @return l'événement reconstruit
+     */
+    public synchronized Evenement get(int index) {
+        if (index < 0 || index >= taille) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors de l'historique (taille " + taille + ")");
+        }
+        LocalDate date = LocalDate.ofEpochDay(jours[index]);
+        long texte = textes[index];
+        if (natures[index] == PUBLICATION) {
+            List<Entite> mentions = new ArrayList<>(listeTaille[index]);
+            for (int k = listeDebut[index], fin = k + listeTaille[index]; k < fin; k++) {
+                mentions.add(entites.get(listeEntites[k]));
+            }
+            return new Publication(date, (Media) entite(sources[index]),
+                    texte < 0 ? Contenu.de(null) : Contenu.horsTas(stockage, texte),
+                    typesPublicationConnus.get(typesPublication[index]), mentions);
+        }
+        Entite cible = entite(cibles[index]);
+        List<Participation> etat = null;
+        if (listeTaille[index] >= 0) {
+            etat = new ArrayList<>(listeTaille[index]);
+            for (int k = listeDebut[index], fin = k + listeTaille[index]; k < fin; k++) {
+                etat.add(Participation.enMillioniemes(entites.get(listeEntites[k]), cible, listeParts[k]));
+            }
+        }
+        return new Rachat(date, entite(sources[index]), entite(vendeurs[index]), cible,
+                texte < 0 ? null : stockage.lire(texte),
+                pourcentages[index], etat);
+    }
+
+    /**
+     * Vue en lecture seule de l'historique ; chaque accès reconstruit l'événement.
+     *
+     * @return liste des événements, dans l'ordre de diffusion
+     */
+    public List<Evenement> vue() {
+        return new AbstractList<>() {
+            @Override
+            public Evenement get(int index) {
+                return HistoriqueColonnaire.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return taille();
+            }
+        };
+    }
+
+    /**
+     * Reconstruit les événements d'un type donné.
+     *
+     * @param type type recherché
+     * @return liste des événements de ce type, dans l'ordre de diffusion
+     */
+    public synchronized List<Evenement> filtrer(TypeEvenement type) {
+        byte nature = type == TypeEvenement.PUBLICATION ? PUBLICATION : RACHAT;
+        List<Evenement> resultat = new ArrayList<>();
+        for (int i = 0; i < taille; i++) {
+            if (natures[i] == nature) {
+                resultat.add(get(i));
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Compte les publications par média source et par mois, en un seul parcours des colonnes.
+     * Seuls les couples (média, mois) rencontrés ont un compteur : des dates très éloignées
+     * n'agrandissent pas la table.
+     *
+     * @return map média → (mois → nombre de publications), médias dans l'ordre de leur première
+     * apparition dans l'historique et mois triés par ordre chronologique
+     */
+    public synchronized Map<Media, Map<YearMonth, Integer>> compterPublicationsParMediaEtParMois() {
+        // Clé : identifiant de la source (32 bits de poids fort) et numéro de mois (32 bits de poids faible)
+        Map<Long, int[]> compteurs = new HashMap<>();
+        for (int i = 0; i < taille; i++) {
+            if (natures[i] == PUBLICATION && sources[i] >= 0) {
+                long cle = (long) sources[i] << 32 | (moisDepuisJour(jours[i]) & 0xFFFFFFFFL);
+                compteurs.computeIfAbsent(cle, k -> new int[1])[0]++;
+            }
+        }
+        long[] cles = new long[compteurs.size()];
+        int k = 0;
+        for (long cle : compteurs.keySet()) {
+            cles[k++] = cle;
+        }
+        Arrays.sort(cles);
+
+        Map<Media, Map<YearMonth, Integer>> resultat = new LinkedHashMap<>();
+        for (long cle : cles) {
+            int mois = (int) cle;
+            resultat.computeIfAbsent((Media) entites.get((int) (cle >>> 32)), m -> new TreeMap<>())
+                    .put(YearMonth.of(Math.floorDiv(mois, 12), Math.floorMod(mois, 12) + 1), compteurs.get(cle)[0]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Estime la mémoire occupée sur le tas par les colonnes et les arènes, en octets (dictionnaires exclus).
+     *
+     * @return nombre d'octets alloués sur le tas
+     */
+    public synchronized long memoireOccupee() {
+        long parEvenement = 4L * 6 + 8 + 1 + 8 + 2;
+        return parEvenement * jours.length + 8L * listeEntites.length;
+    }
+
+    /**
+     * @return le stockage hors tas des textes
+     */
+    public StockageContenus getStockage() {
+        return stockage;
+    }
+
+    /**
+     * Convertit un jour epoch en numéro de mois (année × 12 + mois − 1), sans allocation.
+     * Algorithme « civil from days » de H. Hinnant.
+     */
+    static int moisDepuisJour(int jourEpoch) {
+        int z = jourEpoch + 719468;
+        int ere = Math.floorDiv(z, 146097);
+        int jourDeLEre = z - ere * 146097;
+        int anneeDeLEre = (jourDeLEre - jourDeLEre / 1460 + jourDeLEre / 36524 - jourDeLEre / 146096) / 365;
+        int jourDeLAnnee = jourDeLEre - (365 * anneeDeLEre + anneeDeLEre / 4 - anneeDeLEre / 100);
+        int mp = (5 * jourDeLAnnee + 2) / 153;
+        int mois = mp < 10 ? mp + 3 : mp - 9;
+        int annee = anneeDeLEre + ere * 400 + (mois <= 2 ? 1 : 0);
+        return annee * 12 + mois - 1;
+    }
+
+    private int idEntite(Entite entite) {
+        if (entite == null) {
+            return -1;
+        }
+        Integer id = idsEntites.get(entite);
+        if (id == null) {
+            id = entites.size();
+            entites.add(entite);
+            idsEntites.put(entite, id);
+        }
+        return id;
+    }
+
+    private Entite entite(int id) {
+        return id < 0 ? null : entites.get(id);
+    }
+
+    private short idTypePublication(String type) {
+        Short id = idsTypesPublication.get(type);
+        if (id == null) {
+            id = (short) typesPublicationConnus.size();
+            typesPublicationConnus.add(type);
+            idsTypesPublication.put(type, id);
+        }
+        return id;
+    }
+
+    /**
+     * Retourne la poignée hors tas d'un contenu, en le stockant s'il n'y est pas déjà.
+     */
+    private long poignee(Contenu contenu) {
+        if (contenu.isHorsTas() && contenu.getSource() == stockage) {
+            return contenu.getPoignee();
+        }
+        String texte = contenu.texte();
+        return texte == null ? -1 : stockage.ajouter(texte);
+    }
+
+    private void ajouterALaListe(int idEntite, int parts) {
+        if (listesTaille == listeEntites.length) {
+            listeEntites = Arrays.copyOf(listeEntites, listesTaille * 2);
+            listeParts = Arrays.copyOf(listeParts, listesTaille * 2);
+        }
+        listeEntites[listesTaille] = idEntite;
+        listeParts[listesTaille] = parts;
+        listesTaille++;
+    }
+
+    private void agrandir() {
+        int n = jours.length * 2;
+        jours = Arrays.copyOf(jours, n);
+        natures = Arrays.copyOf(natures, n);
+        sources = Arrays.copyOf(sources, n);
+        vendeurs = Arrays.copyOf(vendeurs, n);
+        cibles = Arrays.copyOf(cibles, n);
+        pourcentages = Arrays.copyOf(pourcentages, n);
+        typesPublication = Arrays.copyOf(typesPublication, n);
+        textes = Arrays.copyOf(textes, n);
+        listeDebut = Arrays.copyOf(listeDebut, n);
+        listeTaille = Arrays.copyOf(listeTaille, n);
+    }
+}
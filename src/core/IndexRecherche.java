@@ -0,0 +1,194 @@
+package core;
+
+import model.Entite;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Index de recherche des entités par nom, construit une seule fois après l'importation.
+ * Les noms sont normalisés (sans accents, sans espaces, en minuscules) et indexés de trois façons :
+ * <ul>
+ *   <li>une table de hachage pour la recherche exacte ;</li>
+ *   <li>un tableau trié des clés pour l'autocomplétion par préfixe (recherche dichotomique) ;</li>
+ *   <li>un index inversé de trigrammes pour proposer des noms proches en cas de faute de frappe.</li>
+ * </ul>
+ */
+public class IndexRecherche {
+    private static final Pattern MARQUES_ET_ESPACES = Pattern.compile("[\\p{InCombiningDiacriticalMarks}\\s]");
+    private static final int[] AUCUN = new int[0];
+
+    private final Map<String, Entite> parCle;
+    private final String[] clesTriees;
+    private final Entite[] entitesTriees;
+    private final Map<String, int[]> trigrammes;
+    private final int[] nombreTrigrammes;
+    private final ThreadLocal<int[]> compteurs;
+
+    /**
+     * Construit l'index à partir des entités connues.
+     *
+     * @param entites entités à indexer
+     */
+    public IndexRecherche(Collection<Entite> entites) {
+        parCle = new HashMap<>(entites.size() * 2);
+        for (Entite e : entites) {
+            parCle.putIfAbsent(normaliser(e.getNom()), e);
+        }
+
+        // Clés triées pour l'autocomplétion
+        clesTriees = parCle.keySet().toArray(new String[0]);
+        Arrays.sort(clesTriees);
+        entitesTriees = new Entite[clesTriees.length];
+        for (int i = 0; i < clesTriees.length; i++) {
+            entitesTriees[i] = parCle.get(clesTriees[i]);
+        }
+
+        // Index inversé des trigrammes : trigramme -> positions dans clesTriees
+        Map<String, List<Integer>> listes = new HashMap<>();
+        nombreTrigrammes = new int[clesTriees.length];
+        for (int i = 0; i < clesTriees.length; i++) {
+            List<String> grammes = decouper(clesTriees[i]);
+            nombreTrigrammes[i] = grammes.size();
+            for (String g : grammes) {
+                listes.computeIfAbsent(g, k -> new ArrayList<>()).add(i);
+            }
+        }
+        trigrammes = new HashMap<>(listes.size() * 2);
+        for (Map.Entry<String, List<Integer>> entree : listes.entrySet()) {
+            trigrammes.put(entree.getKey(), entree.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        compteurs = ThreadLocal.withInitial(() -> new int[clesTriees.length]);
+    }
+
+    /**
+     * Supprime les accents, les espaces et met la chaîne en minuscules pour comparaison stricte.
+     *
+     * @param s chaîne à normaliser
+     * @return chaîne normalisée
+     */
+    public static String normaliser(String s) {
+        return MARQUES_ET_ESPACES.matcher(Normalizer.normalize(s, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase();
+    }
+
+    /**
+     * Recherche une entité dont le nom normalisé est identique à celui de la saisie.
+     *
+     * @param saisie nom recherché
+     * @return l'entité correspondante ou null
+     */
+    public Entite rechercherExact(String saisie) {
+        return parCle.get(normaliser(saisie));
+    }
+
+    /**
+     * Retourne les entités dont le nom normalisé commence par la saisie, par ordre alphabétique.
+     *
+     * @param prefixe début du nom recherché
+     * @param max     nombre maximal de résultats
+     * @return entités correspondantes
+     */
+    public List<Entite> completer(String prefixe, int max) {
+        String cle = normaliser(prefixe);
+        int debut = Arrays.binarySearch(clesTriees, cle);
+        if (debut < 0) {
+            debut = -debut - 1;
+        }
+        List<Entite> resultat = new ArrayList<>(Math.min(max, 16));
+        for (int i = debut; i < clesTriees.length && resultat.size() < max && clesTriees[i].startsWith(cle); i++) {
+            resultat.add(entitesTriees[i]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Propose les entités dont le nom ressemble le plus à la saisie (coefficient de Dice sur les trigrammes).
+     *
+     * @param saisie nom approximatif
+     * @param max    nombre maximal de suggestions
+     * @return suggestions, de la plus proche à la moins proche
+     */
+    public List<Entite> suggerer(String saisie, int max) {
+        List<String> grammes = decouper(normaliser(saisie));
+        if (grammes.isEmpty() || max <= 0) {
+            return List.of();
+        }
+
+        // Comptage des trigrammes communs pour chaque clé candidate (tableau réutilisé par fil)
+        int[] communs = compteurs.get();
+        int[] candidats = new int[Math.min(clesTriees.length, 1024)];
+        int nbCandidats = 0;
+        for (String g : grammes) {
+            for (int i : trigrammes.getOrDefault(g, AUCUN)) {
+                if (communs[i]++ == 0) {
+                    if (nbCandidats == candidats.length) {
+                        candidats = Arrays.copyOf(candidats, nbCandidats * 2);
+                    }
+                    candidats[nbCandidats++] = i;
+                }
+            }
+        }
+
+        // Sélection des meilleurs candidats (tableaux triés par insertion, max est petit)
+        int[] meilleurs = new int[Math.min(max, nbCandidats)];
+        double[] scores = new double[meilleurs.length];
+        int nbMeilleurs = 0;
+        for (int c = 0; c < nbCandidats; c++) {
+            int i = candidats[c];
+            double score = 2.0 * communs[i] / (grammes.size() + nombreTrigrammes[i]);
+            if (nbMeilleurs == meilleurs.length && score <= scores[nbMeilleurs - 1]) {
+                continue;
+            }
+            int pos = nbMeilleurs < meilleurs.length ? nbMeilleurs++ : nbMeilleurs - 1;
+            while (pos > 0 && scores[pos - 1] < score) {
+                scores[pos] = scores[pos - 1];
+                meilleurs[pos] = meilleurs[pos - 1];
+                pos--;
+            }
+            scores[pos] = score;
+            meilleurs[pos] = i;
+        }
+        for (int c = 0; c < nbCandidats; c++) {
+            communs[candidats[c]] = 0;
+        }
+
+        List<Entite> resultat = new ArrayList<>(nbMeilleurs);
+        for (int k = 0; k < nbMeilleurs; k++) {
+            resultat.add(entitesTriees[meilleurs[k]]);
+        }
+        return resultat;
+    }
+
+    /**
+     * @return nombre de noms distincts indexés
+     */
+    public int taille() {
+        return clesTriees.length;
+    }
+
+    /**
+     * Découpe une clé normalisée en trigrammes distincts, bornes comprises.
+     */
+    private static List<String> decouper(String cle) {
+        if (cle.isEmpty()) {
+            return List.of();
+        }
+        String borne = "^" + cle + "$";
+        List<String> grammes = new ArrayList<>(borne.length());
+        for (int i = 0; i + 3 <= borne.length(); i++) {
+            String g = borne.substring(i, i + 3);
+            if (!grammes.contains(g)) {
+                grammes.add(g);
+            }
+        }
+        return grammes;
+    }
+}
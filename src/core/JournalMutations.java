@@ -0,0 +1,435 @@
+package core;
+
+import model.Entite;
+import model.Participation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'écriture anticipée (« write-ahead log ») des mutations de participations.
+ * Chaque ajout, transfert ou rétablissement de parts est écrit et synchronisé sur disque avant d'être
+ * appliqué en mémoire.
+ * Les écritures passent par un fil d'écriture unique, qui écrit en une seule synchronisation disque
+ * les demandes trouvées en file. Dans l'application, les mutations sont appliquées sous le verrou du moteur
+ * et chacune attend son écriture avant que le rachat ne se poursuive (l'outbox en dépend) : il n'y a donc
+ * en pratique qu'une demande en file à la fois, et chaque mutation coûte une synchronisation.
+ * <p>
+ * Pour borner la taille du journal et la durée du rejeu, un point de reprise
+ * ({@link #sauvegarderInstantane(ParticipationService)}) est pris dès que le nombre de mutations journalisées
+ * depuis le dernier instantané atteint {@link #setSeuilPointDeReprise(int) un seuil}
+ * (voir {@link #pointDeRepriseNecessaire()}).
+ *
+ * Au redémarrage, {@link #restaurer(ParticipationService)} recharge le dernier instantané
+ * puis rejoue la fin du journal. Un enregistrement tronqué ou dont la somme de contrôle
+ * est invalide marque la fin du journal exploitable.
+ *
+ * Format d'un enregistrement : {@code taille(int) crc32(int) numéro(long) type(byte) valeur(double)... nom...}
+ * (une valeur pour un ajout ou un transfert, deux pour un rétablissement).
+ */
+public class JournalMutations implements AutoCloseable {
+    private static final byte AJOUT = 1;
+    private static final byte TRANSFERT = 2;
+    private static final byte RETABLISSEMENT = 3;
+    private static final int TAILLE_LOT_MAX = 512;
+    private static final int TAILLE_ENREGISTREMENT_MAX = 1 << 20; // au-delà, la taille lue est corrompue
+    private static final int SEUIL_POINT_DE_REPRISE_DEFAUT = 10_000;
+    private static final String ENTETE_INSTANTANE = "#sequence\t";
+
+    private final Path cheminInstantane;
+    private final BlockingQueue<Demande> demandes = new ArrayBlockingQueue<>(4096);
+    private final Thread ecrivain;
+    private final FileChannel canal;
+    private long sequence; // dernier numéro attribué
+    private volatile long sequenceEcrite; // dernier numéro écrit durablement
+    private volatile long sequenceInstantane; // dernier numéro couvert par l'instantané
+    private volatile int seuilPointDeReprise = SEUIL_POINT_DE_REPRISE_DEFAUT;
+    private volatile boolean ferme;
+
+    /**
+     * Une mutation en attente d'écriture et la promesse de son acquittement.
+     * Une demande sans enregistrement sert de barrière : son acquittement garantit
+     * que toutes les demandes précédentes ont été traitées.
+     */
+    private record Demande(long numero, byte[] enregistrement, CompletableFuture<Void> acquittement) {
+    }
+
+    /**
+     * Ouvre (ou crée) le journal et l'instantané associés.
+     *
+     * @param cheminJournal    chemin du fichier journal
+     * @param cheminInstantane chemin du fichier d'instantané
+     * @throws IOException si le journal ne peut pas être ouvert
+     */
+    public JournalMutations(Path cheminJournal, Path cheminInstantane) throws IOException {
+        this.cheminInstantane = cheminInstantane;
+        if (cheminJournal.getParent() != null) {
+            Files.createDirectories(cheminJournal.getParent());
+        }
+        this.canal = FileChannel.open(cheminJournal, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.canal.position(canal.size());
+        this.ecrivain = new Thread(this::boucleEcriture, "journal-mutations");
+        this.ecrivain.setDaemon(true);
+        this.ecrivain.start();
+    }
+
+    /**
+     * Recharge le dernier instantané puis rejoue les mutations journalisées après celui-ci.
+     * Doit être appelée après l'importation des entités et avant {@link ParticipationService#setJournal}.
+     * Le journal est lu en flux, enregistrement par enregistrement, quelle que soit sa taille.
+     *
+     * @param participationService service à restaurer
+     * @return nombre de mutations rejouées
+     * @throws IOException si l'instantané ou le journal ne peut pas être lu
+     */
+    public synchronized int restaurer(ParticipationService participationService) throws IOException {
+        long sequenceInstantane = chargerInstantane(participationService);
+        this.sequenceInstantane = sequenceInstantane;
+        sequence = sequenceInstantane;
+
+        long tailleJournal = canal.size();
+        canal.position(0);
+        // Le flux n'est pas fermé : il fermerait le canal, qui reste ouvert pour les écritures
+        DataInputStream entree = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16));
+
+        int rejouees = 0;
+        long finValide = 0;
+        byte[] octets = new byte[256];
+        CRC32 crc = new CRC32();
+        while (tailleJournal - finValide >= 8) {
+            int taille = entree.readInt();
+            int somme = entree.readInt();
+            if (taille <= 0 || taille > TAILLE_ENREGISTREMENT_MAX || taille > tailleJournal - finValide - 8) {
+                break; // enregistrement tronqué
+            }
+            if (octets.length < taille) {
+                octets = new byte[Math.max(taille, octets.length * 2)];
+            }
+            try {
+                entree.readFully(octets, 0, taille);
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(octets, 0, taille);
+            if ((int) crc.getValue() != somme) {
+                break; // enregistrement corrompu
+            }
+            finValide += 8 + taille;
+
+            ByteBuffer corps = ByteBuffer.wrap(octets, 0, taille);
+            long numero = corps.getLong();
+            if (numero <= sequenceInstantane) {
+                continue; // déjà inclus dans l'instantané
+            }
+            sequence = numero;
+            if (rejouer(corps, participationService)) {
+                rejouees++;
+            }
+        }
+        sequenceEcrite = sequence;
+
+        if (finValide < tailleJournal) {
+            System.err.println("Fin de journal invalide ignorée à partir de l'octet " + finValide);
+            canal.truncate(finValide);
+        }
+        canal.position(finValide);
+        return rejouees;
+    }
+
+    /**
+     * Journalise l'ajout d'une participation et attend son écriture durable.
+     *
+     * @param proprietaire entité détentrice
+     * @param cible        entité détenue
+     * @param pourcentage  pourcentage ajouté
+     * @throws IOException si l'écriture échoue
+     */
+    public void journaliserAjout(Entite proprietaire, Entite cible, double pourcentage) throws IOException {
+        attendre(soumettre(AJOUT, new double[]{pourcentage}, proprietaire.getNom(), cible.getNom()));
+    }
+
+    /**
+     * Journalise un transfert de parts et attend son écriture durable.
+     *
+     * @param vendeur     entité qui cède les parts
+     * @param acheteur    entité qui acquiert les parts
+     * @param cible       entité dont les parts sont transférées
+     * @param pourcentage pourcentage transféré
+     * @throws IOException si l'écriture échoue
+     */
+    public void journaliserTransfert(Entite vendeur, Entite acheteur, Entite cible, double pourcentage) throws IOException {
+        attendre(soumettre(TRANSFERT, new double[]{pourcentage}, vendeur.getNom(), acheteur.getNom(), cible.getNom()));
+    }
+
+    /**
+     * Journalise le rétablissement exact des parts d'un vendeur et d'un acheteur (annulation d'un transfert)
+     * et attend son écriture durable.
+     *
+     * @param vendeur       entité qui avait cédé les parts
+     * @param acheteur      entité qui les avait acquises
+     * @param cible         entité dont les parts sont rétablies
+     * @param partsVendeur  part rétablie du vendeur, en millionièmes
+     * @param partsAcheteur part rétablie de l'acheteur, en millionièmes, ou -1 s'il n'avait pas de participation
+     * @throws IOException si l'écriture échoue
+     */
+    public void journaliserRetablissement(Entite vendeur, Entite acheteur, Entite cible, int partsVendeur,
+                                         int partsAcheteur) throws IOException {
+        attendre(soumettre(RETABLISSEMENT, new double[]{partsVendeur, partsAcheteur},
+                vendeur.getNom(), acheteur.getNom(), cible.getNom()));
+    }
+
+    /**
+     * Écrit un instantané complet des participations puis vide le journal (point de reprise).
+     * Les mutations ne doivent pas être appliquées pendant l'appel.
+     * Les demandes en file sont d'abord écrites : l'instantané porte le numéro de la dernière
+     * mutation écrite durablement, et aucune écriture tardive ne suit la troncature.
+     *
+     * @param participationService service dont l'état est sauvegardé
+     * @throws IOException si l'instantané ne peut pas être écrit
+     */
+    public synchronized void sauvegarderInstantane(ParticipationService participationService) throws IOException {
+        if (!ferme) {
+            Demande barriere = new Demande(0, new byte[0], new CompletableFuture<>());
+            try {
+                demandes.put(barriere);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Sauvegarde de l'instantané interrompue", e);
+            }
+            attendre(barriere.acquittement());
+        }
+        long couverte = sequenceEcrite;
+        Path temporaire = cheminInstantane.resolveSibling(cheminInstantane.getFileName() + ".tmp");
+        try (BufferedWriter bw = Files.newBufferedWriter(temporaire, StandardCharsets.UTF_8)) {
+            bw.write(ENTETE_INSTANTANE + couverte);
+            bw.newLine();
+            for (Participation p : participationService.getParticipations()) {
+                bw.write(FormatEvenement.echapper(p.getProprietaire().getNom()) + "\t"
+                        + FormatEvenement.echapper(p.getCible().getNom()) + "\t" + p.getPourcentage());
+                bw.newLine();
+            }
+        }
+        Files.move(temporaire, cheminInstantane, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Toutes les mutations journalisées sont désormais couvertes par l'instantané
+        synchronized (canal) {
+            canal.truncate(0);
+            canal.position(0);
+            canal.force(true);
+        }
+        sequenceInstantane = couverte;
+    }
+
+    /**
+     * Indique si assez de mutations ont été journalisées depuis le dernier instantané
+     * pour justifier un point de reprise.
+     *
+     * @return true si {@link #sauvegarderInstantane(ParticipationService)} devrait être appelée
+     */
+    public boolean pointDeRepriseNecessaire() {
+        int seuil = seuilPointDeReprise;
+        return seuil > 0 && sequenceEcrite - sequenceInstantane >= seuil;
+    }
+
+    /**
+     * Définit le nombre de mutations journalisées au-delà duquel un point de reprise est pris.
+     *
+     * @param seuil nombre de mutations, ou 0 pour ne prendre d'instantané qu'à la fermeture
+     */
+    public void setSeuilPointDeReprise(int seuil) {
+        this.seuilPointDeReprise = Math.max(0, seuil);
+    }
+
+    /**
+     * @return nombre de mutations en attente d'écriture
+     */
+    public int getNombreEnAttente() {
+        return demandes.size();
+    }
+
+    private synchronized CompletableFuture<Void> soumettre(byte type, double[] valeurs, String... noms) throws IOException {
+        if (ferme) {
+            throw new IOException("Journal fermé");
+        }
+        byte[][] octets = new byte[noms.length][];
+        int taille = Long.BYTES + 1 + Double.BYTES * valeurs.length;
+        for (int i = 0; i < noms.length; i++) {
+            octets[i] = noms[i].getBytes(StandardCharsets.UTF_8);
+            taille += Short.BYTES + octets[i].length;
+        }
+
+        ByteBuffer corps = ByteBuffer.allocate(8 + taille);
+        corps.position(8);
+        corps.putLong(++sequence).put(type);
+        for (double valeur : valeurs) {
+            corps.putDouble(valeur);
+        }
+        for (byte[] nom : octets) {
+            corps.putShort((short) nom.length).put(nom);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(corps.array(), 8, taille);
+        corps.putInt(0, taille).putInt(4, (int) crc.getValue());
+
+        Demande demande = new Demande(sequence, corps.array(), new CompletableFuture<>());
+        try {
+            demandes.put(demande);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Journalisation interrompue", e);
+        }
+        return demande.acquittement();
+    }
+
+    private static void attendre(CompletableFuture<Void> acquittement) throws IOException {
+        try {
+            acquittement.join();
+        } catch (CompletionException e) {
+            throw new IOException("Échec de l'écriture du journal", e.getCause());
+        }
+    }
+
+    /**
+     * Fil d'écriture : regroupe les demandes disponibles, les écrit, puis synchronise une seule fois.
+     */
+    private void boucleEcriture() {
+        List<Demande> lot = new ArrayList<>(TAILLE_LOT_MAX);
+        while (true) {
+            Demande premiere;
+            try {
+                premiere = demandes.poll(50, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                premiere = null;
+            }
+            if (premiere == null) {
+                if (ferme) {
+                    break;
+                }
+                continue;
+            }
+            lot.add(premiere);
+            demandes.drainTo(lot, TAILLE_LOT_MAX - 1);
+
+            int taille = 0;
+            for (Demande d : lot) {
+                taille += d.enregistrement().length;
+            }
+            ByteBuffer tampon = ByteBuffer.allocate(taille);
+            for (Demande d : lot) {
+                tampon.put(d.enregistrement());
+            }
+            tampon.flip();
+
+            try {
+                synchronized (canal) {
+                    while (tampon.hasRemaining()) {
+                        canal.write(tampon);
+                    }
+                    canal.force(false);
+                }
+                for (Demande d : lot) {
+                    sequenceEcrite = Math.max(sequenceEcrite, d.numero());
+                    d.acquittement().complete(null);
+                }
+            } catch (IOException e) {
+                for (Demande d : lot) {
+                    d.acquittement().completeExceptionally(e);
+                }
+            }
+            lot.clear();
+        }
+    }
+
+    private long chargerInstantane(ParticipationService participationService) throws IOException {
+        if (!Files.exists(cheminInstantane)) {
+            return 0;
+        }
+        long numero = 0;
+        List<Participation> participations = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(cheminInstantane, StandardCharsets.UTF_8)) {
+            String ligne = br.readLine();
+            if (ligne != null && ligne.startsWith(ENTETE_INSTANTANE)) {
+                numero = Long.parseLong(ligne.substring(ENTETE_INSTANTANE.length()).trim());
+            }
+            while ((ligne = br.readLine()) != null) {
+                String[] parties = ligne.split("\t");
+                if (parties.length < 3) {
+                    continue;
+                }
+                Entite proprietaire = participationService.getEntiteParNom(FormatEvenement.desechapper(parties[0]));
+                Entite cible = participationService.getEntiteParNom(FormatEvenement.desechapper(parties[1]));
+                if (proprietaire == null || cible == null) {
+                    System.err.println("Participation de l'instantané ignorée (entité inconnue) : " + ligne);
+                    continue;
+                }
+                participations.add(new Participation(proprietaire, cible, Double.parseDouble(parties[2])));
+            }
+        }
+        participationService.restaurerParticipations(participations);
+        return numero;
+    }
+
+    private static boolean rejouer(ByteBuffer corps, ParticipationService participationService) {
+        byte type = corps.get();
+        double pourcentage = corps.getDouble();
+        double seconde = type == RETABLISSEMENT ? corps.getDouble() : 0;
+        List<Entite> entites = new ArrayList<>(3);
+        while (corps.hasRemaining()) {
+            byte[] nom = new byte[corps.getShort() & 0xFFFF];
+            corps.get(nom);
+            Entite entite = participationService.getEntiteParNom(new String(nom, StandardCharsets.UTF_8));
+            if (entite == null) {
+                System.err.println("Mutation du journal ignorée (entité inconnue) : " + new String(nom, StandardCharsets.UTF_8));
+                return false;
+            }
+            entites.add(entite);
+        }
+        if (type == AJOUT && entites.size() == 2) {
+            participationService.ajouterParticipation(entites.get(0), entites.get(1), pourcentage);
+            return true;
+        }
+        if (type == TRANSFERT && entites.size() == 3) {
+            return participationService.transfererParts(entites.get(0), entites.get(1), entites.get(2), pourcentage);
+        }
+        if (type == RETABLISSEMENT && entites.size() == 3) {
+            return participationService.retablirParts(entites.get(0), entites.get(1), entites.get(2),
+                    (int) pourcentage, (int) seconde);
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            ferme = true;
+        }
+        try {
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+    }
+}
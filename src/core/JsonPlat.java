@@ -0,0 +1,233 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecteur et écrivain JSON minimal, suffisant pour les événements échangés avec l'extérieur
+ * (objets, tableaux, chaînes, nombres, booléens et null).
+ * Les objets sont lus sous forme de {@link Map}, les tableaux sous forme de {@link List}
+ * et les nombres sous forme de {@link Double}.
+ */
+public final class JsonPlat {
+    private final String texte;
+    private int pos;
+
+    private JsonPlat(String texte) {
+        this.texte = texte;
+    }
+
+    /**
+     * Analyse un objet JSON.
+     *
+     * @param texte texte JSON contenant un objet
+     * @return les champs de l'objet, dans l'ordre du texte
+     * @throws IllegalArgumentException si le texte n'est pas un objet JSON valide
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> lireObjet(String texte) {
+        JsonPlat lecteur = new JsonPlat(texte);
+        lecteur.espaces();
+        if (lecteur.courant() != '{') {
+            throw lecteur.erreur("objet attendu");
+        }
+        Object valeur = lecteur.valeur();
+        lecteur.espaces();
+        if (lecteur.pos != texte.length()) {
+            throw lecteur.erreur("caractères inattendus après l'objet");
+        }
+        return (Map<String, Object>) valeur;
+    }
+
+    /**
+     * Écrit une chaîne au format JSON (guillemets compris).
+     *
+     * @param s chaîne à écrire
+     * @return la chaîne échappée
+     */
+    public static String chaine(String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private Object valeur() {
+        espaces();
+        char c = courant();
+        switch (c) {
+            case '{' -> {
+                pos++;
+                Map<String, Object> objet = new LinkedHashMap<>();
+                espaces();
+                if (courant() == '}') {
+                    pos++;
+                    return objet;
+                }
+                while (true) {
+                    espaces();
+                    if (courant() != '"') {
+                        throw erreur("nom de champ attendu");
+                    }
+                    String cle = chaineLue();
+                    espaces();
+                    attendre(':');
+                    objet.put(cle, valeur());
+                    espaces();
+                    if (courant() == ',') {
+                        pos++;
+                    } else {
+                        attendre('}');
+                        return objet;
+                    }
+                }
+            }
+            case '[' -> {
+                pos++;
+                List<Object> tableau = new ArrayList<>();
+                espaces();
+                if (courant() == ']') {
+                    pos++;
+                    return tableau;
+                }
+                while (true) {
+                    tableau.add(valeur());
+                    espaces();
+                    if (courant() == ',') {
+                        pos++;
+                    } else {
+                        attendre(']');
+                        return tableau;
+                    }
+                }
+            }
+            case '"' -> {
+                return chaineLue();
+            }
+            case 't' -> {
+                motCle("true");
+                return Boolean.TRUE;
+            }
+            case 'f' -> {
+                motCle("false");
+                return Boolean.FALSE;
+            }
+            case 'n' -> {
+                motCle("null");
+                return null;
+            }
+            default -> {
+                return nombre();
+            }
+        }
+    }
+
+    private String chaineLue() {
+        pos++; // guillemet ouvrant
+        StringBuilder sb = null;
+        int debut = pos;
+        while (pos < texte.length()) {
+            char c = texte.charAt(pos);
+            if (c == '"') {
+                String s = sb == null ? texte.substring(debut, pos) : sb.append(texte, debut, pos).toString();
+                pos++;
+                return s;
+            }
+            if (c == '\\') {
+                if (sb == null) {
+                    sb = new StringBuilder();
+                }
+                sb.append(texte, debut, pos);
+                if (++pos >= texte.length()) {
+                    break;
+                }
+                char e = texte.charAt(pos++);
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > texte.length()) {
+                            throw erreur("séquence unicode incomplète");
+                        }
+                        sb.append((char) Integer.parseInt(texte.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(e);
+                }
+                debut = pos;
+            } else {
+                pos++;
+            }
+        }
+        throw erreur("chaîne non terminée");
+    }
+
+    private Double nombre() {
+        int debut = pos;
+        while (pos < texte.length() && "+-0123456789.eE".indexOf(texte.charAt(pos)) >= 0) {
+            pos++;
+        }
+        if (debut == pos) {
+            throw erreur("valeur attendue");
+        }
+        try {
+            return Double.valueOf(texte.substring(debut, pos));
+        } catch (NumberFormatException e) {
+            throw erreur("nombre invalide");
+        }
+    }
+
+    private void motCle(String mot) {
+        if (!texte.startsWith(mot, pos)) {
+            throw erreur("valeur attendue");
+        }
+        pos += mot.length();
+    }
+
+    private void attendre(char c) {
+        if (courant() != c) {
+            throw erreur("'" + c + "' attendu");
+        }
+        pos++;
+    }
+
+    private char courant() {
+        if (pos >= texte.length()) {
+            throw erreur("fin de texte inattendue");
+        }
+        return texte.charAt(pos);
+    }
+
+    private void espaces() {
+        while (pos < texte.length() && Character.isWhitespace(texte.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException erreur(String message) {
+        return new IllegalArgumentException("JSON invalide (position " + pos + ") : " + message);
+    }
+}
@@ -0,0 +1,339 @@
+package core;
+
+import model.Entite;
+import model.Publication;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reconnaissance des entités citées dans un texte, construite une fois à partir de tous les noms connus
+ * (personnes, organisations, médias).
+ * <p>
+ * Les noms sont compilés dans un automate d'Aho–Corasick : le texte est parcouru une seule fois,
+ * quel que soit le nombre de noms. Texte et noms sont « pliés » de la même façon : minuscules,
+ * accents retirés, et toute suite de caractères autres que lettres et chiffres réduite à un séparateur.
+ * Un nom n'est reconnu que s'il commence et finit sur une limite de mot ; lorsque plusieurs noms se
+ * chevauchent, le plus long l'emporte (« Le Monde libre » plutôt que « Le Monde »).
+ * <p>
+ * Les transitions sont rangées dans une table de hachage à adressage ouvert indexée par
+ * (état, caractère), sauf celles de la racine, dans un tableau direct.
+ */
+public class LiaisonEntites {
+    private static final int LONGUEUR_MIN = 3; // les noms plus courts produiraient trop de faux positifs
+    private static final char SEPARATEUR = ' ';
+    private static final char[] PLIAGE = new char[0x250]; // latin de base, latin-1 et latin étendu A/B
+
+    static {
+        for (char c = 0; c < PLIAGE.length; c++) {
+            if (!Character.isLetterOrDigit(c)) {
+                PLIAGE[c] = SEPARATEUR;
+                continue;
+            }
+            String base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            PLIAGE[c] = Character.toLowerCase(base.charAt(0));
+        }
+    }
+
+    // Trie : frères chaînés pour le parcours en largeur, table de hachage pour les transitions
+    private int nombreEtats = 1;
+    private char[] caractere = new char[1024];
+    private int[] premierEnfant = new int[1024];
+    private int[] frereSuivant = new int[1024];
+    private int[] profondeur = new int[1024];
+    private int[] motif = new int[1024];            // index du nom reconnu dans cet état, -1 sinon
+    private int[] echec;
+    private int[] sortieSuivante;                   // état suivant de la chaîne d'échec qui reconnaît un nom
+    private final int[] racine = new int[Character.MAX_VALUE + 1];
+
+    private long[] clesTransitions = new long[2048];
+    private int[] etatsTransitions = new int[2048];
+    private int nombreTransitions;
+
+    private final Entite[][] entitesParMotif;
+    private final ThreadLocal<Travail> travail = ThreadLocal.withInitial(Travail::new);
+
+    /**
+     * Tampons réutilisés par un fil pour le texte plié et les correspondances trouvées.
+     */
+    private static final class Travail {
+        char[] texte = new char[256];
+        /** Fin de la plus longue correspondance commençant à chaque position, -1 si aucune. */
+        int[] finParDebut = nouvellesFins(256);
+        /** Motif de cette correspondance. */
+        int[] motifParDebut = new int[256];
+    }
+
+    private static int[] nouvellesFins(int taille) {
+        int[] fins = new int[taille];
+        Arrays.fill(fins, -1);
+        return fins;
+    }
+
+    /**
+     * Construit l'automate à partir des entités connues.
+     *
+     * @param entites entités dont les noms doivent être reconnus
+     */
+    public LiaisonEntites(Collection<Entite> entites) {
+        Arrays.fill(motif, -1);
+        List<List<Entite>> parMotif = new ArrayList<>();
+        Travail t = new Travail();
+        for (Entite entite : entites) {
+            int longueur = plier(entite.getNom(), t);
+            if (longueur < LONGUEUR_MIN) {
+                continue;
+            }
+            int etat = inserer(t.texte, longueur);
+            if (motif[etat] < 0) {
+                motif[etat] = parMotif.size();
+                parMotif.add(new ArrayList<>(1));
+            }
+            parMotif.get(motif[etat]).add(entite);
+        }
+        entitesParMotif = new Entite[parMotif.size()][];
+        for (int i = 0; i < entitesParMotif.length; i++) {
+            entitesParMotif[i] = parMotif.get(i).toArray(new Entite[0]);
+        }
+        construireEchecs();
+    }
+
+    /**
+     * Retourne les entités citées dans un texte, dans l'ordre de leur première apparition.
+     *
+     * @param texte texte à analyser
+     * @return entités reconnues (sans doublon)
+     */
+    public Set<Entite> reconnaitre(String texte) {
+        Set<Entite> resultat = new LinkedHashSet<>();
+        if (texte == null || entitesParMotif.length == 0) {
+            return resultat;
+        }
+        Travail t = travail.get();
+        int n = plier(texte, t);
+        char[] plie = t.texte;
+
+        // Parcours de l'automate : correspondances candidates, bornées par des limites de mot.
+        // Elles sortent par fin croissante : la dernière vue pour un début donné est la plus longue.
+        int etat = 0;
+        for (int i = 0; i < n; i++) {
+            etat = suivant(etat, plie[i]);
+            boolean finDeMot = i + 1 == n || plie[i + 1] == SEPARATEUR;
+            if (!finDeMot) {
+                continue;
+            }
+            for (int s = motif[etat] >= 0 ? etat : sortieSuivante[etat]; s > 0; s = sortieSuivante[s]) {
+                int debut = i - profondeur[s] + 1;
+                if (debut == 0 || plie[debut - 1] == SEPARATEUR) {
+                    t.finParDebut[debut] = i;
+                    t.motifParDebut[debut] = motif[s];
+                }
+            }
+        }
+
+        // Sélection de gauche à droite, la plus longue correspondance l'emportant en cas de chevauchement,
+        // en un seul passage qui remet aussi le tampon à zéro pour l'appel suivant
+        int finRetenue = -1;
+        for (int debut = 0; debut < n; debut++) {
+            int fin = t.finParDebut[debut];
+            if (fin < 0) {
+                continue;
+            }
+            if (debut > finRetenue) {
+                resultat.addAll(Arrays.asList(entitesParMotif[t.motifParDebut[debut]]));
+                finRetenue = fin;
+            }
+            t.finParDebut[debut] = -1;
+        }
+        return resultat;
+    }
+
+    /**
+     * Complète les mentions d'une publication avec les entités citées dans son contenu.
+     *
+     * @param publication publication à compléter
+     * @return la publication, ou une copie dont les mentions incluent les entités reconnues
+     */
+    public Publication completer(Publication publication) {
+        Set<Entite> reconnues = reconnaitre(publication.contenu());
+        if (publication.mentions().containsAll(reconnues)) {
+            return publication;
+        }
+        Set<Entite> mentions = new LinkedHashSet<>(publication.mentions());
+        mentions.addAll(reconnues);
+        return new Publication(publication.date(), publication.source(), publication.corps(),
+                publication.typePublication(), new ArrayList<>(mentions));
+    }
+
+    /**
+     * @return nombre de noms distincts reconnus par l'automate
+     */
+    public int taille() {
+        return entitesParMotif.length;
+    }
+
+    /**
+     * Plie le texte dans le tampon du fil : minuscules sans accents, séparateurs réduits à une espace.
+     *
+     * @return longueur du texte plié, sans séparateur au début ni à la fin
+     */
+    private static int plier(String texte, Travail t) {
+        if (t.texte.length < texte.length()) {
+            int taille = Math.max(texte.length(), t.texte.length * 2);
+            t.texte = new char[taille];
+            t.finParDebut = nouvellesFins(taille);
+            t.motifParDebut = new int[taille];
+        }
+        char[] sortie = t.texte;
+        int n = 0;
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            char p;
+            if (c < PLIAGE.length) {
+                p = PLIAGE[c];
+            } else if (Character.isLetterOrDigit(c)) {
+                p = Character.toLowerCase(c);
+            } else if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // accent d'un texte déjà décomposé
+            } else {
+                p = SEPARATEUR;
+            }
+            if (p == SEPARATEUR && (n == 0 || sortie[n - 1] == SEPARATEUR)) {
+                continue;
+            }
+            sortie[n++] = p;
+        }
+        if (n > 0 && sortie[n - 1] == SEPARATEUR) {
+            n--;
+        }
+        return n;
+    }
+
+    private int inserer(char[] nom, int longueur) {
+        int etat = 0;
+        for (int i = 0; i < longueur; i++) {
+            int enfant = transition(etat, nom[i]);
+            if (enfant < 0) {
+                enfant = nouvelEtat(etat, nom[i], i + 1);
+            }
+            etat = enfant;
+        }
+        return etat;
+    }
+
+    private int nouvelEtat(int parent, char c, int prof) {
+        if (nombreEtats == caractere.length) {
+            int n = nombreEtats * 2;
+            caractere = Arrays.copyOf(caractere, n);
+            premierEnfant = Arrays.copyOf(premierEnfant, n);
+            frereSuivant = Arrays.copyOf(frereSuivant, n);
+            profondeur = Arrays.copyOf(profondeur, n);
+            motif = Arrays.copyOf(motif, n);
+            Arrays.fill(motif, nombreEtats, n, -1);
+        }
+        int etat = nombreEtats++;
+        caractere[etat] = c;
+        profondeur[etat] = prof;
+        frereSuivant[etat] = premierEnfant[parent];
+        premierEnfant[parent] = etat;
+        if (parent == 0) {
+            racine[c] = etat;
+        } else {
+            ajouterTransition(parent, c, etat);
+        }
+        return etat;
+    }
+
+    /**
+     * Calcule les liens d'échec et de sortie par un parcours en largeur du trie.
+     */
+    private void construireEchecs() {
+        echec = new int[nombreEtats];
+        sortieSuivante = new int[nombreEtats];
+        int[] file = new int[nombreEtats];
+        int tete = 0;
+        int queue = 0;
+        for (int e = premierEnfant[0]; e != 0; e = frereSuivant[e]) {
+            file[queue++] = e; // liens d'échec vers la racine (0)
+        }
+        while (tete < queue) {
+            int etat = file[tete++];
+            for (int enfant = premierEnfant[etat]; enfant != 0; enfant = frereSuivant[enfant]) {
+                int f = echec[etat];
+                int cible;
+                while ((cible = transition(f, caractere[enfant])) < 0 && f != 0) {
+                    f = echec[f];
+                }
+                echec[enfant] = cible >= 0 ? cible : 0;
+                int e = echec[enfant];
+                sortieSuivante[enfant] = motif[e] >= 0 ? e : sortieSuivante[e];
+                file[queue++] = enfant;
+            }
+        }
+    }
+
+    private int suivant(int etat, char c) {
+        while (true) {
+            int cible = transition(etat, c);
+            if (cible >= 0) {
+                return cible;
+            }
+            if (etat == 0) {
+                return 0;
+            }
+            etat = echec[etat];
+        }
+    }
+
+    private int transition(int etat, char c) {
+        if (etat == 0) {
+            int r = racine[c];
+            return r == 0 ? -1 : r;
+        }
+        long cle = (long) etat << 16 | c;
+        int masque = clesTransitions.length - 1;
+        for (int i = melanger(cle) & masque; etatsTransitions[i] != 0; i = (i + 1) & masque) {
+            if (clesTransitions[i] == cle) {
+                return etatsTransitions[i];
+            }
+        }
+        return -1;
+    }
+
+    private void ajouterTransition(int etat, char c, int cible) {
+        if ((nombreTransitions + 1) * 2 > clesTransitions.length) {
+            long[] anciennesCles = clesTransitions;
+            int[] anciensEtats = etatsTransitions;
+            clesTransitions = new long[anciennesCles.length * 2];
+            etatsTransitions = new int[anciensEtats.length * 2];
+            nombreTransitions = 0;
+            for (int i = 0; i < anciennesCles.length; i++) {
+                if (anciensEtats[i] != 0) {
+                    inscrire(anciennesCles[i], anciensEtats[i]);
+                }
+            }
+        }
+        inscrire((long) etat << 16 | c, cible);
+    }
+
+    private void inscrire(long cle, int cible) {
+        int masque = clesTransitions.length - 1;
+        int i = melanger(cle) & masque;
+        while (etatsTransitions[i] != 0) {
+            i = (i + 1) & masque;
+        }
+        clesTransitions[i] = cle;
+        etatsTransitions[i] = cible;
+        nombreTransitions++;
+    }
+
+    private static int melanger(long cle) {
+        cle *= 0x9E3779B97F4A7C15L;
+        return (int) (cle ^ (cle >>> 32));
+    }
+}
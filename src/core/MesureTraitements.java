@@ -0,0 +1,55 @@
+package core;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de durée d'un traitement répété (par exemple les appels à un module spécialisé).
+ * Les compteurs sont répartis par cellules ({@link LongAdder}) : l'enregistrement ne crée pas de
+ * contention entre threads, seule la lecture additionne les cellules.
+ */
+public final class MesureTraitements {
+    private final LongAdder nombre = new LongAdder();
+    private final LongAdder dureeTotale = new LongAdder();
+    private final LongAccumulator dureeMax = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Enregistre un traitement.
+     *
+     * @param dureeNanos durée du traitement, en nanosecondes
+     */
+    public void enregistrer(long dureeNanos) {
+        nombre.increment();
+        dureeTotale.add(dureeNanos);
+        dureeMax.accumulate(dureeNanos);
+    }
+
+    /**
+     * @return nombre de traitements enregistrés
+     */
+    public long getNombre() {
+        return nombre.sum();
+    }
+
+    /**
+     * @return durée totale des traitements, en nanosecondes
+     */
+    public long getDureeTotaleNanos() {
+        return dureeTotale.sum();
+    }
+
+    /**
+     * @return durée moyenne d'un traitement, en nanosecondes (0 si aucun)
+     */
+    public double getDureeMoyenneNanos() {
+        long n = nombre.sum();
+        return n == 0 ? 0 : (double) dureeTotale.sum() / n;
+    }
+
+    /**
+     * @return durée du traitement le plus long, en nanosecondes
+     */
+    public long getDureeMaxNanos() {
+        return dureeMax.get();
+    }
+}
@@ -0,0 +1,263 @@
+package core;
+
+import model.TypeEvenement;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expose les métriques d'exécution du moteur sous forme de MXBeans, consultables avec JConsole,
+ * VisualVM ou tout client JMX, dans le domaine {@value #DOMAINE} :
+ * <ul>
+ *     <li>{@code vigie:type=Evenements} : événements diffusés par type ;</li>
+ *     <li>{@code vigie:type=Modules} : traitements, durées et alertes retenues par module ;</li>
+ *     <li>{@code vigie:type=Participations} : taille du graphe et bilan de la dernière importation ;</li>
+ *     <li>{@code vigie:type=Files} : files d'attente et retards (boîte d'envoi, journal, digest, flux, archive).</li>
+ * </ul>
+ * Les compteurs sont tenus par les composants eux-mêmes ({@link SystemeEvenementiel}, {@link Vigie},
+ * {@link DataImport}) ; les MXBeans ne font que les lire, à la demande du client JMX.
+ */
+public final class MetriquesJmx implements AutoCloseable {
+    /**
+     * Domaine JMX des MXBeans.
+     */
+    public static final String DOMAINE = "vigie";
+
+    /**
+     * Événements diffusés par le système.
+     */
+    public interface EvenementsMXBean {
+        Map<String, Long> getDiffusesParType();
+
+        long getTotalDiffuses();
+    }
+
+    /**
+     * Activité des modules spécialisés, par implémentation.
+     */
+    public interface ModulesMXBean {
+        Map<String, Long> getTraitements();
+
+        Map<String, Double> getLatenceMoyenneMicros();
+
+        Map<String, Double> getLatenceMaxMicros();
+
+        Map<String, Long> getAlertesRetenues();
+    }
+
+    /**
+     * Graphe des participations et dernière importation.
+     */
+    public interface ParticipationsMXBean {
+        int getNombreParticipations();
+
+        int getNombreEntites();
+
+        long getDureeDerniereImportationMillis();
+
+        int getLignesImportees();
+
+        int getErreursImportation();
+    }
+
+    /**
+     * Profondeur des files d'attente ; -1 lorsque le composant n'est pas branché.
+     */
+    public interface FilesMXBean {
+        int getOutboxEnAttente();
+
+        int getJournalEnAttente();
+
+        int getDigestEnAttente();
+
+        int getFluxEvenementsRetardMax();
+
+        long getFluxEvenementsPerdus();
+
+        int getFluxAlertesRetardMax();
+
+        long getFluxAlertesPerdus();
+
+        long getArchiveAlertes();
+    }
+
+    private final SystemeEvenementiel systeme;
+    private final Vigie vigie;
+    private final ParticipationService participationService;
+    private final DataImport dataImport;
+    private final List<ObjectName> noms = new ArrayList<>();
+
+    /**
+     * @param systeme              système de diffusion des événements
+     * @param vigie                vigie recevant les alertes
+     * @param participationService service des participations
+     * @param dataImport           importation dont le bilan est exposé, ou null
+     */
+    public MetriquesJmx(SystemeEvenementiel systeme, Vigie vigie, ParticipationService participationService,
+                        DataImport dataImport) {
+        this.systeme = systeme;
+        this.vigie = vigie;
+        this.participationService = participationService;
+        this.dataImport = dataImport;
+    }
+
+    /**
+     * Enregistre les MXBeans auprès du serveur de la plateforme.
+     *
+     * @throws JMException si un MXBean du même nom est déjà enregistré
+     */
+    public void enregistrer() throws JMException {
+        enregistrer("Evenements", new Evenements());
+        enregistrer("Modules", new Modules());
+        enregistrer("Participations", new Participations());
+        enregistrer("Files", new FilesAttente());
+    }
+
+    private void enregistrer(String type, Object mxbean) throws JMException {
+        ObjectName nom = new ObjectName(DOMAINE, "type", type);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(mxbean, nom);
+        noms.add(nom);
+    }
+
+    /**
+     * Retire les MXBeans enregistrés.
+     */
+    @Override
+    public void close() {
+        MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName nom : noms) {
+            try {
+                serveur.unregisterMBean(nom);
+            } catch (JMException e) {
+                System.err.println("Impossible de retirer le MXBean " + nom + " : " + e.getMessage());
+            }
+        }
+        noms.clear();
+    }
+
+    private final class Evenements implements EvenementsMXBean {
+        @Override
+        public Map<String, Long> getDiffusesParType() {
+            Map<String, Long> compteurs = new LinkedHashMap<>();
+            for (TypeEvenement type : TypeEvenement.values()) {
+                compteurs.put(type.getNom(), systeme.getNombreDiffuses(type));
+            }
+            return compteurs;
+        }
+
+        @Override
+        public long getTotalDiffuses() {
+            long total = 0;
+            for (TypeEvenement type : TypeEvenement.values()) {
+                total += systeme.getNombreDiffuses(type);
+            }
+            return total;
+        }
+    }
+
+    private final class Modules implements ModulesMXBean {
+        @Override
+        public Map<String, Long> getTraitements() {
+            Map<String, Long> valeurs = new LinkedHashMap<>();
+            systeme.getMesuresParModule().forEach((module, mesure) -> valeurs.put(module, mesure.getNombre()));
+            return valeurs;
+        }
+
+        @Override
+        public Map<String, Double> getLatenceMoyenneMicros() {
+            Map<String, Double> valeurs = new LinkedHashMap<>();
+            systeme.getMesuresParModule().forEach((module, mesure) -> valeurs.put(module, mesure.getDureeMoyenneNanos() / 1e3));
+            return valeurs;
+        }
+
+        @Override
+        public Map<String, Double> getLatenceMaxMicros() {
+            Map<String, Double> valeurs = new LinkedHashMap<>();
+            systeme.getMesuresParModule().forEach((module, mesure) -> valeurs.put(module, mesure.getDureeMaxNanos() / 1e3));
+            return valeurs;
+        }
+
+        @Override
+        public Map<String, Long> getAlertesRetenues() {
+            return vigie.getAlertesParModule();
+        }
+    }
+
+    private final class Participations implements ParticipationsMXBean {
+        @Override
+        public int getNombreParticipations() {
+            return participationService.getParticipations().size();
+        }
+
+        @Override
+        public int getNombreEntites() {
+            return participationService.getEntites().size();
+        }
+
+        @Override
+        public long getDureeDerniereImportationMillis() {
+            return dataImport == null ? -1 : dataImport.getDureeImportationMillis();
+        }
+
+        @Override
+        public int getLignesImportees() {
+            return dataImport == null ? -1 : dataImport.getLignesLues();
+        }
+
+        @Override
+        public int getErreursImportation() {
+            return dataImport == null ? -1 : dataImport.getErreurs().size();
+        }
+    }
+
+    private final class FilesAttente implements FilesMXBean {
+        @Override
+        public int getOutboxEnAttente() {
+            Outbox outbox = systeme.getOutbox();
+            return outbox == null ? -1 : outbox.getNombreEnAttente();
+        }
+
+        @Override
+        public int getJournalEnAttente() {
+            JournalMutations journal = participationService.getJournal();
+            return journal == null ? -1 : journal.getNombreEnAttente();
+        }
+
+        @Override
+        public int getDigestEnAttente() {
+            return vigie.isDigestActif() ? vigie.getNombreAlertesEnAttente() : -1;
+        }
+
+        @Override
+        public int getFluxEvenementsRetardMax() {
+            return systeme.getDiffuseurEvenements().getRetardMax();
+        }
+
+        @Override
+        public long getFluxEvenementsPerdus() {
+            return systeme.getDiffuseurEvenements().getPerdus();
+        }
+
+        @Override
+        public int getFluxAlertesRetardMax() {
+            return vigie.getDiffuseurAlertes().getRetardMax();
+        }
+
+        @Override
+        public long getFluxAlertesPerdus() {
+            return vigie.getDiffuseurAlertes().getPerdus();
+        }
+
+        @Override
+        public long getArchiveAlertes() {
+            ArchiveAlertes archive = vigie.getArchive();
+            return archive == null ? -1 : archive.getNombreAlertes();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package core;
 
 import model.Evenement;
 
+import java.util.List;
+
 /**
  * Interface pour les modules spécialisés qui observent certains types d'événements.
  * Chaque module décide s'il est concerné par un événement et peut déclencher une alerte à la Vigie.
@@ -11,10 +13,21 @@ import model.Evenement;
 public interface ModuleSpecialise {
 
     /**
-     * Méthode appelée lorsqu'un événement est diffusé dans le système.
+     * Méthode appelée lorsqu'un événement d'un type auquel le module est abonné est diffusé.
      * Le module vérifie s'il est concerné, et peut envoyer une alerte à la Vigie.
      *
      * @param evenement l'événement à traiter
      */
     void traiter(Evenement evenement);
+
+    /**
+     * Règles d'abonnement du module, compilées par le {@link SystemeEvenementiel} :
+     * le module n'est appelé que pour les événements satisfaisant au moins une de ses règles.
+     * Un module sans règle reçoit tous les événements des types auxquels il est abonné.
+     *
+     * @return règles du module (vide par défaut)
+     */
+    default List<Regle> regles() {
+        return List.of();
+    }
 }
@@ -0,0 +1,47 @@
+package core;
+
+/**
+ * Normalisation des noms d'entités, commune à toutes les tables indexées par nom
+ * ({@link TableNoms}, {@link ParticipationService#getEntiteParNom}, {@link ArchiveAlertes}).
+ * <p>
+ * Les blancs de tête et de fin (caractères inférieurs ou égaux à l'espace, comme {@link String#trim()})
+ * sont retirés et chaque caractère est passé en minuscule par {@link Character#toLowerCase(char)}.
+ * La conversion se fait caractère par caractère, sans dépendre de la langue par défaut : un nom
+ * normalisé a la longueur du nom d'origine, ce qui permet à {@link TableNoms} de comparer une zone
+ * de texte sans allouer de chaîne et d'obtenir exactement les mêmes clés que {@link #normaliser}.
+ */
+public final class NomsEntites {
+
+    private NomsEntites() {
+    }
+
+    /**
+     * @param c caractère d'un nom
+     * @return le caractère normalisé
+     */
+    public static char minuscule(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Normalise un nom d'entité.
+     *
+     * @param nom nom à normaliser
+     * @return clé du nom : sans blancs de bord, en minuscules
+     */
+    public static String normaliser(CharSequence nom) {
+        int debut = 0;
+        int fin = nom.length();
+        while (debut < fin && nom.charAt(debut) <= ' ') {
+            debut++;
+        }
+        while (fin > debut && nom.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        char[] cle = new char[fin - debut];
+        for (int k = 0; k < cle.length; k++) {
+            cle[k] = minuscule(nom.charAt(debut + k));
+        }
+        return new String(cle);
+    }
+}
@@ -0,0 +1,237 @@
+package core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boîte d'envoi persistante (« outbox ») des événements validés.
+ * Un événement y est inscrit au moment où la mutation qu'il décrit est validée,
+ * puis marqué comme diffusé une fois transmis aux modules.
+ * Après un arrêt brutal, les événements restés en attente peuvent être rediffusés.
+ * <p>
+ * Une mutation peut aussi être encadrée : l'événement est d'abord préparé, avant la mutation,
+ * puis validé (il passe en attente de diffusion) ou annulé. Une entrée préparée mais ni validée
+ * ni annulée lors d'un arrêt brutal reste en suspens : c'est à l'appelant de déterminer, au redémarrage,
+ * si la mutation a été appliquée.
+ *
+ * Chaque ligne du fichier est de la forme {@code id  PREPARE  événement}, {@code id  EN_ATTENTE  événement},
+ * {@code id  ANNULE} ou {@code id  DIFFUSE}.
+ */
+public class Outbox implements AutoCloseable {
+    private static final String PREPARE = "PREPARE";
+    private static final String EN_ATTENTE = "EN_ATTENTE";
+    private static final String ANNULE = "ANNULE";
+    private static final String DIFFUSE = "DIFFUSE";
+
+    private final Path chemin;
+    private FileChannel canal;
+    private long dernierIdentifiant;
+    private int enAttente;
+
+    /**
+     * Ouvre (ou crée) la boîte d'envoi à l'emplacement donné.
+     *
+     * @param chemin chemin du fichier de la boîte d'envoi
+     * @throws IOException si le fichier ne peut pas être ouvert
+     */
+    public Outbox(Path chemin) throws IOException {
+        this.chemin = chemin;
+        if (chemin.getParent() != null) {
+            Files.createDirectories(chemin.getParent());
+        }
+        Map<Long, String> attente = new LinkedHashMap<>();
+        lire(new LinkedHashMap<>(), attente);
+        this.enAttente = attente.size();
+        this.canal = FileChannel.open(chemin, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Inscrit durablement un événement à diffuser.
+     *
+     * @param ligneEvenement événement sérialisé par {@link FormatEvenement}
+     * @return l'identifiant attribué à l'entrée
+     * @throws IOException si l'écriture échoue
+     */
+    public synchronized long enregistrer(String ligneEvenement) throws IOException {
+        long id = ++dernierIdentifiant;
+        ecrire(id + "\t" + EN_ATTENTE + "\t" + ligneEvenement + "\n");
+        enAttente++;
+        return id;
+    }
+
+    /**
+     * Inscrit durablement un événement dont la mutation n'est pas encore appliquée.
+     *
+     * @param ligneEvenement événement sérialisé par {@link FormatEvenement}
+     * @return l'identifiant attribué à l'entrée
+     * @throws IOException si l'écriture échoue
+     */
+    public synchronized long preparer(String ligneEvenement) throws IOException {
+        long id = ++dernierIdentifiant;
+        ecrire(id + "\t" + PREPARE + "\t" + ligneEvenement + "\n");
+        return id;
+    }
+
+    /**
+     * Valide une entrée préparée : sa mutation est appliquée, l'événement passe en attente de diffusion.
+     *
+     * @param id             identifiant retourné par {@link #preparer(String)}
+     * @param ligneEvenement événement à diffuser, qui remplace l'événement préparé
+     * @throws IOException si l'écriture échoue
+     */
+    public synchronized void valider(long id, String ligneEvenement) throws IOException {
+        ecrire(id + "\t" + EN_ATTENTE + "\t" + ligneEvenement + "\n");
+        enAttente++;
+    }
+
+    /**
+     * Annule une entrée préparée dont la mutation n'a pas été appliquée.
+     *
+     * @param id identifiant retourné par {@link #preparer(String)}
+     * @throws IOException si l'écriture échoue
+     */
+    public synchronized void annuler(long id) throws IOException {
+        ecrire(id + "\t" + ANNULE + "\n");
+    }
+
+    /**
+     * Marque une entrée comme diffusée.
+     *
+     * @param id identifiant retourné par {@link #enregistrer(String)}
+     */
+    public synchronized void marquerDiffuse(long id) {
+        try {
+            ecrire(id + "\t" + DIFFUSE + "\n");
+            enAttente--;
+        } catch (IOException e) {
+            System.err.println("Impossible de marquer l'entrée " + id + " comme diffusée : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retourne les événements inscrits mais jamais marqués comme diffusés, dans l'ordre d'inscription.
+     *
+     * @return map identifiant → événement sérialisé
+     */
+    public synchronized Map<Long, String> getEnAttente() {
+        Map<Long, String> attente = new LinkedHashMap<>();
+        try {
+            lire(new LinkedHashMap<>(), attente);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la lecture de la boîte d'envoi : " + e.getMessage());
+        }
+        return attente;
+    }
+
+    /**
+     * Retourne les événements préparés mais ni validés ni annulés, dans l'ordre d'inscription.
+     *
+     * @return map identifiant → événement préparé
+     */
+    public synchronized Map<Long, String> getEnSuspens() {
+        Map<Long, String> suspens = new LinkedHashMap<>();
+        try {
+            lire(suspens, new LinkedHashMap<>());
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la lecture de la boîte d'envoi : " + e.getMessage());
+        }
+        return suspens;
+    }
+
+    /**
+     * @return nombre d'événements inscrits et pas encore diffusés
+     */
+    public synchronized int getNombreEnAttente() {
+        return enAttente;
+    }
+
+    /**
+     * Réécrit le fichier en ne conservant que les entrées en suspens ou encore en attente.
+     */
+    public synchronized void compacter() {
+        try {
+            Map<Long, String> suspens = new LinkedHashMap<>();
+            Map<Long, String> attente = new LinkedHashMap<>();
+            lire(suspens, attente);
+            List<String> lignes = new ArrayList<>();
+            for (Map.Entry<Long, String> entree : suspens.entrySet()) {
+                lignes.add(entree.getKey() + "\t" + PREPARE + "\t" + entree.getValue());
+            }
+            for (Map.Entry<Long, String> entree : attente.entrySet()) {
+                lignes.add(entree.getKey() + "\t" + EN_ATTENTE + "\t" + entree.getValue());
+            }
+            Path temporaire = chemin.resolveSibling(chemin.getFileName() + ".tmp");
+            Files.write(temporaire, lignes, StandardCharsets.UTF_8);
+            canal.close();
+            Files.move(temporaire, chemin, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            canal = FileChannel.open(chemin, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Erreur lors du compactage de la boîte d'envoi : " + e.getMessage());
+        }
+    }
+
+    private void ecrire(String ligne) throws IOException {
+        ByteBuffer tampon = ByteBuffer.wrap(ligne.getBytes(StandardCharsets.UTF_8));
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        canal.force(false);
+    }
+
+    private void lire(Map<Long, String> suspens, Map<Long, String> attente) throws IOException {
+        if (!Files.exists(chemin)) {
+            return;
+        }
+        try (BufferedReader br = Files.newBufferedReader(chemin, StandardCharsets.UTF_8)) {
+            String ligne;
+            while ((ligne = br.readLine()) != null) {
+                String[] parties = ligne.split("\t", 3);
+                if (parties.length < 2) {
+                    continue; // ligne tronquée par un arrêt brutal
+                }
+                long id;
+                try {
+                    id = Long.parseLong(parties[0]);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                dernierIdentifiant = Math.max(dernierIdentifiant, id);
+                switch (parties[1]) {
+                    case PREPARE -> {
+                        if (parties.length == 3) {
+                            suspens.put(id, parties[2]);
+                        }
+                    }
+                    case EN_ATTENTE -> {
+                        if (parties.length == 3) {
+                            suspens.remove(id);
+                            attente.put(id, parties[2]);
+                        }
+                    }
+                    case ANNULE -> suspens.remove(id);
+                    case DIFFUSE -> attente.remove(id);
+                    default -> {
+                        // ligne tronquée par un arrêt brutal
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,56 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Page d'une liste parcourue par curseur.
+ * Le curseur est opaque pour l'appelant : il suffit de le rendre pour obtenir la page suivante.
+ * Lire une page ne coûte que la recherche du curseur dans une vue triée et la copie de la page,
+ * quelle que soit la taille de la liste.
+ *
+ * @param elements       éléments de la page
+ * @param curseurSuivant curseur de la page suivante, ou null s'il s'agit de la dernière
+ * @param <T>            type des éléments
+ */
+public record Page<T>(List<T> elements, String curseurSuivant) {
+
+    public Page {
+        elements = List.copyOf(elements);
+    }
+
+    /**
+     * @return true s'il reste des éléments après cette page
+     */
+    public boolean aSuite() {
+        return curseurSuivant != null;
+    }
+
+    /**
+     * Lit une page dans une vue triée dont les clés servent de curseurs.
+     *
+     * @param vue        vue triée (clé → élément)
+     * @param curseur    clé du dernier élément de la page précédente, ou null pour la première page
+     * @param taillePage nombre maximal d'éléments
+     * @param <T>        type des éléments
+     * @return la page
+     */
+    static <T> Page<T> lire(NavigableMap<String, T> vue, String curseur, int taillePage) {
+        if (taillePage <= 0) {
+            throw new IllegalArgumentException("Taille de page invalide : " + taillePage);
+        }
+        NavigableMap<String, T> suite = curseur == null ? vue : vue.tailMap(curseur, false);
+        List<T> elements = new ArrayList<>(taillePage);
+        String derniere = null;
+        for (Map.Entry<String, T> entree : suite.entrySet()) {
+            if (elements.size() == taillePage) {
+                return new Page<>(elements, derniere);
+            }
+            elements.add(entree.getValue());
+            derniere = entree.getKey();
+        }
+        return new Page<>(elements, null);
+    }
+}
@@ -6,15 +6,26 @@ import model.Participation;
 import model.PersonneMorale;
 import model.PersonnePhysique;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
  * Gère les participations entre entités (médias, organisations, personnes).
  * Permet l’ajout, le transfert, et la consultation des parts détenues.
+ * <p>
+ * Entités et participations sont aussi tenues dans des vues triées, mises à jour à chaque ajout,
+ * qui permettent de les parcourir page par page ({@link #listerEntites}, {@link #listerParticipations}).
+ * Une entité y est identifiée par son nom sans tenir compte de la casse, comme dans {@link #getEntiteParNom}.
  */
 public class ParticipationService {
-    private final List<Participation> participations = new ArrayList<>();
+    private final Set<Participation> participations = new LinkedHashSet<>(); // ordre d'ajout, retrait en temps constant
+    private final Map<Entite, int[]> capitalDetenu = new HashMap<>(); // cible → total des parts détenues, en millionièmes
+    private final NavigableMap<String, Participation> participationsTriees = new TreeMap<>(); // par cible puis propriétaire
+    private NavigableMap<String, Entite> entitesTriees = new TreeMap<>();
     private Map<String, Entite> entitesParNom = new HashMap<>();
+    private JournalMutations journal; // Journal d'écriture anticipée (optionnel)
+    private IndexRecherche indexRecherche = new IndexRecherche(List.of());
+    private LiaisonEntites liaisonEntites = new LiaisonEntites(List.of());
 
     /**
      * Recherche une participation spécifique par propriétaire et cible.
@@ -24,25 +35,58 @@ public class ParticipationService {
      * @return la participation correspondante ou null si elle n'existe pas
      */
     private Participation trouverParticipation(Entite proprietaire, Entite cible) {
-        for (Participation p : participations) {
-            if (p.getProprietaire().equals(proprietaire) && p.getCible().equals(cible)) {
-                return p;
-            }
-        }
-        return null;
+        Participation p = participationsTriees.get(cle(proprietaire, cible));
+        return p != null && p.getProprietaire().equals(proprietaire) && p.getCible().equals(cible) ? p : null;
+    }
+
+    /**
+     * Enregistre une nouvelle participation dans l'ensemble et dans la vue triée.
+     */
+    private void enregistrer(Participation participation) {
+        participations.add(participation);
+        participationsTriees.put(cle(participation.getProprietaire(), participation.getCible()), participation);
     }
 
     /**
-     * Calcule le pourcentage total de parts pour une cible donnée.
+     * Retire une participation de l'ensemble et de la vue triée.
+     */
+    private void retirer(Participation participation) {
+        participations.remove(participation);
+        participationsTriees.remove(cle(participation.getProprietaire(), participation.getCible()));
+    }
+
+    /**
+     * Clé d'une participation dans la vue triée : nom de la cible, puis nom du propriétaire.
+     */
+    private static String cle(Entite proprietaire, Entite cible) {
+        return cle(cible) + '\u0001' + cle(proprietaire);
+    }
+
+    private static String cle(Entite entite) {
+        return NomsEntites.normaliser(entite.getNom());
+    }
+
+    /**
+     * Retourne la part totale du capital d'une cible détenue par l'ensemble de ses propriétaires.
      *
      * @param cible l'entité ou média cible
-     * @return le pourcentage total de parts
+     * @return total des parts, en millionièmes du capital
      */
-    private double calculerPourcentageTotal(Entite cible) {
-        return participations.stream()
-                .filter(p -> p.getCible().equals(cible))
-                .mapToDouble(Participation::getPourcentage)
-                .sum();
+    public int getMillioniemesDetenus(Entite cible) {
+        int[] total = capitalDetenu.get(cible);
+        return total == null ? 0 : total[0];
+    }
+
+    /**
+     * Retourne la part détenue par un propriétaire dans une cible.
+     *
+     * @param proprietaire l'entité propriétaire
+     * @param cible        l'entité ou média cible
+     * @return part détenue, en millionièmes du capital, ou -1 s'il n'existe aucune participation
+     */
+    public int getMillioniemes(Entite proprietaire, Entite cible) {
+        Participation p = trouverParticipation(proprietaire, cible);
+        return p == null ? -1 : p.getMillioniemes();
     }
 
     /**
@@ -54,23 +98,45 @@ public class ParticipationService {
      * @param pourcentage  pourcentage de parts (0–100)
      */
     public void ajouterParticipation(Entite proprietaire, Entite cible, double pourcentage) {
-        if (pourcentage < 0 || pourcentage > 100) {
+        if (!(pourcentage >= 0 && pourcentage <= 100)) {
             System.err.println("Pourcentage invalide : " + pourcentage);
             return;
         }
+        ajouterParticipationEnMillioniemes(proprietaire, cible, Participation.versMillioniemes(pourcentage));
+    }
+
+    /**
+     * Ajoute une nouvelle participation dont la part est donnée exactement.
+     * Si une participation similaire existe déjà, met à jour la part.
+     *
+     * @param proprietaire entité détentrice
+     * @param cible        entité ou média détenu
+     * @param millioniemes part ajoutée, en millionièmes du capital
+     */
+    public void ajouterParticipationEnMillioniemes(Entite proprietaire, Entite cible, int millioniemes) {
+        if (millioniemes < 0 || millioniemes > Participation.CAPITAL_TOTAL) {
+            System.err.println("Pourcentage invalide : " + Participation.versPourcentage(millioniemes));
+            return;
+        }
 
-        double totalPourcentage = calculerPourcentageTotal(cible);
-        if (totalPourcentage + pourcentage > 100) {
+        int[] total = capitalDetenu.computeIfAbsent(cible, c -> new int[1]);
+        if (total[0] + millioniemes > Participation.CAPITAL_TOTAL) {
             System.err.println("Pourcentage total dépasse 100 pour la cible : " + cible);
             return;
         }
 
+        if (!journaliser(() -> journal.journaliserAjout(proprietaire, cible, Participation.versPourcentage(millioniemes)))) {
+            return;
+        }
+
         Participation participationExistante = trouverParticipation(proprietaire, cible);
         if (participationExistante != null) {
-            participationExistante.setPourcentage(participationExistante.getPourcentage() + pourcentage);
+            participationExistante.setMillioniemes(participationExistante.getMillioniemes() + millioniemes);
         } else {
-            participations.add(new Participation(proprietaire, cible, pourcentage));
+            enregistrer(Participation.enMillioniemes(proprietaire, cible, millioniemes));
         }
+        total[0] += millioniemes;
+        pointDeReprise();
     }
 
     /**
@@ -83,51 +149,203 @@ public class ParticipationService {
      * @return true si le transfert a réussi, false sinon
      */
     public boolean transfererParts(Entite vendeur, Entite acheteur, Entite cible, double pourcentage) {
+        if (!(pourcentage >= 0 && pourcentage <= 100)) {
+            System.err.println("Pourcentage invalide : " + pourcentage);
+            return false;
+        }
+        return transfererMillioniemes(vendeur, acheteur, cible, Participation.versMillioniemes(pourcentage));
+    }
+
+    /**
+     * Transfère une part exacte d'une entité à une autre pour une cible donnée.
+     * Le capital total détenu dans la cible est inchangé.
+     *
+     * @param vendeur      l'entité qui vend les parts
+     * @param acheteur     l'entité qui achète les parts
+     * @param cible        la cible des parts
+     * @param millioniemes part transférée, en millionièmes du capital
+     * @return true si le transfert a réussi, false sinon
+     */
+    public boolean transfererMillioniemes(Entite vendeur, Entite acheteur, Entite cible, int millioniemes) {
+        EvenementsJfr.Transfert trace = new EvenementsJfr.Transfert();
+        trace.begin();
+        String refus = appliquerTransfert(vendeur, acheteur, cible, millioniemes);
+        trace.end();
+        if (trace.shouldCommit()) {
+            trace.vendeur = vendeur != null ? vendeur.getNom() : null;
+            trace.acheteur = acheteur != null ? acheteur.getNom() : null;
+            trace.cible = cible != null ? cible.getNom() : null;
+            trace.pourcentage = Participation.versPourcentage(millioniemes);
+            trace.reussi = refus == null;
+            trace.refus = refus;
+            trace.commit();
+        }
+        return refus == null;
+    }
+
+    /**
+     * Applique un transfert de parts.
+     *
+     * @return null si le transfert a été appliqué, sinon le motif du refus
+     */
+    private String appliquerTransfert(Entite vendeur, Entite acheteur, Entite cible, int millioniemes) {
         // Recherche de la participation du vendeur
-        Participation participationVendeur = participations.stream()
-                .filter(p -> p.getProprietaire().equals(vendeur) && p.getCible().equals(cible))
-                .findFirst()
-                .orElse(null);
+        Participation participationVendeur = trouverParticipation(vendeur, cible);
 
         if (participationVendeur == null) {
             System.err.println("Le vendeur ne possède pas de parts dans la cible.");
-            return false;
+            return "vendeur sans parts";
         }
 
         // Vérifie que le vendeur possède suffisamment de parts
-        if (participationVendeur.getPourcentage() < pourcentage) {
+        if (participationVendeur.getMillioniemes() < millioniemes) {
             System.err.println("Le vendeur ne possède pas suffisamment de parts pour ce transfert.");
-            return false;
+            return "parts insuffisantes";
+        }
+
+        // La mutation n'est appliquée qu'une fois écrite dans le journal
+        if (!journaliser(() -> journal.journaliserTransfert(vendeur, acheteur, cible, Participation.versPourcentage(millioniemes)))) {
+            return "journal indisponible";
         }
 
         // Réduit les parts du vendeur
-        participationVendeur.setPourcentage(participationVendeur.getPourcentage() - pourcentage);
+        participationVendeur.setMillioniemes(participationVendeur.getMillioniemes() - millioniemes);
 
         // Recherche ou crée la participation de l'acheteur
-        Participation participationAcheteur = participations.stream()
-                .filter(p -> p.getProprietaire().equals(acheteur) && p.getCible().equals(cible))
-                .findFirst()
-                .orElse(null);
+        Participation participationAcheteur = trouverParticipation(acheteur, cible);
 
         if (participationAcheteur == null) {
-            participationAcheteur = new Participation(acheteur, cible, pourcentage);
-            participations.add(participationAcheteur);
+            enregistrer(Participation.enMillioniemes(acheteur, cible, millioniemes));
         } else {
-            participationAcheteur.setPourcentage(participationAcheteur.getPourcentage() + pourcentage);
+            participationAcheteur.setMillioniemes(participationAcheteur.getMillioniemes() + millioniemes);
         }
 
+        pointDeReprise();
+        return null;
+    }
+
+    /**
+     * Rétablit exactement les parts d'un vendeur et d'un acheteur relevées avant un transfert
+     * ({@link #getMillioniemes}), pour annuler ce transfert : la participation créée par le transfert
+     * est retirée si l'acheteur n'en avait pas. Le rétablissement est journalisé comme une mutation.
+     *
+     * @param vendeur       l'entité qui a vendu les parts
+     * @param acheteur      l'entité qui les a achetées
+     * @param cible         la cible des parts
+     * @param partsVendeur  part du vendeur avant le transfert, en millionièmes
+     * @param partsAcheteur part de l'acheteur avant le transfert, en millionièmes, ou -1 s'il n'en avait pas
+     * @return true si les parts ont été rétablies, false si le journal est indisponible ou si le rétablissement
+     * ne conserve pas le capital détenu dans la cible
+     */
+    public boolean retablirParts(Entite vendeur, Entite acheteur, Entite cible, int partsVendeur, int partsAcheteur) {
+        Participation participationVendeur = trouverParticipation(vendeur, cible);
+        Participation participationAcheteur = trouverParticipation(acheteur, cible);
+        if (participationVendeur == null || participationAcheteur == null || partsVendeur < 0
+                || participationVendeur.getMillioniemes() + participationAcheteur.getMillioniemes()
+                != partsVendeur + Math.max(partsAcheteur, 0)) {
+            System.err.println("Rétablissement des parts incohérent pour la cible : " + cible);
+            return false;
+        }
+        if (!journaliser(() -> journal.journaliserRetablissement(vendeur, acheteur, cible, partsVendeur, partsAcheteur))) {
+            return false;
+        }
+        participationVendeur.setMillioniemes(partsVendeur);
+        if (partsAcheteur < 0) {
+            retirer(participationAcheteur);
+        } else {
+            participationAcheteur.setMillioniemes(partsAcheteur);
+        }
+        pointDeReprise();
         return true;
     }
 
+    /**
+     * Associe un journal d'écriture anticipée au service.
+     * Chaque mutation acceptée y est écrite avant d'être appliquée en mémoire.
+     *
+     * @param journal journal des mutations, ou null pour désactiver la journalisation
+     */
+    public void setJournal(JournalMutations journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return journal des mutations, ou null si la journalisation est désactivée
+     */
+    public JournalMutations getJournal() {
+        return journal;
+    }
+
+    /**
+     * Remplace l'ensemble des participations (restauration depuis un instantané).
+     * L'opération n'est pas journalisée.
+     *
+     * @param nouvellesParticipations participations restaurées
+     */
+    public void restaurerParticipations(List<Participation> nouvellesParticipations) {
+        participations.clear();
+        participationsTriees.clear();
+        capitalDetenu.clear();
+        for (Participation p : nouvellesParticipations) {
+            enregistrer(p);
+            capitalDetenu.computeIfAbsent(p.getCible(), c -> new int[1])[0] += p.getMillioniemes();
+        }
+    }
+
+    /**
+     * Écrit une mutation dans le journal s'il est actif.
+     *
+     * @param ecriture écriture à effectuer
+     * @return true si la mutation peut être appliquée, false si la journalisation a échoué
+     */
+    private boolean journaliser(EcritureJournal ecriture) {
+        if (journal == null) {
+            return true;
+        }
+        try {
+            ecriture.ecrire();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Mutation refusée, écriture du journal impossible : " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Prend un point de reprise une fois une mutation appliquée, si le journal a atteint son seuil.
+     * Les mutations du service étant exclusives, aucune autre n'est appliquée pendant l'instantané.
+     * Un échec est signalé sans annuler la mutation, déjà durable dans le journal.
+     */
+    private void pointDeReprise() {
+        if (journal == null || !journal.pointDeRepriseNecessaire()) {
+            return;
+        }
+        try {
+            journal.sauvegarderInstantane(this);
+        } catch (IOException e) {
+            System.err.println("Point de reprise impossible, le journal est conservé : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Écriture dans le journal pouvant échouer.
+     */
+    @FunctionalInterface
+    private interface EcritureJournal {
+        void ecrire() throws IOException;
+    }
+
     /**
      * Retourne la liste des propriétaires d'une entité donnée.
+     * Les participations d'une même cible sont contiguës dans la vue triée : seule leur plage est parcourue.
      *
      * @param cible L'entité cible.
-     * @return Liste des participations où l'entité est la cible.
+     * @return Liste des participations où l'entité est la cible, triées par nom de propriétaire.
      */
     public List<Participation> getProprietaires(Entite cible) {
+        String prefixe = cle(cible);
         List<Participation> result = new ArrayList<>();
-        for (Participation p : participations) {
+        for (Participation p : participationsTriees.subMap(prefixe + '\u0001', true, prefixe + '\u0002', false).values()) {
             if (p.getCible().equals(cible)) {
                 result.add(p);
             }
@@ -158,24 +376,45 @@ public class ParticipationService {
      */
     public void setEntites(Map<String, Entite> mapEntites) {
         this.entitesParNom = mapEntites;
+        this.entitesTriees = new TreeMap<>(mapEntites);
+        this.indexRecherche = new IndexRecherche(mapEntites.values());
+        this.liaisonEntites = new LiaisonEntites(mapEntites.values());
+    }
+
+    /**
+     * Retourne l'index de recherche des entités par nom (exact, préfixe, approché).
+     *
+     * @return index construit lors du dernier appel à {@link #setEntites(Map)}
+     */
+    public IndexRecherche getIndexRecherche() {
+        return indexRecherche;
     }
 
     /**
-     * Retourne une entité par son nom normalisé (minuscules + sans espaces superflus).
+     * Retourne l'automate de reconnaissance des noms d'entités dans un texte.
+     *
+     * @return automate construit lors du dernier appel à {@link #setEntites(Map)}
+     */
+    public LiaisonEntites getLiaisonEntites() {
+        return liaisonEntites;
+    }
+
+    /**
+     * Retourne une entité par son nom, normalisé par {@link NomsEntites} (minuscules + sans espaces superflus).
      *
      * @param nom nom de l’entité recherchée
      * @return entité correspondante ou null
      */
     public Entite getEntiteParNom(String nom) {
-        return entitesParNom.get(nom.toLowerCase().trim());
+        return entitesParNom.get(NomsEntites.normaliser(nom));
     }
 
     /**
-     * Retourne la liste de toutes les participations.
+     * Retourne toutes les participations, dans leur ordre d'ajout.
      *
-     * @return liste des participations
+     * @return participations
      */
-    public List<Participation> getParticipations() {
+    public Collection<Participation> getParticipations() {
         return participations;
     }
 
@@ -188,6 +427,28 @@ public class ParticipationService {
         return entitesParNom;
     }
 
+    /**
+     * Retourne une page des entités connues, dans l'ordre alphabétique de leur nom.
+     *
+     * @param curseur    curseur rendu par la page précédente, ou null pour la première page
+     * @param taillePage nombre maximal d'entités
+     * @return la page demandée
+     */
+    public Page<Entite> listerEntites(String curseur, int taillePage) {
+        return Page.lire(entitesTriees, curseur, taillePage);
+    }
+
+    /**
+     * Retourne une page des participations, triées par cible puis par propriétaire.
+     *
+     * @param curseur    curseur rendu par la page précédente, ou null pour la première page
+     * @param taillePage nombre maximal de participations
+     * @return la page demandée
+     */
+    public Page<Participation> listerParticipations(String curseur, int taillePage) {
+        return Page.lire(participationsTriees, curseur, taillePage);
+    }
+
     /**
      * Affiche les participations dans la console.
      */
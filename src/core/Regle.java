@@ -0,0 +1,49 @@
+package core;
+
+import model.Entite;
+
+import java.util.Set;
+
+/**
+ * Règle d'abonnement déclarée par un module spécialisé.
+ * Les règles de tous les modules sont compilées ensemble dans une {@link TableDecision},
+ * évaluée une seule fois par événement ; un module n'est appelé que si l'une de ses règles est satisfaite.
+ *
+ * @see ModuleSpecialise#regles()
+ */
+public sealed interface Regle {
+
+    /**
+     * Rachat dont la cible appartient à l'ensemble donné.
+     *
+     * @param cibles entités cibles surveillées
+     */
+    record RachatCible(Set<? extends Entite> cibles) implements Regle {
+        public RachatCible {
+            cibles = Set.copyOf(cibles);
+        }
+    }
+
+    /**
+     * Publication mentionnant une des entités données. Les mentions d'une publication sont complétées,
+     * à la diffusion, par les entités reconnues dans son contenu (voir {@link LiaisonEntites}).
+     *
+     * @param entites entités surveillées
+     */
+    record PublicationCitant(Set<? extends Entite> entites) implements Regle {
+        public PublicationCitant {
+            entites = Set.copyOf(entites);
+        }
+    }
+
+    /**
+     * Publication dont le média source est détenu directement par une des entités données.
+     *
+     * @param proprietaires propriétaires surveillés
+     */
+    record PublicationDeMediaDetenuPar(Set<? extends Entite> proprietaires) implements Regle {
+        public PublicationDeMediaDetenuPar {
+            proprietaires = Set.copyOf(proprietaires);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package core;
+
+import model.Evenement;
+import model.Publication;
+import model.Rachat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+
+/**
+ * Rejoue un fichier d'événements (TSV ou JSON, un événement par ligne) sans interaction,
+ * aussi vite que possible, et mesure le débit et la latence de traitement de chaque événement.
+ * Les publications sont diffusées telles quelles, les rachats passent par
+ * {@link SystemeEvenementiel#traiterRachat(Rachat)}.
+ */
+public class RejeuEvenements {
+    private final ParticipationService participationService;
+    private final SystemeEvenementiel systeme;
+    private final Vigie vigie;
+
+    /**
+     * Résultat d'un rejeu.
+     *
+     * @param publications    nombre de publications diffusées
+     * @param rachats         nombre de rachats appliqués et diffusés
+     * @param rachatsRefuses  nombre de rachats refusés par le service de participations
+     * @param lignesInvalides nombre de lignes qui n'ont pas pu être lues
+     * @param alertes         nombre d'alertes retenues par la Vigie pendant le rejeu
+     * @param alertesEcartees nombre d'alertes écartées par le filtre de la Vigie pendant le rejeu
+     * @param dureeNanos      durée totale du rejeu, lecture du fichier comprise
+     * @param latences        durée de traitement de chaque événement, en nanosecondes
+     */
+    public record Rapport(long publications, long rachats, long rachatsRefuses, long lignesInvalides,
+                          long alertes, long alertesEcartees, long dureeNanos, HistogrammeLatences latences) {
+
+        /**
+         * @return nombre d'événements traités (publications et rachats, refusés compris)
+         */
+        public long evenements() {
+            return publications + rachats + rachatsRefuses;
+        }
+
+        /**
+         * @return nombre d'événements traités par seconde
+         */
+        public double debit() {
+            return dureeNanos == 0 ? 0 : evenements() * 1e9 / dureeNanos;
+        }
+
+        /**
+         * Affiche le rapport.
+         *
+         * @param out flux de sortie
+         */
+        public void afficher(PrintStream out) {
+            out.println("=== Rapport de rejeu ===");
+            out.printf("Événements : %d (publications : %d, rachats : %d, rachats refusés : %d)%n",
+                    evenements(), publications, rachats, rachatsRefuses);
+            out.printf("Lignes invalides : %d%n", lignesInvalides);
+            out.printf("Alertes produites : %d (écartées par la Vigie : %d)%n", alertes, alertesEcartees);
+            out.printf("Durée : %.3f s, débit : %.0f événements/s%n", dureeNanos / 1e9, debit());
+            out.printf("Latence (µs) : moyenne %.1f, p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                    latences.getMoyenne() / 1e3, latences.centile(50) / 1e3, latences.centile(90) / 1e3,
+                    latences.centile(99) / 1e3, latences.centile(99.9) / 1e3, latences.getMax() / 1e3);
+        }
+    }
+
+    /**
+     * @param participationService service utilisé pour retrouver les entités par nom
+     * @param systeme              système de diffusion des événements
+     * @param vigie                vigie recevant les alertes des modules
+     */
+    public RejeuEvenements(ParticipationService participationService, SystemeEvenementiel systeme, Vigie vigie) {
+        this.participationService = participationService;
+        this.systeme = systeme;
+        this.vigie = vigie;
+    }
+
+    /**
+     * Rejoue tous les événements du fichier, ligne par ligne.
+     * Les lignes vides et celles commençant par {@code #} sont ignorées.
+     *
+     * @param fichier fichier d'événements (format {@link FormatEvenement}, TSV ou JSON)
+     * @param erreurs flux recevant la description des lignes invalides, ou null
+     * @return le rapport du rejeu
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    public Rapport rejouer(Path fichier, PrintStream erreurs) throws IOException {
+        HistogrammeLatences latences = new HistogrammeLatences();
+        long publications = 0;
+        long rachats = 0;
+        long refuses = 0;
+        long invalides = 0;
+        int alertesAvant = vigie.getAlertes().size();
+        long ecarteesAvant = alertesEcartees();
+
+        long debut = System.nanoTime();
+        try (BufferedReader br = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            String ligne;
+            long numero = 0;
+            while ((ligne = br.readLine()) != null) {
+                numero++;
+                if (ligne.isBlank() || ligne.startsWith("#")) {
+                    continue;
+                }
+
+                Evenement evenement;
+                try {
+                    evenement = FormatEvenement.depuisTexte(ligne, participationService);
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    invalides++;
+                    if (erreurs != null) {
+                        erreurs.println("Ligne " + numero + " ignorée : " + e.getMessage());
+                    }
+                    continue;
+                }
+
+                long t0 = System.nanoTime();
+                switch (evenement) {
+                    case Rachat rachat -> {
+                        if (systeme.traiterRachat(rachat)) {
+                            rachats++;
+                        } else {
+                            refuses++;
+                        }
+                    }
+                    case Publication publication -> {
+                        systeme.diffuserEvenement(publication);
+                        publications++;
+                    }
+                }
+                latences.enregistrer(System.nanoTime() - t0);
+            }
+        }
+        long duree = System.nanoTime() - debut;
+
+        long alertes = vigie.getAlertes().size() - alertesAvant;
+        return new Rapport(publications, rachats, refuses, invalides, alertes, alertesEcartees() - ecarteesAvant,
+                duree, latences);
+    }
+
+    private long alertesEcartees() {
+        FiltreAlertes filtre = vigie.getFiltre();
+        return filtre == null ? 0 : filtre.getSupprimeesDoublon() + filtre.getSupprimeesDebit();
+    }
+}
@@ -0,0 +1,222 @@
+package core;
+
+import model.Media;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Compteurs de mentions par média sur des fenêtres glissantes (dernière heure, dernier jour,
+ * dernière semaine), complétés d'un total à décroissance exponentielle qui donne la tendance du moment.
+ * <p>
+ * Chaque fenêtre est un anneau de seaux de durée fixe accompagné de son total courant :
+ * enregistrer une mention ou lire un total ne coûte qu'un nombre constant d'opérations (amorti),
+ * les seaux expirés étant retirés du total au fur et à mesure que le temps avance.
+ * Les mêmes compteurs sont tenus pour l'ensemble des médias, si bien que la part de chaque média
+ * se lit à tout moment sans reparcourir les mentions.
+ */
+public class StatistiquesMentions {
+
+    /**
+     * Période sur laquelle une part de mentions est calculée.
+     */
+    public enum Periode {
+        HEURE("1 h"),
+        JOUR("24 h"),
+        SEMAINE("7 j"),
+        TENDANCE("tendance"),
+        DEPUIS_LE_DEBUT("total");
+
+        private final String libelle;
+
+        Periode(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+
+    private static final long MINUTE = 60_000L;
+    private static final long HEURE = 60 * MINUTE;
+
+    private final double constanteDecroissance; // par milliseconde
+    private final LongSupplier horloge;
+    private final Map<Media, Compteurs> parMedia = new LinkedHashMap<>();
+    private final Compteurs global;
+
+    /**
+     * Anneau de seaux couvrant une fenêtre glissante.
+     */
+    private static final class FenetreGlissante {
+        private final long[] seaux;
+        private final long dureeSeau;
+        private long seauCourant;
+        private long total;
+
+        FenetreGlissante(int nombreSeaux, long dureeSeau, long maintenant) {
+            this.seaux = new long[nombreSeaux];
+            this.dureeSeau = dureeSeau;
+            this.seauCourant = Math.floorDiv(maintenant, dureeSeau);
+        }
+
+        void avancer(long maintenant) {
+            long seau = Math.floorDiv(maintenant, dureeSeau);
+            if (seau <= seauCourant) {
+                return;
+            }
+            long expires = Math.min(seau - seauCourant, seaux.length);
+            for (long i = 1; i <= expires; i++) {
+                int index = (int) Math.floorMod(seauCourant + i, (long) seaux.length);
+                total -= seaux[index];
+                seaux[index] = 0;
+            }
+            seauCourant = seau;
+        }
+
+        void ajouter(long maintenant) {
+            avancer(maintenant);
+            seaux[(int) Math.floorMod(seauCourant, (long) seaux.length)]++;
+            total++;
+        }
+
+        long total(long maintenant) {
+            avancer(maintenant);
+            return total;
+        }
+    }
+
+    /**
+     * Compteurs d'un média (ou de l'ensemble des médias).
+     */
+    private final class Compteurs {
+        final FenetreGlissante heure;
+        final FenetreGlissante jour;
+        final FenetreGlissante semaine;
+        double decroissant;
+        long instantDecroissant;
+        long total;
+
+        Compteurs(long maintenant) {
+            heure = new FenetreGlissante(60, MINUTE, maintenant);
+            jour = new FenetreGlissante(24, HEURE, maintenant);
+            semaine = new FenetreGlissante(7 * 24, HEURE, maintenant);
+            instantDecroissant = maintenant;
+        }
+
+        void ajouter(long maintenant) {
+            heure.ajouter(maintenant);
+            jour.ajouter(maintenant);
+            semaine.ajouter(maintenant);
+            decroissant = decroissant(maintenant) + 1;
+            instantDecroissant = Math.max(instantDecroissant, maintenant);
+            total++;
+        }
+
+        double decroissant(long maintenant) {
+            long ecart = maintenant - instantDecroissant;
+            return ecart <= 0 ? decroissant : decroissant * Math.exp(-constanteDecroissance * ecart);
+        }
+
+        double valeur(Periode periode, long maintenant) {
+            return switch (periode) {
+                case HEURE -> heure.total(maintenant);
+                case JOUR -> jour.total(maintenant);
+                case SEMAINE -> semaine.total(maintenant);
+                case TENDANCE -> decroissant(maintenant);
+                case DEPUIS_LE_DEBUT -> total;
+            };
+        }
+    }
+
+    /**
+     * @param demiVieMillis durée au bout de laquelle le poids d'une mention dans la tendance est divisé par deux
+     * @param horloge       source du temps courant, en millisecondes
+     */
+    public StatistiquesMentions(long demiVieMillis, LongSupplier horloge) {
+        this.constanteDecroissance = Math.log(2) / demiVieMillis;
+        this.horloge = horloge;
+        this.global = new Compteurs(horloge.getAsLong());
+    }
+
+    /**
+     * Statistiques dont la tendance a une demi-vie de 6 heures.
+     */
+    public StatistiquesMentions() {
+        this(6 * HEURE, System::currentTimeMillis);
+    }
+
+    /**
+     * Enregistre une mention par un média, à l'instant courant.
+     *
+     * @param media média à l'origine de la mention
+     */
+    public synchronized void enregistrer(Media media) {
+        long maintenant = horloge.getAsLong();
+        parMedia.computeIfAbsent(media, m -> new Compteurs(maintenant)).ajouter(maintenant);
+        global.ajouter(maintenant);
+    }
+
+    /**
+     * Retourne le nombre de mentions d'un média sur une période.
+     *
+     * @param media   média concerné
+     * @param periode période considérée
+     * @return nombre de mentions (pondéré pour la tendance)
+     */
+    public synchronized double getNombre(Media media, Periode periode) {
+        Compteurs c = parMedia.get(media);
+        return c == null ? 0 : c.valeur(periode, horloge.getAsLong());
+    }
+
+    /**
+     * Retourne la part de chaque média dans les mentions de la période.
+     *
+     * @param periode période considérée
+     * @return map média → pourcentage des mentions (médias sans mention sur la période exclus)
+     */
+    public synchronized Map<Media, Double> getPourcentages(Periode periode) {
+        long maintenant = horloge.getAsLong();
+        double total = global.valeur(periode, maintenant);
+        Map<Media, Double> resultat = new LinkedHashMap<>();
+        if (total <= 0) {
+            return resultat;
+        }
+        for (Map.Entry<Media, Compteurs> entree : parMedia.entrySet()) {
+            double n = entree.getValue().valeur(periode, maintenant);
+            if (n > 0) {
+                resultat.put(entree.getKey(), n * 100.0 / total);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Affiche, pour chaque média, sa part des mentions sur chaque période.
+     */
+    public synchronized void afficher() {
+        if (parMedia.isEmpty()) {
+            System.out.println("Aucune mention enregistrée.");
+            return;
+        }
+        long maintenant = horloge.getAsLong();
+        Periode[] periodes = Periode.values();
+        double[] totaux = new double[periodes.length];
+        StringBuilder entete = new StringBuilder(String.format("%-30s", "Média"));
+        for (int i = 0; i < periodes.length; i++) {
+            totaux[i] = global.valeur(periodes[i], maintenant);
+            entete.append(String.format("%10s", periodes[i].getLibelle()));
+        }
+        System.out.println(entete);
+        for (Map.Entry<Media, Compteurs> entree : parMedia.entrySet()) {
+            StringBuilder ligne = new StringBuilder(String.format("%-30s", entree.getKey().getNom()));
+            for (int i = 0; i < periodes.length; i++) {
+                double n = entree.getValue().valeur(periodes[i], maintenant);
+                ligne.append(String.format("%9.2f%%", totaux[i] > 0 ? n * 100.0 / totaux[i] : 0.0));
+            }
+            System.out.println(ligne);
+        }
+    }
+}
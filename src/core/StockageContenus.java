@@ -0,0 +1,177 @@
+package core;
+
+import model.Contenu;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stockage hors tas des textes de l'historique (contenus de publication, descriptions de rachat).
+ * Les textes sont ajoutés, encodés en UTF-8 et préfixés de leur longueur, dans un bloc courant
+ * alloué hors du tas ({@link ByteBuffer#allocateDirect}). Lorsqu'il est plein, le bloc est compressé
+ * d'un seul tenant par {@link CodecLZ} et recopié dans un tampon direct à sa taille exacte.
+ * <p>
+ * Un texte est désigné par une poignée (numéro de bloc sur 32 bits, position dans le bloc sur 32 bits).
+ * À la lecture, le bloc est décompressé dans un tampon réutilisé ; le dernier bloc décompressé reste
+ * en cache, ce qui rend les parcours séquentiels de l'historique peu coûteux.
+ * La mémoire occupée sur le tas ne dépend donc pas du volume de texte stocké.
+ */
+public final class StockageContenus implements Contenu.Source {
+    private static final int TAILLE_BLOC = 64 * 1024;
+
+    /**
+     * Bloc scellé : données hors tas, compressées ou non.
+     */
+    private record Bloc(ByteBuffer donnees, int tailleOrigine, boolean compresse) {
+    }
+
+    private final List<Bloc> blocs = new ArrayList<>();
+    private ByteBuffer courant = ByteBuffer.allocateDirect(TAILLE_BLOC);
+    private long octetsScelles;
+    private long octetsOrigine;
+
+    // Tampons de travail réutilisés (sur le tas, de taille bornée par celle d'un bloc)
+    private byte[] brut = new byte[TAILLE_BLOC];
+    private byte[] compresse = new byte[CodecLZ.tailleMaximale(TAILLE_BLOC)];
+    private byte[] decompresse = new byte[TAILLE_BLOC];
+    private int blocEnCache = -1;
+
+    /**
+     * Ajoute un texte au stockage.
+     *
+     * @param texte texte à stocker (non null)
+     * @return poignée permettant de le relire
+     */
+    public synchronized long ajouter(String texte) {
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        int besoin = octets.length + 5;
+        if (courant.remaining() < besoin) {
+            if (courant.position() > 0) {
+                sceller();
+            }
+            if (besoin > courant.capacity()) {
+                courant = ByteBuffer.allocateDirect(besoin); // texte plus grand qu'un bloc : bloc dédié
+            }
+        }
+        long poignee = (long) blocs.size() << 32 | courant.position();
+        ecrireVarint(courant, octets.length);
+        courant.put(octets);
+        octetsOrigine += octets.length;
+        return poignee;
+    }
+
+    /**
+     * Relit un texte à partir de sa poignée.
+     *
+     * @param poignee poignée retournée par {@link #ajouter(String)}
+     * @return le texte
+     */
+    @Override
+    public synchronized String lire(long poignee) {
+        int numeroBloc = (int) (poignee >>> 32);
+        int position = (int) poignee;
+        if (numeroBloc == blocs.size()) {
+            // Bloc courant, non compressé
+            ByteBuffer vue = courant.duplicate().position(position);
+            int longueur = lireVarint(vue);
+            byte[] octets = new byte[longueur];
+            vue.get(octets);
+            return new String(octets, StandardCharsets.UTF_8);
+        }
+        byte[] bloc = decompresser(numeroBloc);
+        int longueur = 0;
+        int decalage = 0;
+        byte b;
+        do {
+            b = bloc[position++];
+            longueur |= (b & 0x7F) << decalage;
+            decalage += 7;
+        } while (b < 0);
+        return new String(bloc, position, longueur, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return nombre d'octets alloués hors du tas
+     */
+    public synchronized long getOctetsHorsTas() {
+        return octetsScelles + courant.capacity();
+    }
+
+    /**
+     * @return volume total des textes stockés, en octets UTF-8 non compressés
+     */
+    public synchronized long getOctetsOrigine() {
+        return octetsOrigine;
+    }
+
+    /**
+     * @return nombre de blocs scellés
+     */
+    public synchronized int getNombreBlocs() {
+        return blocs.size();
+    }
+
+    private void sceller() {
+        int taille = courant.position();
+        if (brut.length < taille) {
+            brut = new byte[taille];
+            compresse = new byte[CodecLZ.tailleMaximale(taille)];
+        }
+        courant.get(0, brut, 0, taille);
+        int n = CodecLZ.compresser(brut, 0, taille, compresse, 0);
+        boolean rentable = n < taille;
+        ByteBuffer donnees = ByteBuffer.allocateDirect(rentable ? n : taille);
+        donnees.put(0, rentable ? compresse : brut, 0, rentable ? n : taille);
+        blocs.add(new Bloc(donnees, taille, rentable));
+        octetsScelles += donnees.capacity();
+        if (courant.capacity() == TAILLE_BLOC) {
+            courant.clear(); // réutilisé pour le bloc suivant
+        } else {
+            courant = ByteBuffer.allocateDirect(TAILLE_BLOC);
+        }
+    }
+
+    private byte[] decompresser(int numeroBloc) {
+        if (blocEnCache == numeroBloc) {
+            return decompresse;
+        }
+        Bloc bloc = blocs.get(numeroBloc);
+        int stocke = bloc.donnees().capacity();
+        if (decompresse.length < bloc.tailleOrigine()) {
+            decompresse = new byte[bloc.tailleOrigine()];
+        }
+        if (bloc.compresse()) {
+            if (compresse.length < stocke) {
+                compresse = new byte[stocke];
+            }
+            bloc.donnees().get(0, compresse, 0, stocke);
+            CodecLZ.decompresser(compresse, 0, stocke, decompresse, 0, bloc.tailleOrigine());
+        } else {
+            bloc.donnees().get(0, decompresse, 0, stocke);
+        }
+        blocEnCache = numeroBloc;
+        return decompresse;
+    }
+
+    private static void ecrireVarint(ByteBuffer tampon, int valeur) {
+        while ((valeur & ~0x7F) != 0) {
+            tampon.put((byte) (valeur & 0x7F | 0x80));
+            valeur >>>= 7;
+        }
+        tampon.put((byte) valeur);
+    }
+
+    private static int lireVarint(ByteBuffer tampon) {
+        int valeur = 0;
+        int decalage = 0;
+        byte b;
+        do {
+            b = tampon.get();
+            valeur |= (b & 0x7F) << decalage;
+            decalage += 7;
+        } while (b < 0);
+        return valeur;
+    }
+}
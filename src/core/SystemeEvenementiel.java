@@ -2,19 +2,42 @@ package core;
 
 import model.Evenement;
 import model.Entite;
-import model.PersonnePhysique;
 import model.Participation;
+import model.Publication;
+import model.Rachat;
+import model.TypeEvenement;
 
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Gère la propagation des événements aux modules abonnés.
- * Maintient un historique des événements diffusés.
+ * Chaque événement n'est transmis qu'aux modules abonnés à son type dont une règle est satisfaite ;
+ * les règles de tous les modules sont compilées dans une {@link TableDecision} évaluée une fois par événement.
+ * <p>
+ * Les abonnements peuvent être modifiés à tout moment, y compris pendant une diffusion : chaque
+ * modification publie un nouvel instantané immuable (abonnements et table compilée) par une
+ * référence atomique, que la diffusion lit sans verrou. Une modification est prise en compte
+ * dès l'événement suivant.
+ * Maintient un historique des événements diffusés, et les expose aussi sous forme de flux réactif.
+ * Compte les événements diffusés par type et mesure la durée des traitements par module, avec des
+ * compteurs répartis ({@link LongAdder}) qui ne créent pas de contention entre diffuseurs.
  */
 public class SystemeEvenementiel {
-    private final Map<String, List<ModuleSpecialise>> abonnements;
+    private final AtomicReference<Abonnements> abonnements; // Instantané courant des abonnements
     private final ParticipationService participationService;
-    private final List<Evenement> historiqueEvenements; // Historique des événements diffusés
+    private final HistoriqueColonnaire historiqueEvenements; // Historique des événements diffusés
+    private final FluxDiffusion<Evenement> fluxEvenements = new FluxDiffusion<>(FluxDiffusion.TAILLE_TAMPON_DEFAUT);
+    private Outbox outbox; // Boîte d'envoi persistante (optionnelle)
+    private boolean traceConsole = true; // Affichage des rachats traités
+    private boolean liaisonAutomatique = true; // Détection des entités citées dans les publications
+    private final Map<TypeEvenement, LongAdder> diffusesParType = new EnumMap<>(TypeEvenement.class);
+    private final Map<Class<?>, MesureTraitements> mesuresParModule = new ConcurrentHashMap<>();
 
     /**
      * Constructeur de SystemeEvenementiel.
@@ -22,104 +45,440 @@ public class SystemeEvenementiel {
      * @param participationService service métier pour gérer les participations
      */
     public SystemeEvenementiel(ParticipationService participationService) {
-        this.abonnements = new HashMap<>();
         this.participationService = participationService;
-        this.historiqueEvenements = new ArrayList<>();
+        this.abonnements = new AtomicReference<>(new Abonnements(Map.of(), TableDecision.vide(participationService)));
+        this.historiqueEvenements = new HistoriqueColonnaire();
+        for (TypeEvenement type : TypeEvenement.values()) {
+            diffusesParType.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Instantané immuable des abonnements et de la table de décision compilée correspondante.
+     *
+     * @param parType modules abonnés, par type d'événement (listes non modifiables)
+     * @param table   règles compilées de ces modules
+     */
+    private record Abonnements(Map<TypeEvenement, List<ModuleSpecialise>> parType, TableDecision table) {
     }
 
     /**
      * Enregistre un module spécialisé pour un type d’événement donné.
      *
-     * @param type   le type d’événement (ex : "publication", "rachat")
+     * @param type   le type d’événement
      * @param module le module à abonner
      */
+    public void abonner(TypeEvenement type, ModuleSpecialise module) {
+        Objects.requireNonNull(module);
+        abonnements.updateAndGet(courant -> {
+            Map<TypeEvenement, List<ModuleSpecialise>> parType = copier(courant.parType());
+            parType.computeIfAbsent(type, k -> new ArrayList<>()).add(module);
+            return compiler(parType);
+        });
+    }
+
+    /**
+     * Retire un module des abonnés à un type d'événement.
+     * Le module ne reçoit plus aucun événement de ce type diffusé après le retour de cette méthode.
+     *
+     * @param type   le type d’événement
+     * @param module le module à désabonner
+     * @return true si le module était abonné à ce type
+     */
+    public boolean desabonner(TypeEvenement type, ModuleSpecialise module) {
+        Abonnements avant = abonnements.getAndUpdate(courant -> {
+            List<ModuleSpecialise> modules = courant.parType().get(type);
+            if (modules == null || !modules.contains(module)) {
+                return courant;
+            }
+            Map<TypeEvenement, List<ModuleSpecialise>> parType = copier(courant.parType());
+            parType.get(type).remove(module);
+            if (parType.get(type).isEmpty()) {
+                parType.remove(type);
+            }
+            return compiler(parType);
+        });
+        List<ModuleSpecialise> modules = avant.parType().get(type);
+        return modules != null && modules.contains(module);
+    }
+
+    private static Map<TypeEvenement, List<ModuleSpecialise>> copier(Map<TypeEvenement, List<ModuleSpecialise>> parType) {
+        Map<TypeEvenement, List<ModuleSpecialise>> copie = new EnumMap<>(TypeEvenement.class);
+        parType.forEach((type, modules) -> copie.put(type, new ArrayList<>(modules)));
+        return copie;
+    }
+
+    private Abonnements compiler(Map<TypeEvenement, List<ModuleSpecialise>> parType) {
+        parType.replaceAll((type, modules) -> List.copyOf(modules));
+        return new Abonnements(Collections.unmodifiableMap(parType), new TableDecision(parType, participationService));
+    }
+
+    /**
+     * Enregistre un module spécialisé pour un type d’événement désigné par son nom.
+     *
+     * @param type   le nom du type d’événement ("publication" ou "rachat")
+     * @param module le module à abonner
+     * @throws IllegalArgumentException si le type est inconnu
+     */
     public void abonner(String type, ModuleSpecialise module) {
-        String key = type.toLowerCase();
-        abonnements.computeIfAbsent(key, k -> new ArrayList<>()).add(module);
+        abonner(TypeEvenement.depuisNom(type), module);
     }
 
     /**
      * Diffuse un événement aux modules abonnés.
      *
      * @param evenement l’événement à diffuser
+     * @return l'événement effectivement diffusé (publication aux mentions complétées, contenu hors tas)
      */
-    public void diffuserEvenement(Evenement evenement) {
-        // Ajoute l'événement à l'historique
-        historiqueEvenements.add(evenement);
+    public Evenement diffuserEvenement(Evenement evenement) {
+        EvenementsJfr.Diffusion trace = new EvenementsJfr.Diffusion();
+        trace.begin();
 
-        // Notifie tous les modules abonnés
-        for (List<ModuleSpecialise> modules : abonnements.values()) {
-            for (ModuleSpecialise module : modules) {
-                module.traiter(evenement);
-            }
+        // Complète les mentions d'une publication avec les entités citées dans son contenu
+        LiaisonEntites liaison = liaisonAutomatique ? participationService.getLiaisonEntites() : null;
+        if (liaison != null && evenement instanceof Publication publication) {
+            evenement = liaison.completer(publication);
         }
+
+        // Ajoute l'événement à l'historique ; une publication est ensuite diffusée avec son contenu hors tas
+        evenement = historiqueEvenements.ajouter(evenement);
+
+        // Notifie les modules abonnés à ce type d'événement et concernés par ses règles
+        Evenement diffuse = evenement;
+        diffusesParType.get(diffuse.type()).increment();
+        int modules = abonnements.get().table().pourModulesConcernes(diffuse, module -> {
+            long debut = System.nanoTime();
+            module.traiter(diffuse);
+            mesure(module).enregistrer(System.nanoTime() - debut);
+        });
+
+        // Transmet l'événement aux consommateurs du flux
+        fluxEvenements.publier(diffuse);
+
+        trace.end();
+        if (trace.shouldCommit()) {
+            trace.type = diffuse.type().getNom();
+            trace.modules = modules;
+            trace.mentions = diffuse instanceof Publication p ? p.mentions().size() : 0;
+            trace.commit();
+        }
+        return diffuse;
+    }
+
+    /**
+     * Retourne le flux des événements diffusés. Chaque abonné reçoit, selon la demande qu'il exprime,
+     * les événements diffusés après son abonnement ; un abonné trop lent perd les événements
+     * qui ne tiennent plus dans son tampon.
+     *
+     * @return le flux des événements
+     */
+    public Flow.Publisher<Evenement> getFluxEvenements() {
+        return fluxEvenements.getPublisher();
+    }
+
+    /**
+     * @return le diffuseur du flux des événements (compteurs de pertes et de retard)
+     */
+    public FluxDiffusion<Evenement> getDiffuseurEvenements() {
+        return fluxEvenements;
+    }
+
+    /**
+     * Termine le flux des événements : les abonnés reçoivent {@code onComplete}.
+     */
+    public void fermerFlux() {
+        fluxEvenements.close();
+    }
+
+    private MesureTraitements mesure(ModuleSpecialise module) {
+        MesureTraitements mesure = mesuresParModule.get(module.getClass());
+        return mesure != null ? mesure : mesuresParModule.computeIfAbsent(module.getClass(), c -> new MesureTraitements());
+    }
+
+    /**
+     * @param type type d'événement
+     * @return nombre d'événements de ce type diffusés depuis le démarrage
+     */
+    public long getNombreDiffuses(TypeEvenement type) {
+        return diffusesParType.get(type).sum();
+    }
+
+    /**
+     * Retourne la durée des traitements, par implémentation de module (toutes instances confondues).
+     *
+     * @return nom simple de la classe du module → mesures, triés par nom
+     */
+    public Map<String, MesureTraitements> getMesuresParModule() {
+        Map<String, MesureTraitements> mesures = new TreeMap<>();
+        mesuresParModule.forEach((classe, mesure) ->
+                mesures.put(classe.getSimpleName().isEmpty() ? classe.getName() : classe.getSimpleName(), mesure));
+        return mesures;
+    }
+
+    /**
+     * Associe une boîte d'envoi persistante au système.
+     * Les rachats validés y sont inscrits avant d'être diffusés.
+     *
+     * @param outbox boîte d'envoi, ou null pour désactiver la persistance
+     */
+    public void setOutbox(Outbox outbox) {
+        this.outbox = outbox;
+    }
+
+    /**
+     * @return boîte d'envoi persistante, ou null si aucune n'est associée
+     */
+    public Outbox getOutbox() {
+        return outbox;
     }
 
     /**
-     * Traite un événement de type "rachat" et met à jour les participations.
+     * Active ou désactive l'affichage en console des rachats traités avec succès.
      *
-     * @param evenement l'événement de rachat
+     * @param traceConsole true pour afficher chaque rachat traité
      */
-    public void traiterRachat(Evenement evenement) {
+    public void setTraceConsole(boolean traceConsole) {
+        this.traceConsole = traceConsole;
+    }
+
+    /**
+     * Active ou désactive la détection automatique des entités citées dans le contenu des publications.
+     * Lorsqu'elle est active, les mentions de chaque publication diffusée sont complétées avec
+     * les entités reconnues par {@link LiaisonEntites}.
+     *
+     * @param liaisonAutomatique true pour compléter les mentions à la diffusion
+     */
+    public void setLiaisonAutomatique(boolean liaisonAutomatique) {
+        this.liaisonAutomatique = liaisonAutomatique;
+    }
+
+    /**
+     * Traite un rachat comme une unité de travail :
+     * les participations sont mises à jour, puis l'événement est diffusé aux modules
+     * uniquement si le transfert a été validé. Un rachat refusé n'est jamais diffusé.
+     * L'événement diffusé porte la répartition des parts de la cible après transfert.
+     * <p>
+     * Avec une boîte d'envoi, le rachat y est préparé avant le transfert, avec les parts du vendeur
+     * et de l'acheteur avant transfert, puis validé ou annulé. Après un arrêt brutal entre le transfert
+     * et la validation, {@link #reprendreOutbox()} retrouve, d'après ces parts, si le transfert a été
+     * appliqué. Tout échec après le transfert rétablit exactement les parts ; si ce rétablissement échoue
+     * aussi, le transfert reste appliqué et l'événement est diffusé.
+     *
+     * @param rachat l'événement de rachat
+     * @return true si le rachat a été appliqué et diffusé, false sinon
+     */
+    public boolean traiterRachat(Rachat rachat) {
+        // Vérifie que l'événement contient les informations nécessaires
+        Entite acheteur = rachat.acheteur();
+        Entite vendeur = rachat.vendeur();
+        Entite cible = rachat.cible();
+        if (acheteur == null || vendeur == null || cible == null) {
+            System.err.println("Entité manquante dans l’événement de rachat.");
+            return false;
+        }
+        if (!(rachat.pourcentage() >= 0 && rachat.pourcentage() <= 100)) {
+            System.err.println("Pourcentage invalide : " + rachat.pourcentage());
+            return false;
+        }
+        int millioniemes = Participation.versMillioniemes(rachat.pourcentage());
+
+        // Parts relevées avant le transfert, pour l'annuler exactement ou le retrouver après un arrêt brutal
+        int partsVendeur = participationService.getMillioniemes(vendeur, cible);
+        int partsAcheteur = participationService.getMillioniemes(acheteur, cible);
+
+        // Préparation dans la boîte d'envoi, avant toute mutation
+        long idOutbox = -1;
+        if (outbox != null) {
+            try {
+                idOutbox = outbox.preparer(FormatEvenement.versLigne(
+                        rachat.avecEtatProprietaires(partsAvant(vendeur, acheteur, cible, partsVendeur, partsAcheteur))));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Rachat refusé, impossible de le préparer dans la boîte d'envoi : " + e.getMessage());
+                return false;
+            }
+        }
+
+        // Mise à jour des participations
+        if (!participationService.transfererMillioniemes(vendeur, acheteur, cible, millioniemes)) {
+            System.err.println("Erreur lors du transfert des parts.");
+            annulerOutbox(idOutbox);
+            return false;
+        }
+
+        // Validation : à partir d'ici, tout échec annule le transfert
+        Rachat valide = null;
         try {
-            // Vérifie que l'événement contient les informations nécessaires
-            Entite acheteur = evenement.getAcheteur();
-            Entite vendeur = evenement.getVendeur();
-            Entite cible = (Entite) evenement.getCible();
-            double pourcentage = evenement.getPourcentage();
-
-            if (acheteur == null || vendeur == null || cible == null) {
-                System.err.println("Entité manquante dans l’événement de rachat.");
-                return;
+            valide = rachat.avecEtatProprietaires(copierParticipations(participationService.getProprietaires(cible)));
+            if (idOutbox >= 0) {
+                outbox.valider(idOutbox, FormatEvenement.versLigne(valide));
+            }
+        } catch (IOException | RuntimeException e) {
+            if (participationService.retablirParts(vendeur, acheteur, cible, partsVendeur, partsAcheteur)) {
+                System.err.println("Rachat annulé, impossible de le valider : " + e.getMessage());
+                annulerOutbox(idOutbox);
+                return false;
             }
+            // Le transfert reste appliqué et journalisé : l'entrée reste en suspens pour la reprise
+            System.err.println("Rachat appliqué mais non validé dans la boîte d'envoi, annulation impossible : "
+                    + e.getMessage());
+            if (valide == null) {
+                return false;
+            }
+            idOutbox = -1;
+        }
 
-            // Mise à jour des participations
-            boolean reussi = participationService.transfererParts(vendeur, acheteur, cible, pourcentage);
-            if (!reussi) {
-                System.err.println("Erreur lors du transfert des parts.");
-            } else {
-                
-                System.out.println("Rachat traité avec succès : " +
-                        acheteur.getNom() + " a acquis " + pourcentage + "% de " +
-                        cible.getNom() + " auprès de " + vendeur.getNom());
+        if (traceConsole) {
+            System.out.println("Rachat traité avec succès : " + valide.descriptionRachat());
+        }
+        diffuserEvenement(valide);
+        if (idOutbox >= 0) {
+            outbox.marquerDiffuse(idOutbox);
+        }
+        return true;
+    }
+
+    /**
+     * Parts du vendeur et de l'acheteur avant transfert, inscrites avec le rachat préparé
+     * (l'acheteur est omis s'il n'avait pas de participation).
+     */
+    private static List<Participation> partsAvant(Entite vendeur, Entite acheteur, Entite cible,
+                                                  int partsVendeur, int partsAcheteur) {
+        List<Participation> parts = new ArrayList<>(2);
+        if (partsVendeur >= 0) {
+            parts.add(Participation.enMillioniemes(vendeur, cible, partsVendeur));
+        }
+        if (partsAcheteur >= 0) {
+            parts.add(Participation.enMillioniemes(acheteur, cible, partsAcheteur));
+        }
+        return parts;
+    }
+
+    private void annulerOutbox(long idOutbox) {
+        if (idOutbox < 0) {
+            return;
+        }
+        try {
+            outbox.annuler(idOutbox);
+        } catch (IOException e) {
+            // L'entrée reste en suspens : la reprise constatera que les parts n'ont pas changé
+            System.err.println("Impossible d'annuler l'entrée " + idOutbox + " de la boîte d'envoi : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Résout les rachats préparés mais ni validés ni annulés, puis rediffuse les événements inscrits
+     * dans la boîte d'envoi mais jamais marqués comme diffusés, typiquement après un arrêt brutal.
+     * Les participations ne sont pas modifiées à nouveau. Doit être appelée après la restauration
+     * du journal des mutations.
+     *
+     * @return nombre d'événements rediffusés
+     */
+    public int reprendreOutbox() {
+        if (outbox == null) {
+            return 0;
+        }
+        for (Map.Entry<Long, String> entree : outbox.getEnSuspens().entrySet()) {
+            try {
+                resoudre(entree.getKey(), FormatEvenement.depuisLigne(entree.getValue(), participationService));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                System.err.println("Entrée en suspens de la boîte d'envoi annulée (" + entree.getKey() + ") : "
+                        + e.getMessage());
+                annulerOutbox(entree.getKey());
+            } catch (IOException e) {
+                System.err.println("Entrée en suspens de la boîte d'envoi non résolue (" + entree.getKey() + ") : "
+                        + e.getMessage());
+            }
+        }
+        int rediffuses = 0;
+        for (Map.Entry<Long, String> entree : outbox.getEnAttente().entrySet()) {
+            try {
+                // Un rachat porte la répartition des parts inscrite avec lui, juste après son transfert
+                Evenement evenement = FormatEvenement.depuisLigne(entree.getValue(), participationService);
+                diffuserEvenement(evenement);
+                rediffuses++;
+            } catch (IllegalArgumentException | DateTimeException e) {
+                System.err.println("Entrée de la boîte d'envoi ignorée (" + entree.getKey() + ") : " + e.getMessage());
+            }
+            outbox.marquerDiffuse(entree.getKey());
+        }
+        outbox.compacter();
+        return rediffuses;
+    }
+
+    /**
+     * Décide du sort d'un rachat préparé : validé si les parts actuelles du vendeur et de l'acheteur sont
+     * celles d'après le transfert, annulé si ce sont celles d'avant.
+     */
+    private void resoudre(long id, Evenement evenement) throws IOException {
+        if (!(evenement instanceof Rachat rachat) || rachat.etatProprietaires() == null) {
+            throw new IllegalArgumentException("rachat préparé attendu");
+        }
+        int avantVendeur = -1;
+        int avantAcheteur = -1;
+        for (Participation p : rachat.etatProprietaires()) {
+            if (p.getProprietaire() == rachat.vendeur()) {
+                avantVendeur = p.getMillioniemes();
+            } else if (p.getProprietaire() == rachat.acheteur()) {
+                avantAcheteur = p.getMillioniemes();
             }
+        }
+        int millioniemes = Participation.versMillioniemes(rachat.pourcentage());
+        int vendeur = participationService.getMillioniemes(rachat.vendeur(), rachat.cible());
+        int acheteur = participationService.getMillioniemes(rachat.acheteur(), rachat.cible());
+        if (millioniemes > 0 && avantVendeur >= 0 && vendeur == avantVendeur - millioniemes
+                && acheteur == Math.max(avantAcheteur, 0) + millioniemes) {
+            outbox.valider(id, FormatEvenement.versLigne(rachat.avecEtatProprietaires(
+                    copierParticipations(participationService.getProprietaires(rachat.cible())))));
+        } else {
+            if (vendeur != avantVendeur || acheteur != avantAcheteur) {
+                System.err.println("Rachat en suspens (" + id + ") : parts inattendues, rachat annulé");
+            }
+            outbox.annuler(id);
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("Erreur inattendue lors du traitement du rachat : " + e.getMessage());
+    private static List<Participation> copierParticipations(List<Participation> participations) {
+        List<Participation> copie = new ArrayList<>(participations.size());
+        for (Participation p : participations) {
+            copie.add(Participation.enMillioniemes(p.getProprietaire(), p.getCible(), p.getMillioniemes()));
         }
+        return copie;
     }
 
     /**
      * Retourne l'historique des événements diffusés.
      *
-     * @return liste des événements diffusés
+     * @return vue en lecture seule des événements diffusés (reconstruits à chaque accès)
      */
     public List<Evenement> getHistoriqueEvenements() {
+        return historiqueEvenements.vue();
+    }
+
+    /**
+     * Retourne le stockage en colonnes de l'historique, pour les analyses.
+     *
+     * @return l'historique colonnaire
+     */
+    public HistoriqueColonnaire getHistoriqueColonnaire() {
         return historiqueEvenements;
     }
 
     /**
-     * Retourne l'historique des événements de type "publication".
+     * Retourne l'historique des événements d'un type donné.
      *
-     * @return liste des événements de type "publication"
+     * @param type le type d'événement recherché
+     * @return liste des événements de ce type, dans l'ordre de diffusion
      */
-    public List<Evenement> getHistorique(String type) {
-        String typeLower = type.toLowerCase();
-        List<Evenement> historiquePublications = new ArrayList<>();
-        for (Evenement evenement : historiqueEvenements) {
-            if (evenement.getType().equalsIgnoreCase(typeLower)) {
-                historiquePublications.add(evenement);
-            }
-        }
-        return historiquePublications;
+    public List<Evenement> getHistorique(TypeEvenement type) {
+        return historiqueEvenements.filtrer(type);
     }
 
     /**
      * Retourne les abonnements actuels.
      *
-     * @return une map des types d'événements et des modules abonnés
+     * @return instantané non modifiable des types d'événements et des modules abonnés
      */
-    public Map<String, List<ModuleSpecialise>> getAbonnements() {
-        return abonnements;
+    public Map<TypeEvenement, List<ModuleSpecialise>> getAbonnements() {
+        return abonnements.get().parType();
     }
 }
@@ -0,0 +1,180 @@
+package core;
+
+import model.Entite;
+import model.Evenement;
+import model.Participation;
+import model.Publication;
+import model.Rachat;
+import model.TypeEvenement;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Table de décision compilée à partir des règles de tous les modules abonnés.
+ * Pour chaque type d'événement, les modules sont numérotés dans l'ordre d'abonnement ;
+ * chaque entité surveillée est associée à l'ensemble ({@link BitSet}) des modules concernés.
+ * L'évaluation d'un événement se réduit ainsi à quelques recherches dans des tables de hachage
+ * et à des unions d'ensembles de bits, quel que soit le nombre de modules.
+ * Les modules sans règle sont appelés pour tous les événements de leur type.
+ * <p>
+ * Une publication concerne un module dont la règle cite une entité lorsque celle-ci figure dans ses mentions
+ * (complétées par {@link LiaisonEntites}) ou lorsque son nom apparaît dans le contenu, comme le vérifient
+ * les modules eux-mêmes. Le contenu n'est parcouru que pour les noms dont les modules ne sont pas déjà
+ * concernés par les mentions.
+ * <p>
+ * Une table est immuable : elle est recompilée à chaque changement d'abonnement.
+ */
+public final class TableDecision {
+    private final ParticipationService participationService;
+    private final Map<TypeEvenement, ModuleSpecialise[]> modulesParType = new EnumMap<>(TypeEvenement.class);
+    private final Map<TypeEvenement, BitSet> sansRegle = new EnumMap<>(TypeEvenement.class);
+
+    private final Map<Entite, BitSet> ciblesRachat = new HashMap<>();
+    private final Map<Entite, BitSet> mentions = new HashMap<>();
+    private final Map<Entite, BitSet> proprietaires = new HashMap<>();
+    private final String[] nomsContenu; // noms en minuscules des entités citées par une règle
+    private final BitSet[] modulesContenu; // modules concernés par chacun de ces noms
+
+    /**
+     * Compile les règles des modules abonnés.
+     *
+     * @param abonnements          modules abonnés, par type d'événement
+     * @param participationService service utilisé pour retrouver les propriétaires d'un média
+     */
+    public TableDecision(Map<TypeEvenement, List<ModuleSpecialise>> abonnements, ParticipationService participationService) {
+        this.participationService = participationService;
+        for (Map.Entry<TypeEvenement, List<ModuleSpecialise>> entree : abonnements.entrySet()) {
+            TypeEvenement type = entree.getKey();
+            ModuleSpecialise[] modules = entree.getValue().toArray(new ModuleSpecialise[0]);
+            modulesParType.put(type, modules);
+            BitSet toujours = new BitSet(modules.length);
+            for (int i = 0; i < modules.length; i++) {
+                boolean regleApplicable = false;
+                for (Regle regle : modules[i].regles()) {
+                    regleApplicable |= compiler(type, regle, i);
+                }
+                if (!regleApplicable) {
+                    toujours.set(i);
+                }
+            }
+            sansRegle.put(type, toujours);
+        }
+
+        Map<String, BitSet> parNom = new LinkedHashMap<>();
+        mentions.forEach((entite, bits) -> parNom.computeIfAbsent(entite.getNom().toLowerCase(), k -> new BitSet()).or(bits));
+        this.nomsContenu = parNom.keySet().toArray(new String[0]);
+        this.modulesContenu = parNom.values().toArray(new BitSet[0]);
+    }
+
+    /**
+     * Table vide : aucun module abonné.
+     */
+    public static TableDecision vide(ParticipationService participationService) {
+        return new TableDecision(Map.of(), participationService);
+    }
+
+    private boolean compiler(TypeEvenement type, Regle regle, int index) {
+        switch (regle) {
+            case Regle.RachatCible r when type == TypeEvenement.RACHAT -> {
+                r.cibles().forEach(e -> ciblesRachat.computeIfAbsent(e, k -> new BitSet()).set(index));
+                return true;
+            }
+            case Regle.PublicationCitant r when type == TypeEvenement.PUBLICATION -> {
+                r.entites().forEach(e -> mentions.computeIfAbsent(e, k -> new BitSet()).set(index));
+                return true;
+            }
+            case Regle.PublicationDeMediaDetenuPar r when type == TypeEvenement.PUBLICATION -> {
+                r.proprietaires().forEach(e -> proprietaires.computeIfAbsent(e, k -> new BitSet()).set(index));
+                return true;
+            }
+            default -> {
+                return false; // règle portant sur un autre type d'événement
+            }
+        }
+    }
+
+    /**
+     * Évalue l'événement une fois et appelle, dans l'ordre d'abonnement, les modules concernés.
+     *
+     * @param evenement événement diffusé
+     * @param action    traitement appliqué à chaque module concerné
+     * @return nombre de modules concernés
+     */
+    public int pourModulesConcernes(Evenement evenement, Consumer<ModuleSpecialise> action) {
+        ModuleSpecialise[] modules = modulesParType.get(evenement.type());
+        if (modules == null || modules.length == 0) {
+            return 0;
+        }
+        BitSet concernes = (BitSet) sansRegle.get(evenement.type()).clone();
+        switch (evenement) {
+            case Rachat r -> unir(concernes, ciblesRachat.get(r.cible()));
+            case Publication p -> evaluerPublication(p, concernes, modules.length);
+        }
+        int nombre = 0;
+        for (int i = concernes.nextSetBit(0); i >= 0; i = concernes.nextSetBit(i + 1)) {
+            action.accept(modules[i]);
+            nombre++;
+        }
+        return nombre;
+    }
+
+    private void evaluerPublication(Publication p, BitSet concernes, int nombreModules) {
+        if (!mentions.isEmpty()) {
+            for (Entite mention : p.mentions()) {
+                unir(concernes, mentions.get(mention));
+            }
+        }
+        if (!proprietaires.isEmpty() && p.source() != null) {
+            for (Participation participation : participationService.getProprietaires(p.source())) {
+                unir(concernes, proprietaires.get(participation.getProprietaire()));
+            }
+        }
+        if (mentions.isEmpty() || concernes.cardinality() == nombreModules) {
+            return;
+        }
+        String contenu = null;
+        for (int i = 0; i < nomsContenu.length; i++) {
+            if (estInclus(modulesContenu[i], concernes)) {
+                continue;
+            }
+            if (contenu == null) {
+                contenu = p.contenu();
+                if (contenu == null) {
+                    return;
+                }
+                contenu = contenu.toLowerCase();
+            }
+            if (contenu.contains(nomsContenu[i])) {
+                concernes.or(modulesContenu[i]);
+            }
+        }
+    }
+
+    private static boolean estInclus(BitSet a, BitSet b) {
+        for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i + 1)) {
+            if (!b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void unir(BitSet concernes, BitSet bits) {
+        if (bits != null) {
+            concernes.or(bits);
+        }
+    }
+
+    /**
+     * @return nombre d'entrées de la table (entités surveillées)
+     */
+    public int taille() {
+        return ciblesRachat.size() + mentions.size() + proprietaires.size();
+    }
+}
@@ -0,0 +1,209 @@
+package core;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Table d'internement des noms d'entités, utilisée pendant l'importation.
+ * <p>
+ * Un nom est normalisé une seule fois, à son insertion, selon {@link NomsEntites} (espaces de tête et de fin
+ * retirés, minuscules), et ses caractères sont rangés à la suite des autres dans une arène unique
+ * de {@code char}, accompagnés de son empreinte précalculée. La recherche normalise la zone d'une ligne lue
+ * au fil du parcours et compare directement avec l'arène : elle n'alloue aucune chaîne.
+ * Les entrées sont retrouvées par adressage ouvert (sondage linéaire) sur les empreintes.
+ *
+ * @param <V> type des valeurs associées aux noms
+ */
+public final class TableNoms<V> {
+    private char[] caracteres = new char[4096];
+    private int tailleCaracteres;
+    private int[] debuts = new int[64];
+    private int[] longueurs = new int[64];
+    private int[] empreintes = new int[64];
+    private Object[] valeurs = new Object[64];
+    private int nombre;
+    private int[] cases = new int[128]; // index de l'entrée + 1, 0 si la case est libre
+
+    /**
+     * Retourne la valeur associée au nom contenu dans une zone de texte.
+     *
+     * @param texte texte contenant le nom (une ligne lue, par exemple)
+     * @param debut début de la zone (inclus)
+     * @param fin   fin de la zone (exclue)
+     * @return la valeur associée, ou null si le nom est inconnu
+     */
+    public V get(CharSequence texte, int debut, int fin) {
+        int i = chercher(texte, debut, fin);
+        return i < 0 ? null : valeur(i);
+    }
+
+    /**
+     * Retourne la valeur associée à un nom.
+     *
+     * @param nom nom recherché (normalisé à la volée)
+     * @return la valeur associée, ou null si le nom est inconnu
+     */
+    public V get(CharSequence nom) {
+        return get(nom, 0, nom.length());
+    }
+
+    /**
+     * Associe une valeur à un nom, en remplaçant la valeur précédente s'il est déjà présent.
+     * Un nom vide après normalisation est ignoré.
+     *
+     * @param nom    nom de l'entrée
+     * @param valeur valeur associée
+     * @return la valeur précédente, ou null
+     */
+    public V mettre(CharSequence nom, V valeur) {
+        int i = chercher(nom, 0, nom.length());
+        if (i >= 0) {
+            V precedente = valeur(i);
+            valeurs[i] = valeur;
+            return precedente;
+        }
+        inserer(nom, valeur);
+        return null;
+    }
+
+    /**
+     * Associe une valeur à un nom s'il n'est pas encore présent.
+     * Un nom vide après normalisation est ignoré.
+     *
+     * @param nom    nom de l'entrée
+     * @param valeur valeur associée
+     * @return true si l'entrée a été ajoutée
+     */
+    public boolean ajouter(CharSequence nom, V valeur) {
+        if (chercher(nom, 0, nom.length()) >= 0) {
+            return false;
+        }
+        return inserer(nom, valeur);
+    }
+
+    /**
+     * @return nombre d'entrées
+     */
+    public int taille() {
+        return nombre;
+    }
+
+    /**
+     * Parcourt les entrées dans l'ordre d'insertion, avec leur nom normalisé.
+     *
+     * @param action action appliquée à chaque couple (nom normalisé, valeur)
+     */
+    public void pourChaque(BiConsumer<String, V> action) {
+        for (int i = 0; i < nombre; i++) {
+            action.accept(new String(caracteres, debuts[i], longueurs[i]), valeur(i));
+        }
+    }
+
+    /**
+     * @return nombre de caractères rangés dans l'arène
+     */
+    public int getTailleArene() {
+        return tailleCaracteres;
+    }
+
+    /**
+     * Retourne l'index de l'entrée dont le nom normalisé égale la zone normalisée, ou -1.
+     */
+    private int chercher(CharSequence texte, int debut, int fin) {
+        while (debut < fin && texte.charAt(debut) <= ' ') {
+            debut++;
+        }
+        while (fin > debut && texte.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        int empreinte = 0;
+        for (int k = debut; k < fin; k++) {
+            empreinte = 31 * empreinte + NomsEntites.minuscule(texte.charAt(k));
+        }
+        int longueur = fin - debut;
+        int masque = cases.length - 1;
+        for (int c = melanger(empreinte) & masque; cases[c] != 0; c = (c + 1) & masque) {
+            int i = cases[c] - 1;
+            if (empreintes[i] == empreinte && longueurs[i] == longueur && egale(i, texte, debut)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean egale(int i, CharSequence texte, int debut) {
+        int base = debuts[i];
+        for (int k = 0; k < longueurs[i]; k++) {
+            if (caracteres[base + k] != NomsEntites.minuscule(texte.charAt(debut + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean inserer(CharSequence nom, V valeur) {
+        int debut = 0;
+        int fin = nom.length();
+        while (debut < fin && nom.charAt(debut) <= ' ') {
+            debut++;
+        }
+        while (fin > debut && nom.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        int longueur = fin - debut;
+        if (longueur == 0) {
+            return false;
+        }
+        if (nombre == debuts.length) {
+            int n = nombre * 2;
+            debuts = Arrays.copyOf(debuts, n);
+            longueurs = Arrays.copyOf(longueurs, n);
+            empreintes = Arrays.copyOf(empreintes, n);
+            valeurs = Arrays.copyOf(valeurs, n);
+        }
+        if (tailleCaracteres + longueur > caracteres.length) {
+            caracteres = Arrays.copyOf(caracteres, Math.max(caracteres.length * 2, tailleCaracteres + longueur));
+        }
+        int empreinte = 0;
+        for (int k = 0; k < longueur; k++) {
+            char c = NomsEntites.minuscule(nom.charAt(debut + k));
+            caracteres[tailleCaracteres + k] = c;
+            empreinte = 31 * empreinte + c;
+        }
+        int i = nombre++;
+        debuts[i] = tailleCaracteres;
+        longueurs[i] = longueur;
+        empreintes[i] = empreinte;
+        valeurs[i] = valeur;
+        tailleCaracteres += longueur;
+
+        if (nombre * 2 > cases.length) {
+            cases = new int[cases.length * 2];
+            for (int j = 0; j < nombre; j++) {
+                placer(j);
+            }
+        } else {
+            placer(i);
+        }
+        return true;
+    }
+
+    private void placer(int i) {
+        int masque = cases.length - 1;
+        int c = melanger(empreintes[i]) & masque;
+        while (cases[c] != 0) {
+            c = (c + 1) & masque;
+        }
+        cases[c] = i + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valeur(int i) {
+        return (V) valeurs[i];
+    }
+
+    private static int melanger(int empreinte) {
+        int h = empreinte * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,48 +1,280 @@
 package core;
 
+import model.Alerte;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Classe représentant la Vigie des Médias.
  * Elle centralise les alertes envoyées par les modules spécialisés,
- * les historise, et les affiche en console.
+ * écarte les doublons et les excès de débit, puis historise et affiche les alertes retenues.
+ * En mode digest, les alertes retenues sont regroupées par entité avant d'être historisées.
+ * Les alertes historisées sont aussi publiées dans un flux réactif et, si une archive est branchée,
+ * conservées sur disque d'une session à l'autre.
+ * Les alertes retenues sont comptées par module émetteur.
  */
 public class Vigie {
-    private List<String> historiqueAlertes;
+    private static final String SANS_MODULE = "(aucun)";
+
+    private final List<Alerte> historiqueAlertes;
+    private volatile FiltreAlertes filtre;
+    private volatile DigestAlertes digest;
+    private volatile boolean affichageConsole = true;
+    private final FluxDiffusion<Alerte> fluxAlertes = new FluxDiffusion<>(FluxDiffusion.TAILLE_TAMPON_DEFAUT);
+    private volatile ArchiveAlertes archive;
+    private final Map<String, LongAdder> retenuesParModule = new ConcurrentHashMap<>();
 
     /**
-     * Initialise la vigie avec un historique vide.
+     * Initialise la vigie avec un historique vide et le filtre par défaut.
      */
     public Vigie() {
-        this.historiqueAlertes = new ArrayList<>();
+        this(new FiltreAlertes());
     }
 
     /**
-     * Reçoit une alerte depuis un module spécialisé.
-     * Elle est enregistrée et affichée en console.
+     * Initialise la vigie avec un historique vide et le filtre donné.
+     *
+     * @param filtre filtre de déduplication et de débit, ou null pour tout accepter
+     */
+    public Vigie(FiltreAlertes filtre) {
+        this.historiqueAlertes = Collections.synchronizedList(new ArrayList<>());
+        this.filtre = filtre;
+    }
+
+    /**
+     * Reçoit une alerte textuelle, sans module ni entité associés.
+     * Le message lui-même sert de clé de déduplication.
      *
      * @param alerte message d’alerte reçu
+     * @return true si l'alerte a été retenue
+     */
+    public boolean recevoirAlerte(String alerte) {
+        return recevoirAlerte(new Alerte(null, null, alerte, alerte));
+    }
+
+    /**
+     * Reçoit une alerte depuis un module spécialisé.
+     * Si le filtre la retient, elle est enregistrée et affichée en console,
+     * ou mise en attente de regroupement si le mode digest est actif.
+     *
+     * @param alerte alerte reçue
+     * @return true si l'alerte a été retenue, false si elle a été écartée par le filtre
+     */
+    public boolean recevoirAlerte(Alerte alerte) {
+        EvenementsJfr.Alerte trace = new EvenementsJfr.Alerte();
+        trace.begin();
+        boolean retenue = retenir(alerte);
+        trace.end();
+        if (trace.shouldCommit()) {
+            trace.module = alerte.getModule();
+            trace.entite = alerte.getEntite() != null ? alerte.getEntite().getNom() : null;
+            trace.retenue = retenue;
+            trace.commit();
+        }
+        return retenue;
+    }
+
+    private boolean retenir(Alerte alerte) {
+        FiltreAlertes f = filtre;
+        if (f != null && !f.accepter(alerte)) {
+            return false;
+        }
+        String module = alerte.getModule() != null ? alerte.getModule() : SANS_MODULE;
+        LongAdder compteur = retenuesParModule.get(module);
+        if (compteur == null) {
+            compteur = retenuesParModule.computeIfAbsent(module, m -> new LongAdder());
+        }
+        compteur.increment();
+        DigestAlertes d = digest;
+        if (d == null || !d.ajouter(alerte)) {
+            emettre(alerte); // hors mode digest, ou regroupement fermé entre-temps par desactiverDigest
+        }
+        return true;
+    }
+
+    /**
+     * Historise et affiche une alerte retenue (ou un regroupement d'alertes).
+     *
+     * @param alerte alerte à transmettre
      */
-    public void recevoirAlerte(String alerte) {
+    private void emettre(Alerte alerte) {
         historiqueAlertes.add(alerte);
-        System.out.println("[VIGIE] " + alerte);
+        if (affichageConsole) {
+            System.out.println("[VIGIE] " + alerte.getMessage());
+        }
+        ArchiveAlertes a = archive;
+        if (a != null) {
+            a.archiver(alerte);
+        }
+        fluxAlertes.publier(alerte);
     }
 
     /**
-     * @return l’historique complet des alertes reçues
+     * Branche une archive persistante : chaque alerte historisée y est aussi ajoutée.
+     *
+     * @param archive archive des alertes, ou null pour ne plus archiver
      */
-    public List<String> getHistoriqueAlertes() {
+    public void setArchive(ArchiveAlertes archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * @return archive des alertes, ou null si aucune n'est branchée
+     */
+    public ArchiveAlertes getArchive() {
+        return archive;
+    }
+
+    /**
+     * @return nombre d'alertes retenues par module émetteur depuis le démarrage, triées par module
+     */
+    public Map<String, Long> getAlertesParModule() {
+        Map<String, Long> compteurs = new TreeMap<>();
+        retenuesParModule.forEach((module, compteur) -> compteurs.put(module, compteur.sum()));
+        return compteurs;
+    }
+
+    /**
+     * @return nombre d'alertes en attente de regroupement (0 hors mode digest)
+     */
+    public int getNombreAlertesEnAttente() {
+        DigestAlertes d = digest;
+        return d == null ? 0 : d.getNombreEnAttente();
+    }
+
+    /**
+     * Retourne le flux des alertes retenues (ou regroupées en mode digest).
+     *
+     * @return le flux des alertes
+     */
+    public Flow.Publisher<Alerte> getFluxAlertes() {
+        return fluxAlertes.getPublisher();
+    }
+
+    /**
+     * @return le diffuseur du flux des alertes (compteurs de pertes et de retard)
+     */
+    public FluxDiffusion<Alerte> getDiffuseurAlertes() {
+        return fluxAlertes;
+    }
+
+    /**
+     * Termine le flux des alertes : les abonnés reçoivent {@code onComplete}.
+     */
+    public void fermerFlux() {
+        fluxAlertes.close();
+    }
+
+    /**
+     * Active le mode digest : les alertes concernant une même entité pendant la fenêtre
+     * sont regroupées en une seule alerte, transmise à la fin de la fenêtre.
+     *
+     * @param fenetreMillis   durée de la fenêtre de regroupement, en millisecondes
+     * @param echantillonsMax nombre maximal de messages d'exemple par regroupement
+     */
+    public void activerDigest(long fenetreMillis, int echantillonsMax) {
+        desactiverDigest();
+        digest = new DigestAlertes(fenetreMillis, echantillonsMax, this::emettre);
+    }
+
+    /**
+     * Désactive le mode digest après avoir transmis les alertes en attente.
+     */
+    public void desactiverDigest() {
+        DigestAlertes d = digest;
+        digest = null;
+        if (d != null) {
+            d.close();
+        }
+    }
+
+    /**
+     * @return true si le mode digest est actif
+     */
+    public boolean isDigestActif() {
+        return digest != null;
+    }
+
+    /**
+     * Active ou désactive l'affichage immédiat des alertes en console
+     * (les alertes restent historisées dans tous les cas).
+     *
+     * @param affichageConsole true pour afficher chaque alerte reçue
+     */
+    public void setAffichageConsole(boolean affichageConsole) {
+        this.affichageConsole = affichageConsole;
+    }
+
+    /**
+     * @param filtre nouveau filtre de déduplication et de débit, ou null pour tout accepter
+     */
+    public void setFiltre(FiltreAlertes filtre) {
+        this.filtre = filtre;
+    }
+
+    /**
+     * @return filtre courant, ou null
+     */
+    public FiltreAlertes getFiltre() {
+        return filtre;
+    }
+
+    /**
+     * @return l’historique complet des alertes retenues (liste synchronisée)
+     */
+    public List<Alerte> getAlertes() {
         return historiqueAlertes;
     }
 
+    /**
+     * @return l’historique complet des messages d'alerte retenus (vue en lecture seule)
+     */
+    public List<String> getHistoriqueAlertes() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return historiqueAlertes.get(index).getMessage();
+            }
+
+            @Override
+            public int size() {
+                return historiqueAlertes.size();
+            }
+        };
+    }
+
     /**
      * Affiche tout l’historique des alertes en console.
      */
     public void afficherHistorique() {
         System.out.println("=== Historique des alertes ===");
-        for (String alerte : historiqueAlertes) {
-            System.out.println("- " + alerte);
+        synchronized (historiqueAlertes) {
+            for (Alerte alerte : historiqueAlertes) {
+                System.out.println("- " + alerte.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Affiche le nombre d'alertes écartées par le filtre.
+     */
+    public void afficherAlertesEcartees() {
+        FiltreAlertes filtre = this.filtre;
+        if (filtre == null) {
+            System.out.println("Aucun filtre actif.");
+            return;
         }
+        System.out.println("Alertes écartées comme doublons : " + filtre.getSupprimeesDoublon());
+        System.out.println("Alertes écartées par limitation de débit : " + filtre.getSupprimeesDebit());
+        filtre.getSupprimeesParEntite().forEach((entite, compteurs) ->
+                System.out.println("- " + entite + " : " + compteurs[0] + " doublon(s), " + compteurs[1] + " au-delà du débit"));
     }
 }
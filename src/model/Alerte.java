@@ -0,0 +1,71 @@
+package model;
+
+/**
+ * Représente une alerte émise par un module spécialisé à destination de la Vigie.
+ * Outre le message affiché, l'alerte indique le module émetteur, l'entité concernée
+ * et une clé identifiant le fait signalé : deux alertes de même clé décrivent le même fait.
+ */
+public class Alerte {
+    private final String module;
+    private final Entite entite;
+    private final String cle;
+    private final String message;
+    private final long horodatage;
+
+    /**
+     * Construit une alerte horodatée à l'instant présent.
+     *
+     * @param module  nom du module émetteur
+     * @param entite  entité concernée (personne surveillée, média...), ou null
+     * @param cle     clé identifiant le fait signalé
+     * @param message message lisible de l'alerte
+     */
+    public Alerte(String module, Entite entite, String cle, String message) {
+        this(module, entite, cle, message, System.currentTimeMillis());
+    }
+
+    /**
+     * Construit une alerte avec un horodatage explicite.
+     *
+     * @param module     nom du module émetteur
+     * @param entite     entité concernée, ou null
+     * @param cle        clé identifiant le fait signalé
+     * @param message    message lisible de l'alerte
+     * @param horodatage instant d'émission, en millisecondes depuis l'époque Unix
+     */
+    public Alerte(String module, Entite entite, String cle, String message, long horodatage) {
+        this.module = module;
+        this.entite = entite;
+        this.cle = cle;
+        this.message = message;
+        this.horodatage = horodatage;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public Entite getEntite() {
+        return entite;
+    }
+
+    public String getCle() {
+        return cle;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getHorodatage() {
+        return horodatage;
+    }
+
+    /**
+     * @return le message de l'alerte
+     */
+    @Override
+    public String toString() {
+        return message;
+    }
+}
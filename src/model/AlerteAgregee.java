@@ -0,0 +1,52 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Alerte regroupant toutes les alertes reçues pour une même entité pendant une fenêtre de temps.
+ * Elle indique le nombre d'alertes regroupées, les instants de la première et de la dernière,
+ * et quelques messages d'exemple.
+ *
+ * @see Alerte
+ */
+public class AlerteAgregee extends Alerte {
+    private final int nombre;
+    private final long premierHorodatage;
+    private final List<String> echantillons;
+
+    /**
+     * Construit une alerte agrégée.
+     *
+     * @param module            module émetteur des alertes regroupées (ou null s'il y en a plusieurs)
+     * @param entite            entité concernée
+     * @param cle               clé de regroupement
+     * @param message           message de synthèse
+     * @param nombre            nombre d'alertes regroupées
+     * @param premierHorodatage instant de la première alerte regroupée
+     * @param dernierHorodatage instant de la dernière alerte regroupée
+     * @param echantillons      messages de quelques alertes regroupées
+     */
+    public AlerteAgregee(String module, Entite entite, String cle, String message, int nombre,
+                         long premierHorodatage, long dernierHorodatage, List<String> echantillons) {
+        super(module, entite, cle, message, dernierHorodatage);
+        this.nombre = nombre;
+        this.premierHorodatage = premierHorodatage;
+        this.echantillons = echantillons;
+    }
+
+    public int getNombre() {
+        return nombre;
+    }
+
+    public long getPremierHorodatage() {
+        return premierHorodatage;
+    }
+
+    public long getDernierHorodatage() {
+        return getHorodatage();
+    }
+
+    public List<String> getEchantillons() {
+        return echantillons;
+    }
+}
@@ -0,0 +1,102 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * Texte d'une publication. Il est soit conservé tel quel sur le tas, soit stocké hors du tas
+ * (compressé) et désigné par une poignée : il n'est alors décompressé qu'au moment de la lecture,
+ * et n'est pas retenu en mémoire ensuite.
+ */
+public final class Contenu {
+    /**
+     * Stockage capable de relire un texte à partir de sa poignée.
+     */
+    public interface Source {
+        /**
+         * @param poignee poignée attribuée par le stockage
+         * @return le texte correspondant
+         */
+        String lire(long poignee);
+    }
+
+    private final String texte;
+    private final Source source;
+    private final long poignee;
+
+    private Contenu(String texte, Source source, long poignee) {
+        this.texte = texte;
+        this.source = source;
+        this.poignee = poignee;
+    }
+
+    /**
+     * @param texte texte conservé sur le tas
+     * @return le contenu correspondant
+     */
+    public static Contenu de(String texte) {
+        return new Contenu(texte, null, -1);
+    }
+
+    /**
+     * @param source  stockage hors tas
+     * @param poignee poignée du texte dans ce stockage
+     * @return un contenu relu à la demande depuis le stockage
+     */
+    public static Contenu horsTas(Source source, long poignee) {
+        return new Contenu(null, Objects.requireNonNull(source), poignee);
+    }
+
+    /**
+     * Retourne le texte, en le décompressant s'il est stocké hors du tas.
+     *
+     * @return le texte (null si aucun texte n'a été fourni)
+     */
+    public String texte() {
+        return source == null ? texte : source.lire(poignee);
+    }
+
+    /**
+     * @return true si le texte est stocké hors du tas
+     */
+    public boolean isHorsTas() {
+        return source != null;
+    }
+
+    /**
+     * @return le stockage hors tas, ou null
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * @return la poignée du texte dans le stockage hors tas, ou -1
+     */
+    public long getPoignee() {
+        return poignee;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Contenu autre)) {
+            return false;
+        }
+        if (source != null && source == autre.source && poignee == autre.poignee) {
+            return true; // même texte stocké, sans le relire
+        }
+        return Objects.equals(texte(), autre.texte());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(texte());
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(texte());
+    }
+}
@@ -3,26 +3,76 @@ package model;
 /**
  * Représente une participation dans une entité ou un média.
  * Une entité (propriétaire) détient un pourcentage de propriété sur une autre entité ou média (cible).
+ * <p>
+ * La part est conservée en virgule fixe, en millionièmes du capital ({@link #CAPITAL_TOTAL} = 100 %) :
+ * les sommes et les comparaisons aux seuils sont exactes, quel que soit le nombre de transferts.
+ * Le pourcentage en {@code double} n'est qu'une conversion aux frontières (saisie, import, affichage).
  *
  * @see Entite
  * @see Media
  */
 public class Participation {
+    /**
+     * Nombre de millionièmes du capital dans un point de pourcentage.
+     */
+    public static final int MILLIONIEMES_PAR_POURCENT = 10_000;
+
+    /**
+     * Totalité du capital, en millionièmes (100 %).
+     */
+    public static final int CAPITAL_TOTAL = 100 * MILLIONIEMES_PAR_POURCENT;
+
     private Entite proprietaire;
     private Entite cible;
-    private double pourcentage;
+    private int millioniemes;
 
     /**
      * Construit une nouvelle participation.
      *
      * @param proprietaire Entité propriétaire des parts
      * @param cible        Entité ou média possédé
-     * @param pourcentage  Pourcentage de parts détenues (entre 0 et 100)
+     * @param pourcentage  Pourcentage de parts détenues (entre 0 et 100), arrondi au millionième du capital
      */
     public Participation(Entite proprietaire, Entite cible, double pourcentage) {
+        this(proprietaire, cible, versMillioniemes(pourcentage));
+    }
+
+    private Participation(Entite proprietaire, Entite cible, int millioniemes) {
         this.proprietaire = proprietaire;
         this.cible = cible;
-        this.pourcentage = pourcentage;
+        this.millioniemes = millioniemes;
+    }
+
+    /**
+     * Construit une participation dont la part est donnée exactement.
+     *
+     * @param proprietaire Entité propriétaire des parts
+     * @param cible        Entité ou média possédé
+     * @param millioniemes part détenue, en millionièmes du capital (entre 0 et {@link #CAPITAL_TOTAL})
+     * @return la participation
+     */
+    public static Participation enMillioniemes(Entite proprietaire, Entite cible, int millioniemes) {
+        return new Participation(proprietaire, cible, millioniemes);
+    }
+
+    /**
+     * Convertit un pourcentage en millionièmes du capital, arrondis au plus proche.
+     *
+     * @param pourcentage pourcentage (entre 0 et 100)
+     * @return part en millionièmes
+     */
+    public static int versMillioniemes(double pourcentage) {
+        return (int) Math.round(pourcentage * MILLIONIEMES_PAR_POURCENT);
+    }
+
+    /**
+     * Convertit une part en millionièmes du capital en pourcentage.
+     *
+     * @param millioniemes part en millionièmes
+     * @return pourcentage correspondant
+     */
+    public static double versPourcentage(int millioniemes) {
+        return (double) millioniemes / MILLIONIEMES_PAR_POURCENT;
     }
 
     /**
@@ -49,7 +99,7 @@ public class Participation {
      * @return pourcentage de propriété (entre 0 et 100)
      */
     public double getPourcentage() {
-        return pourcentage;
+        return versPourcentage(millioniemes);
     }
 
     /**
@@ -58,7 +108,25 @@ public class Participation {
      * @param pourcentage nouveau pourcentage (entre 0 et 100)
      */
     public void setPourcentage(double pourcentage) {
-        this.pourcentage = pourcentage;
+        this.millioniemes = versMillioniemes(pourcentage);
+    }
+
+    /**
+     * Retourne la part détenue, exacte.
+     *
+     * @return part en millionièmes du capital
+     */
+    public int getMillioniemes() {
+        return millioniemes;
+    }
+
+    /**
+     * Définit une nouvelle part détenue.
+     *
+     * @param millioniemes nouvelle part, en millionièmes du capital
+     */
+    public void setMillioniemes(int millioniemes) {
+        this.millioniemes = millioniemes;
     }
 
     /**
@@ -80,6 +148,6 @@ public class Participation {
      */
     @Override
     public String toString() {
-        return proprietaire.getNom() + " détient " + pourcentage + "% de " + cible.getNom();
+        return proprietaire.getNom() + " détient " + getPourcentage() + "% de " + cible.getNom();
     }
 }
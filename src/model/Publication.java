@@ -0,0 +1,42 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Publication d'un média (article, reportage, interview) pouvant mentionner plusieurs entités.
+ * Le texte est porté par un {@link Contenu}, qui peut être stocké hors du tas.
+ *
+ * @param date            date de la publication
+ * @param source          média à l'origine de la publication
+ * @param corps           contenu de la publication
+ * @param typePublication type de publication (article, reportage, interview)
+ * @param mentions        entités mentionnées dans la publication
+ */
+public record Publication(LocalDate date, Media source, Contenu corps, String typePublication,
+                          List<Entite> mentions) implements Evenement {
+
+    public Publication {
+        corps = corps == null ? Contenu.de(null) : corps;
+        mentions = mentions == null ? List.of() : List.copyOf(mentions);
+    }
+
+    /**
+     * Construit une publication dont le texte est conservé sur le tas.
+     */
+    public Publication(LocalDate date, Media source, String contenu, String typePublication, List<Entite> mentions) {
+        this(date, source, Contenu.de(contenu), typePublication, mentions);
+    }
+
+    /**
+     * @return le texte de la publication (décompressé à chaque appel s'il est stocké hors du tas)
+     */
+    public String contenu() {
+        return corps.texte();
+    }
+
+    @Override
+    public TypeEvenement type() {
+        return TypeEvenement.PUBLICATION;
+    }
+}
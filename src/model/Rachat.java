@@ -0,0 +1,58 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rachat de parts d'une entité (média ou organisation) par une autre entité.
+ *
+ * @param date              date du rachat
+ * @param acheteur          entité acheteuse
+ * @param vendeur           entité vendeuse
+ * @param cible             entité dont les parts sont transférées
+ * @param description       description ou résumé du rachat
+ * @param pourcentage       pourcentage des parts transférées
+ * @param etatProprietaires répartition des parts de la cible après validation du rachat,
+ *                          ou null si le rachat n'a pas (encore) été validé
+ */
+public record Rachat(LocalDate date, Entite acheteur, Entite vendeur, Entite cible, String description,
+                     double pourcentage, List<Participation> etatProprietaires) implements Evenement {
+
+    /**
+     * La répartition des parts est copiée : le rachat reste immuable même si la liste fournie est modifiée.
+     */
+    public Rachat {
+        etatProprietaires = etatProprietaires == null ? null : List.copyOf(etatProprietaires);
+    }
+
+    /**
+     * Construit un rachat non encore validé.
+     */
+    public Rachat(LocalDate date, Entite acheteur, Entite vendeur, Entite cible, String description, double pourcentage) {
+        this(date, acheteur, vendeur, cible, description, pourcentage, null);
+    }
+
+    @Override
+    public TypeEvenement type() {
+        return TypeEvenement.RACHAT;
+    }
+
+    /**
+     * Retourne une copie de ce rachat portant la répartition des parts résultant du transfert.
+     *
+     * @param etat copie des participations de la cible après le transfert
+     * @return le rachat validé
+     */
+    public Rachat avecEtatProprietaires(List<Participation> etat) {
+        return new Rachat(date, acheteur, vendeur, cible, description, pourcentage, etat);
+    }
+
+    /**
+     * Méthode pour afficher une description d'un rachat
+     * @return une chaîne de caractères décrivant le rachat
+     */
+    public String descriptionRachat() {
+        return acheteur.getNom() + " a acquis " + pourcentage + "% de " +
+                        cible.getNom() + " auprès de " + vendeur.getNom();
+    }
+}
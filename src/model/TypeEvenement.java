@@ -0,0 +1,44 @@
+package model;
+
+/**
+ * Nature d'un événement. Le nom en minuscules est celui utilisé dans les fichiers d'événements
+ * et les abonnements ("publication", "rachat").
+ */
+public enum TypeEvenement {
+    PUBLICATION("publication"),
+    RACHAT("rachat");
+
+    private final String nom;
+
+    TypeEvenement(String nom) {
+        this.nom = nom;
+    }
+
+    /**
+     * @return le nom de la nature d'événement, en minuscules
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Retrouve une nature d'événement par son nom, sans tenir compte de la casse.
+     *
+     * @param nom nom recherché ("publication" ou "rachat")
+     * @return la nature correspondante
+     * @throws IllegalArgumentException si le nom est inconnu
+     */
+    public static TypeEvenement depuisNom(String nom) {
+        for (TypeEvenement type : values()) {
+            if (type.nom.equalsIgnoreCase(nom.trim())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Type d'événement inconnu : " + nom);
+    }
+
+    @Override
+    public String toString() {
+        return nom;
+    }
+}
@@ -1,11 +1,17 @@
 package modules;
 
 import core.ModuleSpecialise;
+import core.Regle;
 import core.Vigie;
+import model.Alerte;
 import model.Evenement;
 import model.Media;
+import model.Rachat;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -13,6 +19,8 @@ import java.util.List;
  * Ce module déclenche une alerte à la Vigie si un média surveillé est la cible d'un rachat.
  */
 public class ModuleSuiviMedia implements ModuleSpecialise {
+    private static final String NOM_MODULE = "ModuleSuiviMedia";
+
     /**
      * Liste des médias surveillés par ce module.
      */
@@ -24,9 +32,14 @@ public class ModuleSuiviMedia implements ModuleSpecialise {
     private final Vigie vigie;
 
     /**
-     * Historique des événements traités par ce module.
+     * Historique des événements traités par ce module (au plus {@link #tailleHistorique} s'il est positif).
+     */
+    private final Deque<String> historique = new ArrayDeque<>();
+
+    /**
+     * Nombre maximal d'événements conservés dans l'historique, ou 0 pour un historique illimité.
      */
-    private final List<String> historique = new ArrayList<>();
+    private final int tailleHistorique;
 
     /**
      * Construit un module pour surveiller une liste de médias.
@@ -35,8 +48,20 @@ public class ModuleSuiviMedia implements ModuleSpecialise {
      * @param vigie            instance de la Vigie à alerter
      */
     public ModuleSuiviMedia(List<Media> mediasSurveilles, Vigie vigie) {
+        this(mediasSurveilles, vigie, 0);
+    }
+
+    /**
+     * Construit un module pour surveiller une liste de médias, en bornant son historique.
+     *
+     * @param mediasSurveilles liste des médias à surveiller
+     * @param vigie            instance de la Vigie à alerter
+     * @param tailleHistorique nombre maximal d'événements conservés, ou 0 pour un historique illimité
+     */
+    public ModuleSuiviMedia(List<Media> mediasSurveilles, Vigie vigie, int tailleHistorique) {
         this.mediasSurveilles = mediasSurveilles;
         this.vigie = vigie;
+        this.tailleHistorique = Math.max(0, tailleHistorique);
     }
 
     /**
@@ -47,30 +72,53 @@ public class ModuleSuiviMedia implements ModuleSpecialise {
      */
     @Override
     public void traiter(Evenement evenement) {
-        // Ajoute l'événement à l'historique
-        historique.add(evenement.getContenu());
+        // Ne traite que les rachats
+        if (!(evenement instanceof Rachat rachat)) return;
 
-        // Ne traite que les événements de type "rachat"
-        if (!evenement.getType().equalsIgnoreCase("rachat")) return;
+        // Ajoute l'événement à l'historique, en oubliant le plus ancien au-delà de la taille maximale
+        String description = rachat.descriptionRachat();
+        if (tailleHistorique > 0 && historique.size() == tailleHistorique) {
+            historique.removeFirst();
+        }
+        historique.addLast(rachat.date() + " : " + description);
 
         // Vérifie si l'événement concerne un média surveillé
         for (Media m : mediasSurveilles) {
-            if (evenement.getCible() instanceof Media cible && cible.equals(m)) {
+            if (rachat.cible() instanceof Media cible && cible.equals(m)) {
                 String alerte = "Rachat concernant " + m.getNom() + " le "
-                        + evenement.getDate() + " : " + evenement.descriptionRachat();
-                vigie.recevoirAlerte(alerte);
+                        + rachat.date() + " : " + description;
+                String cle = "media|" + m.getNom() + "|" + rachat.date() + "|" + description;
+                vigie.recevoirAlerte(new Alerte(NOM_MODULE, m, cle, alerte));
                 break;
             }
         }
     }
 
+    /**
+     * Le module n'est concerné que par les rachats d'un média surveillé.
+     *
+     * @return la règle d'abonnement du module
+     */
+    @Override
+    public List<Regle> regles() {
+        return List.of(new Regle.RachatCible(new HashSet<>(mediasSurveilles)));
+    }
+
     /**
      * Retourne l'historique des événements traités par ce module.
      *
-     * @return la liste des événements traités
+     * @return copie des événements conservés, du plus ancien au plus récent
      */
     public List<String> getHistorique() {
-        return historique;
+        return new ArrayList<>(historique);
+    }
+
+    /**
+     * @return description du module et des médias surveillés
+     */
+    @Override
+    public String toString() {
+        return "Suivi des médias : " + String.join(", ", mediasSurveilles.stream().map(Media::getNom).toList());
     }
 
     /**
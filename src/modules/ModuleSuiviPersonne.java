@@ -1,17 +1,22 @@
 package modules;
 
 import core.ModuleSpecialise;
+import core.Regle;
 import core.Vigie;
+import model.Alerte;
 import model.Evenement;
 import model.Media;
 import model.PersonnePhysique;
 import model.Participation;
+import model.Publication;
 import core.ParticipationService;
+import core.StatistiquesMentions;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Module chargé de surveiller des personnes physiques dans les publications.
@@ -19,6 +24,8 @@ import java.util.Map;
  * est faite par un média détenu par une personne surveillée.
  */
 public class ModuleSuiviPersonne implements ModuleSpecialise {
+    private static final String NOM_MODULE = "ModuleSuiviPersonne";
+
     /**
      * Liste des personnes physiques surveillées par ce module.
      */
@@ -30,14 +37,19 @@ public class ModuleSuiviPersonne implements ModuleSpecialise {
     private final Vigie vigie;
 
     /**
-     * Historique des événements traités par ce module.
+     * Dernières publications traitées par ce module (au plus {@link #tailleHistorique} si elle est positive).
      */
-    private final List<Evenement> historique = new ArrayList<>();
+    private final Deque<Publication> historique = new ArrayDeque<>();
 
     /**
-     * Map pour suivre le nombre de mentions par média.
+     * Nombre maximal de publications conservées dans l'historique, ou 0 pour un historique illimité.
      */
-    private final Map<Media, Integer> mentionsParMedia = new HashMap<>();
+    private final int tailleHistorique;
+
+    /**
+     * Nombre de mentions par média sur la dernière heure, le dernier jour, la dernière semaine et en tendance.
+     */
+    private final StatistiquesMentions mentionsParMedia = new StatistiquesMentions();
 
     /**
      * Service pour obtenir les participations des médias.
@@ -52,9 +64,23 @@ public class ModuleSuiviPersonne implements ModuleSpecialise {
      * @param participationService service pour obtenir les participations des médias
      */
     public ModuleSuiviPersonne(List<PersonnePhysique> personnesSurveillees, Vigie vigie, ParticipationService participationService) {
+        this(personnesSurveillees, vigie, participationService, 0);
+    }
+
+    /**
+     * Construit un module pour surveiller une liste de personnes, en bornant son historique.
+     *
+     * @param personnesSurveillees liste des personnes physiques à surveiller
+     * @param vigie                instance de la Vigie à alerter
+     * @param participationService service pour obtenir les participations des médias
+     * @param tailleHistorique     nombre maximal de publications conservées, ou 0 pour un historique illimité
+     */
+    public ModuleSuiviPersonne(List<PersonnePhysique> personnesSurveillees, Vigie vigie, ParticipationService participationService,
+                               int tailleHistorique) {
         this.personnesSurveillees = personnesSurveillees;
         this.vigie = vigie;
         this.participationService = participationService;
+        this.tailleHistorique = Math.max(0, tailleHistorique);
     }
 
     /**
@@ -65,54 +91,88 @@ public class ModuleSuiviPersonne implements ModuleSpecialise {
      */
     @Override
     public void traiter(Evenement evenement) {
-        // Ajoute l'événement à l'historique
-        historique.add(evenement);
-
-        // Ne traite que les événements de type "publication"
-        if (!"publication".equalsIgnoreCase(evenement.getType())) {
+        // Ne traite que les publications
+        if (!(evenement instanceof Publication publication)) {
             return;
         }
 
+        // Ajoute l'événement à l'historique, en oubliant le plus ancien au-delà de la taille maximale
+        if (tailleHistorique > 0 && historique.size() == tailleHistorique) {
+            historique.removeFirst();
+        }
+        historique.addLast(publication);
+
+        // Le contenu peut être stocké hors tas : il n'est relu qu'une fois par publication,
+        // comme les propriétaires du média source
+        Media media = publication.source();
+        String contenu = publication.contenu();
+        String contenuMinuscule = contenu.toLowerCase();
+        List<Participation> proprietairesMedia = media != null ? participationService.getProprietaires(media) : List.of();
         for (PersonnePhysique personne : personnesSurveillees) {
-            boolean mentionDansContenu = evenement.getContenu().toLowerCase().contains(personne.getNom().toLowerCase());
-            boolean mentionDansListe = evenement.getMentions().contains(personne);
+            boolean mentionDansContenu = contenuMinuscule.contains(personne.getNom().toLowerCase());
+            boolean mentionDansListe = publication.mentions().contains(personne);
             boolean possedeMedia = false;
-            if (evenement.getSource() instanceof Media media) {
-                List<Participation> participations = participationService.getProprietaires(media);
-                for (Participation participation : participations) {
-                    if (participation.getProprietaire().equals(personne)) {
-                        possedeMedia = true;
-                        break;
-                    }
+            for (Participation participation : proprietairesMedia) {
+                if (participation.getProprietaire().equals(personne)) {
+                    possedeMedia = true;
+                    break;
                 }
             }
 
-            // Envoie une alerte selon les conditions
+            // Envoie une alerte selon les conditions ; les trois alertes portent la même clé
+            // (personne + publication), la Vigie n'en retient donc qu'une par fenêtre
+            String cle = "personne|" + personne.getNom() + "|" + cleDePublication(publication, contenu);
             if (mentionDansContenu) {
-                vigie.recevoirAlerte(String.format("Publication concernant %s le %s : %s",
-                        personne.getNom(), evenement.getDate(), evenement.getContenu()));
+                vigie.recevoirAlerte(new Alerte(NOM_MODULE, personne, cle, String.format("Publication concernant %s le %s : %s",
+                        personne.getNom(), publication.date(), contenu)));
             }
             if (mentionDansListe) {
-                vigie.recevoirAlerte(String.format("Publication mentionnant %s le %s : %s",
-                        personne.getNom(), evenement.getDate(), evenement.getContenu()));
+                vigie.recevoirAlerte(new Alerte(NOM_MODULE, personne, cle, String.format("Publication mentionnant %s le %s : %s",
+                        personne.getNom(), publication.date(), contenu)));
             }
             if (possedeMedia) {
-                if (evenement.getSource() instanceof Media media) {
-                    mentionsParMedia.merge(media, 1, Integer::sum);
-                    vigie.recevoirAlerte(String.format("Publication par un média détenu par %s : %s",
-                            personne.getNom(), evenement.getContenu()));
-                }
+                mentionsParMedia.enregistrer(media);
+                vigie.recevoirAlerte(new Alerte(NOM_MODULE, personne, cle, String.format("Publication par un média détenu par %s : %s",
+                        personne.getNom(), contenu)));
             }
         }
     }
 
     /**
-     * Retourne l'historique des événements traités par ce module.
+     * Le module n'est concerné que par les publications citant une personne surveillée
+     * ou émises par un média qu'elle détient.
+     *
+     * @return les règles d'abonnement du module
+     */
+    @Override
+    public List<Regle> regles() {
+        HashSet<PersonnePhysique> personnes = new HashSet<>(personnesSurveillees);
+        return List.of(new Regle.PublicationCitant(personnes), new Regle.PublicationDeMediaDetenuPar(personnes));
+    }
+
+    /**
+     * Construit l'identifiant d'une publication : média source, date et contenu.
+     */
+    private static String cleDePublication(Publication publication, String contenu) {
+        String nomSource = publication.source() != null ? publication.source().getNom() : "null";
+        return nomSource + "|" + publication.date() + "|" + contenu;
+    }
+
+    /**
+     * Retourne les dernières publications traitées par ce module.
      *
-     * @return la liste des événements traités
+     * @return copie des publications conservées, de la plus ancienne à la plus récente
+     */
+    public List<Publication> getHistorique() {
+        return new ArrayList<>(historique);
+    }
+
+    /**
+     * @return description du module et des personnes surveillées
      */
-    public List<Evenement> getHistorique() {
-        return historique;
+    @Override
+    public String toString() {
+        return "Suivi des personnes : " + String.join(", ", personnesSurveillees.stream().map(PersonnePhysique::getNom).toList());
     }
 
     /**
@@ -120,20 +180,24 @@ public class ModuleSuiviPersonne implements ModuleSpecialise {
      */
     public void afficherHistorique() {
         System.out.println("\n=== Historique des publications concernant les personnes surveillées ===");
-        for (Evenement evenement : historique) {
-            System.out.println("- " + evenement.getDate() + " : " + evenement.getDescription());
+        for (Publication publication : historique) {
+            System.out.println("- " + publication.date() + " : " + publication.contenu());
         }
     }
 
     /**
-     * Affiche le pourcentage de mentions par média pour les personnes surveillées.
+     * @return les statistiques de mentions par média pour les personnes surveillées
+     */
+    public StatistiquesMentions getMentionsParMedia() {
+        return mentionsParMedia;
+    }
+
+    /**
+     * Affiche le pourcentage de mentions par média pour les personnes surveillées,
+     * sur chaque fenêtre glissante et en tendance.
      */
     public void afficherPourcentageMentionsParMedia() {
         System.out.println("\n=== Pourcentage de mentions par média ===");
-        int totalMentions = mentionsParMedia.values().stream().mapToInt(Integer::intValue).sum();
-        for (Map.Entry<Media, Integer> entry : mentionsParMedia.entrySet()) {
-            double pourcentage = (entry.getValue() * 100.0) / totalMentions;
-            System.out.printf("- %s : %.2f%%\n", entry.getKey().getNom(), pourcentage);
-        }
+        mentionsParMedia.afficher();
     }
 }
@@ -5,21 +5,42 @@ import model.*;
 import modules.ModuleSuiviMedia;
 import modules.ModuleSuiviPersonne;
 
-import java.text.Normalizer;
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Interface console permettant de simuler les interactions avec le système de surveillance :
  * importation, affichages, simulations d’événements, historique, classements.
  */
 public class ConsoleApp {
+    private static final String CHEMIN_OUTBOX = "data/outbox.log";
+    private static final String CHEMIN_JOURNAL = "data/vigie.wal";
+    private static final String CHEMIN_INSTANTANE = "data/vigie.snapshot";
+    private static final String REPERTOIRE_ARCHIVE = "data/alertes";
+    private static final int LIMITE_RECHERCHE_ARCHIVE = 100;
+    private static final int NOMBRE_SUGGESTIONS = 10;
+    private static final int TAILLE_PAGE = 20;
+    private static final int NOMBRE_ECHANTILLONS_DIGEST = 3;
+
     private final Scanner scanner = new Scanner(System.in);
     private final ParticipationService participationService = new ParticipationService();
     private final Vigie vigie = new Vigie();
     private final SystemeEvenementiel systeme = new SystemeEvenementiel(participationService);
     private final DataImport dataImport = new DataImport();
 
+    private JournalMutations journal;
+    private ArchiveAlertes archive;
+    private MetriquesJmx metriques;
     private ModuleSuiviPersonne modulePersonne;
     private ModuleSuiviMedia moduleMedia;
 
@@ -33,9 +54,21 @@ public class ConsoleApp {
         // Vérification des erreurs d'importation
         afficherErreursImportation();
 
+        // Restauration des mutations de la session précédente (instantané + journal)
+        initialiserJournal();
+
+        // Ouverture de l'archive des alertes des sessions précédentes
+        initialiserArchive();
+
         // Initialisation des modules spécialisés
         initialiserModules();
 
+        // Reprise des événements validés mais non diffusés lors de la session précédente
+        initialiserOutbox();
+
+        // Exposition des métriques d'exécution par JMX
+        initialiserMetriques();
+
         // Menu interactif
         boolean continuer = true;
         while (continuer) {
@@ -51,6 +84,15 @@ public class ConsoleApp {
             }
         }
 
+        vigie.desactiverDigest();
+        vigie.fermerFlux();
+        systeme.fermerFlux();
+        fermerJournal();
+        fermerOutbox();
+        fermerArchive();
+        if (metriques != null) {
+            metriques.close();
+        }
         System.out.println("Fin de l'application.");
     }
 
@@ -63,7 +105,7 @@ public class ConsoleApp {
                 1. Affichages
                 2. Simulations d'événements
                 3. Historiques
-                4. S'abonner à des médias ou personnes
+                4. Gérer les abonnements aux médias ou personnes
                 0. Quitter
                 """);
         System.out.print("Votre choix : ");
@@ -82,6 +124,7 @@ public class ConsoleApp {
                     3. Afficher les entités par nombre de médias possédés
                     4. Afficher les entités par nombre d'organisations possédées
                     5. Saisir une entité pour afficher ses propriétaires et propriétés
+                    6. Estimer l'empreinte mémoire du modèle
                     0. Retour au menu principal
                     """);
             System.out.print("Votre choix : ");
@@ -92,6 +135,7 @@ public class ConsoleApp {
                 case "3" -> afficherClassementMedias();
                 case "4" -> afficherClassementOrganisations();
                 case "5" -> rechercherEntiteParNomExact();
+                case "6" -> afficherEmpreinteMemoire();
                 case "0" -> continuer = false;
                 default -> System.out.println("Choix invalide.");
             }
@@ -131,6 +175,9 @@ public class ConsoleApp {
                     \n=== HISTORIQUES ===
                     1. Afficher l'historique des publications
                     2. Afficher l'historique des alertes
+                    3. Activer ou désactiver le regroupement des alertes (digest)
+                    4. Afficher le nombre de publications par média et par mois
+                    5. Rechercher dans l'archive des alertes
                     0. Retour au menu principal
                     """);
             System.out.print("Votre choix : ");
@@ -138,6 +185,9 @@ public class ConsoleApp {
             switch (choix) {
                 case "1" -> afficherHistoriquePublications();
                 case "2" -> afficherAlertes();
+                case "3" -> configurerDigest();
+                case "4" -> afficherPublicationsParMois();
+                case "5" -> rechercherDansArchive();
                 case "0" -> continuer = false;
                 default -> System.out.println("Choix invalide.");
             }
@@ -145,22 +195,60 @@ public class ConsoleApp {
     }
 
     /**
-     * Permet à l'utilisateur de s'abonner à des médias ou personnes.
+     * Permet à l'utilisateur de s'abonner à des médias ou personnes, ou de se désabonner.
      */
     private void sAbonner() {
-        System.out.println("\n=== S'ABONNER À DES MÉDIAS OU PERSONNES ===");
+        System.out.println("\n=== GÉRER LES ABONNEMENTS ===");
         System.out.println("1. S'abonner à des médias");
         System.out.println("2. S'abonner à des personnes");
+        System.out.println("3. Se désabonner");
         System.out.print("Votre choix : ");
         String choix = scanner.nextLine();
 
         switch (choix) {
             case "1" -> sAbonnerMedias();
             case "2" -> sAbonnerPersonnes();
+            case "3" -> seDesabonner();
             default -> System.out.println("Choix invalide.");
         }
     }
 
+    /**
+     * Liste les modules abonnés et désabonne celui choisi par l'utilisateur.
+     */
+    private void seDesabonner() {
+        List<TypeEvenement> types = new ArrayList<>();
+        List<ModuleSpecialise> modules = new ArrayList<>();
+        systeme.getAbonnements().forEach((type, abonnes) -> abonnes.forEach(module -> {
+            types.add(type);
+            modules.add(module);
+        }));
+        if (modules.isEmpty()) {
+            System.out.println("Aucun abonnement en cours.");
+            return;
+        }
+
+        System.out.println("\n=== ABONNEMENTS EN COURS ===");
+        for (int i = 0; i < modules.size(); i++) {
+            System.out.println((i + 1) + ". [" + types.get(i) + "] " + modules.get(i));
+        }
+        System.out.print("Numéro de l'abonnement à retirer : ");
+        try {
+            int i = Integer.parseInt(scanner.nextLine().trim()) - 1;
+            if (i < 0 || i >= modules.size()) {
+                System.out.println("Numéro invalide : " + (i + 1));
+                return;
+            }
+            if (systeme.desabonner(types.get(i), modules.get(i))) {
+                System.out.println("Désabonnement effectué.");
+            } else {
+                System.out.println("Cet abonnement a déjà été retiré.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Entrée invalide.");
+        }
+    }
+
     /**
      * Permet de s'abonner à des médias.
      */
@@ -200,7 +288,7 @@ public class ConsoleApp {
 
         if (!mediasSelectionnes.isEmpty()) {
             moduleMedia = new ModuleSuiviMedia(mediasSelectionnes, vigie);
-            systeme.abonner("rachat", moduleMedia);
+            systeme.abonner(TypeEvenement.RACHAT, moduleMedia);
             System.out.println("Abonnement aux médias sélectionnés effectué.");
         } else {
             System.out.println("Aucun média sélectionné.");
@@ -246,7 +334,7 @@ public class ConsoleApp {
 
         if (!personnesSelectionnees.isEmpty()) {
             modulePersonne = new ModuleSuiviPersonne(personnesSelectionnees, vigie, participationService);
-            systeme.abonner("publication", modulePersonne);
+            systeme.abonner(TypeEvenement.PUBLICATION, modulePersonne);
             System.out.println("Abonnement aux personnes sélectionnées effectué.");
         } else {
             System.out.println("Aucune personne sélectionnée.");
@@ -254,21 +342,48 @@ public class ConsoleApp {
     }
 
     /**
-     * Affiche toutes les entités connues, triées alphabétiquement.
+     * Affiche toutes les entités connues, triées alphabétiquement, page par page.
      */
     private void afficherEntites() {
-        List<String> noms = new ArrayList<>(participationService.getEntites().keySet());
-        noms.sort(String::compareTo);
-        for (String nom : noms) {
-            System.out.println("- " + nom);
-        }
+        parcourirPages(participationService::listerEntites, Entite::getNom);
     }
 
     /**
-     * Affiche la liste des participations enregistrées.
+     * Affiche la liste des participations enregistrées, page par page.
      */
     private void afficherParticipations() {
-        participationService.afficherParticipations();
+        parcourirPages(participationService::listerParticipations, Participation::toString);
+    }
+
+    /**
+     * Affiche une liste page par page, en laissant l'utilisateur passer à la page suivante ou arrêter.
+     *
+     * @param lecture lecture d'une page à partir d'un curseur (null pour la première)
+     * @param format  présentation d'un élément
+     */
+    private <T> void parcourirPages(BiFunction<String, Integer, Page<T>> lecture, Function<T, String> format) {
+        String curseur = null;
+        int numero = 1;
+        while (true) {
+            Page<T> page = lecture.apply(curseur, TAILLE_PAGE);
+            if (page.elements().isEmpty() && numero == 1) {
+                System.out.println("Aucun élément.");
+                return;
+            }
+            System.out.println("--- Page " + numero + " ---");
+            for (T element : page.elements()) {
+                System.out.println("- " + format.apply(element));
+            }
+            if (!page.aSuite()) {
+                return;
+            }
+            System.out.print("Entrée : page suivante, q : arrêter ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            curseur = page.curseurSuivant();
+            numero++;
+        }
     }
 
     /**
@@ -303,23 +418,32 @@ public class ConsoleApp {
                 .forEach(entry -> System.out.println(entry.getKey().getNom() + " : " + entry.getValue() + " organisation(s)"));
     }
 
+    /**
+     * Estime et affiche l'empreinte mémoire des entités, participations, événements et alertes,
+     * et des structures des services.
+     */
+    private void afficherEmpreinteMemoire() {
+        System.out.println();
+        BilanMemoire.etablir(participationService, systeme, vigie).afficher(System.out);
+    }
+
     /**
      * Recherche une entité par nom complet (normalisé).
-     * Si une entité est trouvée, affiche ses propriétaires et propriétés.
+     * Si une entité est trouvée, affiche ses propriétaires et propriétés,
+     * sinon propose les noms les plus proches.
      */
     private Entite rechercherEntiteParNomExact() {
         System.out.print("Entrez le nom de l'entité : ");
-        String saisie = normaliser(scanner.nextLine());
+        String saisie = scanner.nextLine();
 
-        for (Entite e : participationService.getEntites().values()) {
-            if (normaliser(e.getNom()).equals(saisie)) {
-                afficherDetailsEntite(e);
-                return e;
-            }
+        Entite e = participationService.getIndexRecherche().rechercherExact(saisie);
+        if (e != null) {
+            afficherDetailsEntite(e);
+            return e;
         }
 
         System.out.println("Aucune entité ne correspond exactement.");
-        afficherEntitesDisponibles();
+        afficherEntitesDisponibles(saisie);
         return null;
     }
 
@@ -358,23 +482,22 @@ public class ConsoleApp {
     }
 
     /**
-     * Affiche les entités disponibles si une recherche échoue.
-     */
-    private void afficherEntitesDisponibles() {
-        System.out.println("Entités disponibles :");
-        participationService.getEntites().values().stream()
-                .map(Entite::getNom)
-                .sorted()
-                .forEach(nom -> System.out.println("- " + nom));
-    }
-
-    /**
-     * Supprime les accents, les espaces et met la chaîne en minuscules pour comparaison stricte.
+     * Affiche les entités dont le nom commence par la saisie ou lui ressemble, si une recherche échoue.
+     *
+     * @param saisie nom saisi par l'utilisateur
      */
-    private String normaliser(String s) {
-        return Normalizer.normalize(s, Normalizer.Form.NFD)
-                .replaceAll("[\\p{InCombiningDiacriticalMarks}\\s]", "")
-                .toLowerCase();
+    private void afficherEntitesDisponibles(String saisie) {
+        IndexRecherche index = participationService.getIndexRecherche();
+        Set<Entite> suggestions = new LinkedHashSet<>(index.completer(saisie, NOMBRE_SUGGESTIONS));
+        suggestions.addAll(index.suggerer(saisie, NOMBRE_SUGGESTIONS - suggestions.size()));
+        if (suggestions.isEmpty()) {
+            System.out.println("Aucun nom approchant.");
+            return;
+        }
+        System.out.println("Vouliez-vous dire :");
+        for (Entite suggestion : suggestions) {
+            System.out.println("- " + suggestion.getNom());
+        }
     }
 
     /**
@@ -399,7 +522,7 @@ public class ConsoleApp {
         Entite personne = participationService.getEntiteParNom("vincent bolloré");
         if (personne instanceof PersonnePhysique) {
             modulePersonne = new ModuleSuiviPersonne(List.of((PersonnePhysique) personne), vigie, participationService);
-            systeme.abonner("publication", modulePersonne);
+            systeme.abonner(TypeEvenement.PUBLICATION, modulePersonne);
         } else {
             System.err.println("Erreur : L'entité 'vincent bolloré' n'a pas été trouvée ou n'est pas une PersonnePhysique.");
         }
@@ -407,12 +530,115 @@ public class ConsoleApp {
         Entite media = participationService.getEntiteParNom("le monde");
         if (media instanceof Media) {
             moduleMedia = new ModuleSuiviMedia(List.of((Media) media), vigie);
-            systeme.abonner("rachat", moduleMedia);
+            systeme.abonner(TypeEvenement.RACHAT, moduleMedia);
         } else {
             System.err.println("Erreur : L'entité 'le monde' n'a pas été trouvée ou n'est pas un Media.");
         }
     }
 
+    /**
+     * Ouvre le journal des mutations, restaure l'état de la session précédente
+     * puis active la journalisation des nouvelles mutations.
+     */
+    private void initialiserJournal() {
+        try {
+            journal = new JournalMutations(Path.of(CHEMIN_JOURNAL), Path.of(CHEMIN_INSTANTANE));
+            int rejouees = journal.restaurer(participationService);
+            if (rejouees > 0) {
+                System.out.println(rejouees + " mutation(s) rejouée(s) depuis le journal.");
+            }
+            participationService.setJournal(journal);
+        } catch (IOException e) {
+            System.err.println("Journal indisponible, les mutations ne seront pas persistées : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sauvegarde un instantané des participations (ce qui vide le journal) puis ferme le journal.
+     */
+    private void fermerJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.sauvegarderInstantane(participationService);
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture du journal : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ouvre l'archive persistante des alertes et la branche sur la Vigie.
+     */
+    private void initialiserArchive() {
+        try {
+            archive = new ArchiveAlertes(Path.of(REPERTOIRE_ARCHIVE), participationService::getEntiteParNom);
+            vigie.setArchive(archive);
+        } catch (IOException e) {
+            System.err.println("Archive des alertes indisponible, les alertes ne seront pas conservées : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scelle le segment en cours et ferme l'archive des alertes.
+     */
+    private void fermerArchive() {
+        if (archive == null) {
+            return;
+        }
+        vigie.setArchive(null);
+        try {
+            archive.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture de l'archive des alertes : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Détache et ferme la boîte d'envoi. Les entrées en attente seront rediffusées au prochain démarrage.
+     */
+    private void fermerOutbox() {
+        Outbox outbox = systeme.getOutbox();
+        if (outbox == null) {
+            return;
+        }
+        systeme.setOutbox(null);
+        try {
+            outbox.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture de la boîte d'envoi : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ouvre la boîte d'envoi persistante et rediffuse les événements restés en attente.
+     */
+    private void initialiserOutbox() {
+        try {
+            systeme.setOutbox(new Outbox(Path.of(CHEMIN_OUTBOX)));
+            int rediffuses = systeme.reprendreOutbox();
+            if (rediffuses > 0) {
+                System.out.println(rediffuses + " événement(s) en attente rediffusé(s) depuis la boîte d'envoi.");
+            }
+        } catch (IOException e) {
+            System.err.println("Boîte d'envoi indisponible, les rachats ne seront pas persistés : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Enregistre les MXBeans des métriques d'exécution (domaine « vigie »).
+     */
+    private void initialiserMetriques() {
+        try {
+            metriques = new MetriquesJmx(systeme, vigie, participationService, dataImport);
+            metriques.enregistrer();
+        } catch (JMException e) {
+            metriques = null;
+            System.err.println("Métriques JMX indisponibles : " + e.getMessage());
+        }
+    }
+
     /**
      * Simule une publication mentionnant plusieurs entités.
      */
@@ -433,10 +659,13 @@ public class ConsoleApp {
         System.out.print("Type de publication (article, reportage, interview) : ");
         String typePublication = scanner.nextLine();
 
-        System.out.print("Entrez les noms des entités mentionnées (séparés par des virgules) : ");
+        System.out.print("Autres entités mentionnées, séparées par des virgules (facultatif, les entités citées dans le contenu sont détectées) : ");
         String saisieMentions = scanner.nextLine();
         List<Entite> mentions = new ArrayList<>();
         for (String nom : saisieMentions.split(",")) {
+            if (nom.isBlank()) {
+                continue;
+            }
             Entite entite = participationService.getEntiteParNom(nom.trim());
             if (entite != null) {
                 mentions.add(entite);
@@ -445,7 +674,7 @@ public class ConsoleApp {
             }
         }
 
-        Evenement publication = new Evenement(
+        Publication publication = new Publication(
                 LocalDate.now(),
                 media,
                 contenu,
@@ -453,7 +682,11 @@ public class ConsoleApp {
                 mentions
         );
 
-        systeme.diffuserEvenement(publication);
+        // Le système complète les mentions à la diffusion : le contenu n'est analysé qu'une fois
+        if (systeme.diffuserEvenement(publication) instanceof Publication diffusee && !diffusee.mentions().isEmpty()) {
+            System.out.println("Entités mentionnées : "
+                    + String.join(", ", diffusee.mentions().stream().map(Entite::getNom).toList()));
+        }
         System.out.println("Publication simulée avec succès : ");
     }
 
@@ -496,7 +729,7 @@ public class ConsoleApp {
             return;
         }
 
-        Evenement rachat = new Evenement(
+        Rachat rachat = new Rachat(
                 LocalDate.now(),
                 acheteur,
                 vendeur,
@@ -504,9 +737,12 @@ public class ConsoleApp {
                 "Rachat simulé",
                 pourcentage
         );
-        systeme.traiterRachat(rachat); //traite le rachat
-        systeme.diffuserEvenement(rachat);
-        System.out.println("Rachat simulé avec succès.");
+        // Le rachat n'est diffusé aux modules que si le transfert est validé
+        if (systeme.traiterRachat(rachat)) {
+            System.out.println("Rachat simulé avec succès.");
+        } else {
+            System.out.println("Rachat refusé : aucune alerte n'a été émise.");
+        }
     }
 
     /**
@@ -514,14 +750,108 @@ public class ConsoleApp {
      */
     private void afficherHistoriquePublications() {
         System.out.println("\n=== HISTORIQUE DES PUBLICATIONS ===");
-        List<Evenement> historique = systeme.getHistorique("publication");
+        List<Evenement> historique = systeme.getHistorique(TypeEvenement.PUBLICATION);
         if (historique.isEmpty()) {
             System.out.println("Aucune publication enregistrée.");
             return;
         }
 
         for (Evenement evenement : historique) {
-            System.out.println("- " + evenement.getDate() + " : " + evenement.getContenu());
+            if (evenement instanceof Publication publication) {
+                System.out.println("- " + publication.date() + " : " + publication.contenu());
+            }
+        }
+    }
+
+    /**
+     * Affiche le nombre de publications de chaque média, mois par mois.
+     */
+    private void afficherPublicationsParMois() {
+        System.out.println("\n=== PUBLICATIONS PAR MÉDIA ET PAR MOIS ===");
+        Map<Media, Map<YearMonth, Integer>> comptes = systeme.getHistoriqueColonnaire().compterPublicationsParMediaEtParMois();
+        if (comptes.isEmpty()) {
+            System.out.println("Aucune publication enregistrée.");
+            return;
+        }
+        comptes.forEach((media, parMois) -> {
+            System.out.println("- " + media.getNom());
+            parMois.forEach((mois, nombre) -> System.out.println("    " + mois + " : " + nombre));
+        });
+    }
+
+    /**
+     * Active le regroupement des alertes par entité sur une fenêtre saisie par l'utilisateur,
+     * ou le désactive s'il est déjà actif.
+     */
+    private void configurerDigest() {
+        if (vigie.isDigestActif()) {
+            vigie.desactiverDigest();
+            System.out.println("Regroupement des alertes désactivé.");
+            return;
+        }
+        System.out.print("Durée de la fenêtre de regroupement (en secondes) : ");
+        try {
+            long secondes = Long.parseLong(scanner.nextLine().trim());
+            if (secondes <= 0) {
+                System.out.println("Durée invalide.");
+                return;
+            }
+            vigie.activerDigest(secondes * 1000, NOMBRE_ECHANTILLONS_DIGEST);
+            System.out.println("Regroupement des alertes activé : une alerte par entité toutes les " + secondes + " s.");
+        } catch (NumberFormatException e) {
+            System.out.println("Durée invalide.");
+        }
+    }
+
+    /**
+     * Recherche dans l'archive les alertes d'une entité, d'un module ou d'une période
+     * (un mois « AAAA-MM », un jour « AAAA-MM-JJ » ou deux jours séparés par une espace).
+     */
+    private void rechercherDansArchive() {
+        System.out.println("\n=== RECHERCHE DANS L'ARCHIVE DES ALERTES ===");
+        if (archive == null) {
+            System.out.println("Archive indisponible.");
+            return;
+        }
+        System.out.print("Nom de l'entité (vide pour toutes) : ");
+        String entite = scanner.nextLine().trim();
+        System.out.print("Module émetteur (vide pour tous) : ");
+        String module = scanner.nextLine().trim();
+        System.out.print("Période (AAAA-MM, AAAA-MM-JJ ou AAAA-MM-JJ AAAA-MM-JJ, vide pour tout) : ");
+        String periode = scanner.nextLine().trim();
+
+        LocalDate du = null;
+        LocalDate au = null;
+        try {
+            String[] bornes = periode.split("\\s+");
+            if (bornes.length == 2) {
+                du = LocalDate.parse(bornes[0]);
+                au = LocalDate.parse(bornes[1]);
+            } else if (periode.length() == 7) {
+                YearMonth mois = YearMonth.parse(periode);
+                du = mois.atDay(1);
+                au = mois.atEndOfMonth();
+            } else if (!periode.isEmpty()) {
+                du = LocalDate.parse(periode);
+                au = du;
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println("Période invalide.");
+            return;
+        }
+
+        List<Alerte> alertes = archive.rechercher(entite.isEmpty() ? null : entite, module.isEmpty() ? null : module,
+                du, au, LIMITE_RECHERCHE_ARCHIVE);
+        if (alertes.isEmpty()) {
+            System.out.println("Aucune alerte archivée ne correspond.");
+            return;
+        }
+        for (Alerte alerte : alertes) {
+            System.out.println("- " + Instant.ofEpochMilli(alerte.getHorodatage()).atZone(ZoneId.systemDefault()).toLocalDateTime()
+                    .truncatedTo(ChronoUnit.SECONDS) + " : " + alerte.getMessage());
+        }
+        if (alertes.size() == LIMITE_RECHERCHE_ARCHIVE) {
+            System.out.println("(résultats limités aux " + LIMITE_RECHERCHE_ARCHIVE + " premières alertes)");
         }
     }
 
@@ -533,11 +863,11 @@ public class ConsoleApp {
         List<String> alertes = vigie.getHistoriqueAlertes();
         if (alertes.isEmpty()) {
             System.out.println("Aucune alerte reçue.");
-            return;
         }
 
         for (String alerte : alertes) {
             System.out.println("- " + alerte);
         }
+        vigie.afficherAlertesEcartees();
     }
     }
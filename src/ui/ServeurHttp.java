@@ -0,0 +1,610 @@
+package ui;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import core.AbonneParLots;
+import core.ArchiveAlertes;
+import core.FormatEvenement;
+import core.JsonPlat;
+import core.ParticipationService;
+import core.SystemeEvenementiel;
+import core.Vigie;
+import model.Alerte;
+import model.Entite;
+import model.Evenement;
+import model.Participation;
+import model.Publication;
+import model.Rachat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serveur HTTP embarqué permettant d'alimenter le système sans passer par la console.
+ * Chaque requête est traitée sur un fil virtuel ; le nombre de requêtes en cours est borné
+ * et les requêtes excédentaires reçoivent immédiatement une réponse 503. Les flux (alertes, événements),
+ * qui occupent leur connexion indéfiniment, ont leur propre limite et ne consomment pas
+ * de place parmi les requêtes en cours.
+ * Les connexions HTTP/1.1 restent ouvertes entre deux requêtes, ce qui permet à un client
+ * d'enchaîner ses envois sur une même connexion.
+ *
+ * <ul>
+ *   <li>{@code POST /evenements} : un événement JSON ;</li>
+ *   <li>{@code POST /evenements/lot} : des événements JSON, un par ligne (NDJSON), lus au fil de l'eau ;</li>
+ *   <li>{@code GET /evenements/flux} : événements diffusés en continu (Server-Sent Events), regroupés
+ *   par lots pour n'envoyer qu'un paquet par lot ;</li>
+ *   <li>{@code GET /alertes?depuis=N&limite=M} : alertes reçues par la Vigie à partir du rang N ;</li>
+ *   <li>{@code GET /alertes/flux} : alertes en continu (Server-Sent Events), lues depuis le flux réactif
+ *   de la Vigie au rythme où le client les consomme ;</li>
+ *   <li>{@code GET /alertes/archive?entite=nom&module=M&du=AAAA-MM-JJ&au=AAAA-MM-JJ&limite=N} : alertes
+ *   de l'archive persistante, tous critères facultatifs ;</li>
+ *   <li>{@code GET /participations?entite=nom} : propriétaires et propriétés d'une entité.</li>
+ * </ul>
+ */
+public class ServeurHttp {
+    private static final int TAILLE_MAX_EVENEMENT = 64 * 1024;
+    private static final int LIMITE_ALERTES_DEFAUT = 100;
+    private static final int ERREURS_MAX_RAPPORTEES = 20;
+    private static final int TAMPON_FLUX_ALERTES = 64;
+    private static final long DELAI_MAINTIEN_FLUX_SECONDES = 15;
+    private static final int MAX_FLUX_DEFAUT = 64;
+    private static final int LIGNE_LUE = 0;
+    private static final int LIGNE_TROP_LONGUE = 1;
+    private static final int FIN_DE_FLUX = -1;
+    private static final int TAILLE_LOT_FLUX_EVENEMENTS = 64;
+    private static final long DELAI_LOT_FLUX_EVENEMENTS_MILLIS = 200;
+    private static final int LOTS_EN_ATTENTE_MAX = 4;
+
+    private final ParticipationService participationService;
+    private final SystemeEvenementiel systeme;
+    private final Vigie vigie;
+    private final Semaphore requetesEnCours;
+    private final Semaphore fluxEnCours;
+    private final ReentrantLock verrouMoteur = new ReentrantLock();
+    private final HttpServer serveur;
+    private final ExecutorService executeur;
+
+    /**
+     * Prépare le serveur (sans le démarrer), avec au plus {@value #MAX_FLUX_DEFAUT} flux simultanés.
+     *
+     * @param port                 port d'écoute
+     * @param maxRequetesEnCours   nombre maximal de requêtes traitées simultanément
+     * @param participationService service des participations
+     * @param systeme              système de diffusion des événements
+     * @param vigie                vigie dont les alertes sont exposées
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public ServeurHttp(int port, int maxRequetesEnCours, ParticipationService participationService,
+                       SystemeEvenementiel systeme, Vigie vigie) throws IOException {
+        this(port, maxRequetesEnCours, MAX_FLUX_DEFAUT, participationService, systeme, vigie);
+    }
+
+    /**
+     * Prépare le serveur (sans le démarrer).
+     *
+     * @param port                 port d'écoute
+     * @param maxRequetesEnCours   nombre maximal de requêtes traitées simultanément
+     * @param maxFluxEnCours       nombre maximal de flux (alertes, événements) ouverts simultanément
+     * @param participationService service des participations
+     * @param systeme              système de diffusion des événements
+     * @param vigie                vigie dont les alertes sont exposées
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public ServeurHttp(int port, int maxRequetesEnCours, int maxFluxEnCours, ParticipationService participationService,
+                       SystemeEvenementiel systeme, Vigie vigie) throws IOException {
+        this.participationService = participationService;
+        this.systeme = systeme;
+        this.vigie = vigie;
+        this.requetesEnCours = new Semaphore(maxRequetesEnCours);
+        this.fluxEnCours = new Semaphore(maxFluxEnCours);
+        this.executeur = Executors.newVirtualThreadPerTaskExecutor();
+        this.serveur = HttpServer.create(new InetSocketAddress(port), 0);
+        this.serveur.setExecutor(executeur);
+        this.serveur.createContext("/evenements/lot", borne(requetesEnCours, this::recevoirLot));
+        this.serveur.createContext("/evenements/flux", borne(fluxEnCours, this::diffuserEvenements));
+        this.serveur.createContext("/evenements", borne(requetesEnCours, this::recevoirEvenement));
+        this.serveur.createContext("/alertes/flux", borne(fluxEnCours, this::diffuserAlertes));
+        this.serveur.createContext("/alertes/archive", borne(requetesEnCours, this::rechercherAlertesArchivees));
+        this.serveur.createContext("/alertes", borne(requetesEnCours, this::listerAlertes));
+        this.serveur.createContext("/participations", borne(requetesEnCours, this::consulterParticipations));
+    }
+
+    /**
+     * Démarre l'écoute des requêtes.
+     */
+    public void demarrer() {
+        serveur.start();
+    }
+
+    /**
+     * Arrête le serveur en laissant aux requêtes en cours le délai indiqué pour se terminer,
+     * puis interrompt celles qui restent (les flux notamment).
+     * La fermeture est ensuite exécutée sous le verrou du moteur : une requête retardataire
+     * ne peut pas modifier l'état pendant qu'il est sauvegardé.
+     *
+     * @param delaiSecondes délai maximal d'attente
+     * @param fermeture     traitement de fermeture (sauvegarde de l'état, fermeture des fichiers)
+     */
+    public void arreter(int delaiSecondes, Runnable fermeture) {
+        serveur.stop(delaiSecondes);
+        executeur.shutdown();
+        try {
+            if (!executeur.awaitTermination(delaiSecondes, TimeUnit.SECONDS)) {
+                executeur.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executeur.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        verrouMoteur.lock();
+        try {
+            fermeture.run();
+        } finally {
+            verrouMoteur.unlock();
+        }
+    }
+
+    /**
+     * @return port effectivement utilisé
+     */
+    public int getPort() {
+        return serveur.getAddress().getPort();
+    }
+
+    /**
+     * Entoure un traitement d'une limite d'échanges simultanés.
+     */
+    private HttpHandler borne(Semaphore limite, HttpHandler traitement) {
+        return echange -> {
+            if (!limite.tryAcquire()) {
+                echange.getResponseHeaders().set("Retry-After", "1");
+                repondre(echange, 503, "{\"erreur\":\"trop de requêtes en cours\"}");
+                return;
+            }
+            try {
+                traitement.handle(echange);
+            } catch (RuntimeException e) {
+                repondre(echange, 500, "{\"erreur\":" + JsonPlat.chaine(e.toString()) + "}");
+            } finally {
+                limite.release();
+                echange.close();
+            }
+        };
+    }
+
+    private void recevoirEvenement(HttpExchange echange) throws IOException {
+        if (!verifierMethode(echange, "POST") || !verifierChemin(echange, "/evenements")) {
+            return;
+        }
+        byte[] corps = lireCorps(echange.getRequestBody());
+        if (corps == null) {
+            repondre(echange, 413, "{\"erreur\":\"événement trop volumineux\"}");
+            return;
+        }
+        String resultat = traiter(new String(corps, StandardCharsets.UTF_8));
+        switch (resultat) {
+            case "diffuse" -> repondre(echange, 202, "{\"statut\":\"diffuse\"}");
+            case "refuse" -> repondre(echange, 409, "{\"statut\":\"refuse\"}");
+            default -> repondre(echange, 400, "{\"erreur\":" + JsonPlat.chaine(resultat) + "}");
+        }
+    }
+
+    private void recevoirLot(HttpExchange echange) throws IOException {
+        if (!verifierMethode(echange, "POST")) {
+            return;
+        }
+        long diffuses = 0;
+        long refuses = 0;
+        long invalides = 0;
+        List<String> erreurs = new ArrayList<>();
+
+        // Lecture au fil de l'eau : seul l'événement courant est gardé en mémoire, dans la limite de sa taille maximale
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(echange.getRequestBody(), StandardCharsets.UTF_8))) {
+            StringBuilder ligne = new StringBuilder();
+            int lecture;
+            long numero = 0;
+            while ((lecture = lireLigneBornee(br, ligne)) != FIN_DE_FLUX) {
+                numero++;
+                String texte = ligne.toString();
+                if (lecture == LIGNE_LUE && texte.isBlank()) {
+                    continue;
+                }
+                String resultat = lecture == LIGNE_TROP_LONGUE ? "événement trop volumineux" : traiter(texte);
+                switch (resultat) {
+                    case "diffuse" -> diffuses++;
+                    case "refuse" -> refuses++;
+                    default -> {
+                        invalides++;
+                        if (erreurs.size() < ERREURS_MAX_RAPPORTEES) {
+                            erreurs.add("ligne " + numero + " : " + resultat);
+                        }
+                    }
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"diffuses\":").append(diffuses)
+                .append(",\"refuses\":").append(refuses)
+                .append(",\"invalides\":").append(invalides)
+                .append(",\"erreurs\":[");
+        for (int i = 0; i < erreurs.size(); i++) {
+            sb.append(i > 0 ? "," : "").append(JsonPlat.chaine(erreurs.get(i)));
+        }
+        repondre(echange, 200, sb.append("]}").toString());
+    }
+
+    private void listerAlertes(HttpExchange echange) throws IOException {
+        if (!verifierMethode(echange, "GET")) {
+            return;
+        }
+        Map<String, String> parametres = parametres(echange);
+        int depuis;
+        int limite;
+        try {
+            depuis = Math.max(0, Integer.parseInt(parametres.getOrDefault("depuis", "0")));
+            limite = Math.max(0, Integer.parseInt(parametres.getOrDefault("limite", String.valueOf(LIMITE_ALERTES_DEFAUT))));
+        } catch (NumberFormatException e) {
+            repondre(echange, 400, "{\"erreur\":\"paramètre numérique invalide\"}");
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        verrouMoteur.lock();
+        try {
+            List<String> alertes = vigie.getHistoriqueAlertes();
+            int fin = (int) Math.min(alertes.size(), (long) depuis + limite);
+            sb.append("{\"total\":").append(alertes.size()).append(",\"alertes\":[");
+            for (int i = depuis; i < fin; i++) {
+                sb.append(i > depuis ? "," : "").append(JsonPlat.chaine(alertes.get(i)));
+            }
+        } finally {
+            verrouMoteur.unlock();
+        }
+        repondre(echange, 200, sb.append("]}").toString());
+    }
+
+    /**
+     * Transmet les alertes au fil de l'eau. Une nouvelle alerte n'est demandée au flux de la Vigie
+     * qu'après l'envoi de la précédente : un client lent ne fait grossir aucune file dans le serveur,
+     * il perd simplement les alertes qui ne tiennent plus dans son tampon.
+     */
+    private void diffuserAlertes(HttpExchange echange) throws IOException {
+        if (!verifierMethode(echange, "GET")) {
+            return;
+        }
+        BlockingQueue<Alerte> recues = new ArrayBlockingQueue<>(TAMPON_FLUX_ALERTES);
+        CompletableFuture<Flow.Subscription> abonnement = new CompletableFuture<>();
+        AtomicBoolean termine = new AtomicBoolean();
+        vigie.getFluxAlertes().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                abonnement.complete(subscription);
+                subscription.request(TAMPON_FLUX_ALERTES);
+            }
+
+            @Override
+            public void onNext(Alerte alerte) {
+                recues.offer(alerte); // la demande en cours ne dépasse jamais la capacité de la file
+            }
+
+            @Override
+            public void onError(Throwable erreur) {
+                termine.set(true);
+            }
+
+            @Override
+            public void onComplete() {
+                termine.set(true);
+            }
+        });
+
+        echange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        echange.getResponseHeaders().set("Cache-Control", "no-cache");
+        echange.sendResponseHeaders(200, 0);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            Flow.Subscription subscription = abonnement.join();
+            while (!termine.get() || !recues.isEmpty()) {
+                Alerte alerte = recues.poll(DELAI_MAINTIEN_FLUX_SECONDES, TimeUnit.SECONDS);
+                if (alerte == null) {
+                    sortie.write(": maintien\n\n".getBytes(StandardCharsets.UTF_8)); // détecte les clients partis
+                } else {
+                    sortie.write(("data: " + alerteJson(alerte) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    subscription.request(1);
+                }
+                sortie.flush();
+            }
+        } catch (IOException e) {
+            // client déconnecté
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            abonnement.thenAccept(Flow.Subscription::cancel);
+        }
+    }
+
+    /**
+     * Transmet les événements diffusés par lots : un lot est envoyé dès qu'il est plein, ou après
+     * {@value #DELAI_LOT_FLUX_EVENEMENTS_MILLIS} ms s'il reste incomplet, en une seule écriture.
+     * Un client qui n'absorbe pas les lots perd ceux qui ne tiennent plus dans sa file.
+     */
+    private void diffuserEvenements(HttpExchange echange) throws IOException {
+        if (!verifierMethode(echange, "GET")) {
+            return;
+        }
+        BlockingQueue<List<Evenement>> lots = new ArrayBlockingQueue<>(LOTS_EN_ATTENTE_MAX);
+        AbonneParLots<Evenement> abonne = new AbonneParLots<>(TAILLE_LOT_FLUX_EVENEMENTS,
+                DELAI_LOT_FLUX_EVENEMENTS_MILLIS, lots::offer);
+        systeme.getFluxEvenements().subscribe(abonne);
+
+        echange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        echange.getResponseHeaders().set("Cache-Control", "no-cache");
+        echange.sendResponseHeaders(200, 0);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            while (!abonne.estTermine() || !lots.isEmpty()) {
+                List<Evenement> lot = lots.poll(DELAI_MAINTIEN_FLUX_SECONDES, TimeUnit.SECONDS);
+                if (lot == null) {
+                    sortie.write(": maintien\n\n".getBytes(StandardCharsets.UTF_8)); // détecte les clients partis
+                } else {
+                    StringBuilder sb = new StringBuilder();
+                    for (Evenement evenement : lot) {
+                        sb.append("data: ").append(evenementJson(evenement)).append("\n\n");
+                    }
+                    sortie.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                sortie.flush();
+            }
+        } catch (IOException e) {
+            // client déconnecté
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            abonne.annuler();
+        }
+    }
+
+    /**
+     * Événement au format JSON accepté par {@code POST /evenements}.
+     */
+    private static String evenementJson(Evenement evenement) {
+        StringBuilder sb = new StringBuilder();
+        switch (evenement) {
+            case Rachat r -> sb.append("{\"type\":\"rachat\",\"date\":\"").append(r.date())
+                    .append("\",\"acheteur\":").append(JsonPlat.chaine(r.acheteur().getNom()))
+                    .append(",\"vendeur\":").append(JsonPlat.chaine(r.vendeur().getNom()))
+                    .append(",\"cible\":").append(JsonPlat.chaine(r.cible().getNom()))
+                    .append(",\"pourcentage\":").append(r.pourcentage())
+                    .append(",\"description\":").append(JsonPlat.chaine(r.description())).append('}');
+            case Publication p -> {
+                sb.append("{\"type\":\"publication\",\"date\":\"").append(p.date())
+                        .append("\",\"source\":").append(p.source() == null ? "null" : JsonPlat.chaine(p.source().getNom()))
+                        .append(",\"typePublication\":").append(JsonPlat.chaine(p.typePublication()))
+                        .append(",\"contenu\":").append(JsonPlat.chaine(p.contenu()))
+                        .append(",\"mentions\":[");
+                for (int i = 0; i < p.mentions().size(); i++) {
+                    sb.append(i > 0 ? "," : "").append(JsonPlat.chaine(p.mentions().get(i).getNom()));
+                }
+                sb.append("]}");
+            }
+        }
+        return sb.toString();
+    }
+
+    private void rechercherAlertesArchivees(HttpExchange echange) throws IOException {
+        if (!verifierMethode(echange, "GET")) {
+            return;
+        }
+        ArchiveAlertes archive = vigie.getArchive();
+        if (archive == null) {
+            repondre(echange, 404, "{\"erreur\":\"aucune archive des alertes\"}");
+            return;
+        }
+        Map<String, String> parametres = parametres(echange);
+        LocalDate du;
+        LocalDate au;
+        int limite;
+        try {
+            du = parametres.containsKey("du") ? LocalDate.parse(parametres.get("du")) : null;
+            au = parametres.containsKey("au") ? LocalDate.parse(parametres.get("au")) : null;
+            limite = Math.max(0, Integer.parseInt(parametres.getOrDefault("limite", String.valueOf(LIMITE_ALERTES_DEFAUT))));
+        } catch (DateTimeException | NumberFormatException e) {
+            repondre(echange, 400, "{\"erreur\":\"paramètre invalide\"}");
+            return;
+        }
+
+        List<Alerte> alertes = archive.rechercher(parametres.get("entite"), parametres.get("module"), du, au, limite);
+        StringBuilder sb = new StringBuilder("{\"alertes\":[");
+        for (int i = 0; i < alertes.size(); i++) {
+            sb.append(i > 0 ? "," : "").append(alerteJson(alertes.get(i)));
+        }
+        repondre(echange, 200, sb.append("]}").toString());
+    }
+
+    private static String alerteJson(Alerte alerte) {
+        return "{\"module\":" + (alerte.getModule() == null ? "null" : JsonPlat.chaine(alerte.getModule()))
+                + ",\"entite\":" + (alerte.getEntite() == null ? "null" : JsonPlat.chaine(alerte.getEntite().getNom()))
+                + ",\"horodatage\":" + alerte.getHorodatage()
+                + ",\"message\":" + JsonPlat.chaine(alerte.getMessage()) + "}";
+    }
+
+    private void consulterParticipations(HttpExchange echange) throws IOException {
+        if (!verifierMethode(echange, "GET")) {
+            return;
+        }
+        String nom = parametres(echange).get("entite");
+        if (nom == null || nom.isBlank()) {
+            repondre(echange, 400, "{\"erreur\":\"paramètre 'entite' manquant\"}");
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        verrouMoteur.lock();
+        try {
+            Entite entite = participationService.getEntiteParNom(nom);
+            if (entite == null) {
+                entite = participationService.getIndexRecherche().rechercherExact(nom);
+            }
+            if (entite == null) {
+                repondre(echange, 404, "{\"erreur\":\"entité inconnue\"}");
+                return;
+            }
+            sb.append("{\"entite\":").append(JsonPlat.chaine(entite.getNom()));
+            sb.append(",\"proprietaires\":[");
+            ecrireParticipations(sb, participationService.getProprietaires(entite), true);
+            sb.append("],\"proprietes\":[");
+            ecrireParticipations(sb, participationService.getProprietes(entite), false);
+            sb.append("]}");
+        } finally {
+            verrouMoteur.unlock();
+        }
+        repondre(echange, 200, sb.toString());
+    }
+
+    /**
+     * Lit un événement et le transmet au système.
+     *
+     * @return "diffuse", "refuse" (rachat refusé) ou la description de l'erreur
+     */
+    private String traiter(String texte) {
+        Evenement evenement;
+        try {
+            evenement = FormatEvenement.depuisJson(JsonPlat.lireObjet(texte), participationService);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return e.getMessage();
+        }
+        verrouMoteur.lock();
+        try {
+            return switch (evenement) {
+                case Rachat rachat -> systeme.traiterRachat(rachat) ? "diffuse" : "refuse";
+                case Publication publication -> {
+                    systeme.diffuserEvenement(publication);
+                    yield "diffuse";
+                }
+            };
+        } finally {
+            verrouMoteur.unlock();
+        }
+    }
+
+    private static void ecrireParticipations(StringBuilder sb, List<Participation> participations, boolean proprietaires) {
+        for (int i = 0; i < participations.size(); i++) {
+            Participation p = participations.get(i);
+            Entite autre = proprietaires ? p.getProprietaire() : p.getCible();
+            sb.append(i > 0 ? "," : "")
+                    .append("{\"nom\":").append(JsonPlat.chaine(autre.getNom()))
+                    .append(",\"pourcentage\":").append(p.getPourcentage()).append('}');
+        }
+    }
+
+    /**
+     * Lit le corps d'une requête dans la limite de {@link #TAILLE_MAX_EVENEMENT} octets.
+     *
+     * @return le corps, ou null s'il dépasse la limite
+     */
+    /**
+     * Lit une ligne dans {@code ligne} sans y garder plus de {@value #TAILLE_MAX_EVENEMENT} caractères :
+     * au-delà, le reste de la ligne est lu et ignoré jusqu'à la fin de ligne suivante.
+     *
+     * @return {@link #LIGNE_LUE}, {@link #LIGNE_TROP_LONGUE} ou {@link #FIN_DE_FLUX} si rien n'a été lu
+     */
+    private static int lireLigneBornee(BufferedReader lecteur, StringBuilder ligne) throws IOException {
+        ligne.setLength(0);
+        boolean tropLongue = false;
+        int c;
+        while ((c = lecteur.read()) >= 0) {
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                lecteur.mark(1);
+                if (lecteur.read() != '\n') {
+                    lecteur.reset();
+                }
+                break;
+            }
+            if (ligne.length() < TAILLE_MAX_EVENEMENT) {
+                ligne.append((char) c);
+            } else {
+                tropLongue = true;
+            }
+        }
+        if (c < 0 && ligne.isEmpty() && !tropLongue) {
+            return FIN_DE_FLUX;
+        }
+        if (tropLongue) {
+            ligne.setLength(0);
+            return LIGNE_TROP_LONGUE;
+        }
+        return LIGNE_LUE;
+    }
+
+    private static byte[] lireCorps(InputStream entree) throws IOException {
+        byte[] corps = entree.readNBytes(TAILLE_MAX_EVENEMENT + 1);
+        return corps.length > TAILLE_MAX_EVENEMENT ? null : corps;
+    }
+
+    private static Map<String, String> parametres(HttpExchange echange) {
+        Map<String, String> parametres = new HashMap<>();
+        String requete = echange.getRequestURI().getRawQuery();
+        if (requete == null) {
+            return parametres;
+        }
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            if (egal > 0) {
+                parametres.put(URLDecoder.decode(paire.substring(0, egal), StandardCharsets.UTF_8),
+                        URLDecoder.decode(paire.substring(egal + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametres;
+    }
+
+    private static boolean verifierMethode(HttpExchange echange, String methode) throws IOException {
+        if (!echange.getRequestMethod().equalsIgnoreCase(methode)) {
+            echange.getResponseHeaders().set("Allow", methode);
+            repondre(echange, 405, "{\"erreur\":\"méthode non autorisée\"}");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean verifierChemin(HttpExchange echange, String chemin) throws IOException {
+        if (!echange.getRequestURI().getPath().equals(chemin)) {
+            repondre(echange, 404, "{\"erreur\":\"ressource inconnue\"}");
+            return false;
+        }
+        return true;
+    }
+
+    private static void repondre(HttpExchange echange, int code, String json) throws IOException {
+        byte[] octets = json.getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        echange.sendResponseHeaders(code, octets.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(octets);
+        }
+    }
+}